@@ -0,0 +1,68 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.command.CommandManager;
+import com.zhou.movies.command.impl.AddMovieCommand;
+import com.zhou.movies.command.impl.DeleteMovieCommand;
+import com.zhou.movies.command.impl.EditMovieCommand;
+import com.zhou.movies.dto.MovieDTO;
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Add/edit/delete command paths through CommandManager, each followed by its undo
+ * so the library size stays constant across invocations.
+ * The repository does no I/O, so this measures service and index maintenance cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private MovieServiceImpl service;
+    private CommandManager commandManager;
+    private Movie target;
+    private MovieDTO addDTO;
+    private MovieDTO editDTO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Movie> movies = MovieLibraryGenerator.generate(size, 42);
+        service = new MovieServiceImpl(new InMemoryMovieRepository(movies));
+        commandManager = new CommandManager();
+        target = movies.get(movies.size() / 2);
+
+        addDTO = new MovieDTO("Benchmark Night", "Bench Director", "2024", Category.DRAMA, Status.WATCHING, 4);
+        editDTO = new MovieDTO(target.getTitle() + " Redux", target.getDirector(), "1999",
+                Category.HORROR, Status.WATCHED, 2);
+    }
+
+    @Benchmark
+    public void addThenUndo() throws Exception {
+        commandManager.execute(new AddMovieCommand(service, addDTO));
+        commandManager.undo();
+    }
+
+    @Benchmark
+    public void editThenUndo() throws Exception {
+        commandManager.execute(new EditMovieCommand(service, target, editDTO));
+        commandManager.undo();
+    }
+
+    @Benchmark
+    public void deleteThenUndo() throws Exception {
+        commandManager.execute(new DeleteMovieCommand(service, target));
+        commandManager.undo();
+    }
+}
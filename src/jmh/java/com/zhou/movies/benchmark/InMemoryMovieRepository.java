@@ -0,0 +1,41 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.MovieRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository without I/O, so service benchmarks measure only in-memory work.
+ */
+public class InMemoryMovieRepository implements MovieRepository {
+
+    private final List<Movie> movies;
+
+    public InMemoryMovieRepository(List<Movie> movies) {
+        this.movies = movies;
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        return new ArrayList<>(movies);
+    }
+
+    @Override
+    public void saveAll(List<Movie> moviesListCache) {
+    }
+
+    @Override
+    public void save(Movie movie) {
+    }
+
+    @Override
+    public void deleteById(String id) {
+    }
+
+    @Override
+    public void saveBatch(Collection<Movie> movies) {
+    }
+}
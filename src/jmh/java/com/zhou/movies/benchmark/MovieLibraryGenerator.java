@@ -0,0 +1,65 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic movie library for benchmarks.
+ * Titles are built from a small vocabulary so searches hit realistic fractions
+ * of the library; directors repeat (about one director per 20 movies).
+ */
+public final class MovieLibraryGenerator {
+
+    private static final String[] WORDS = {
+            "the", "night", "dark", "star", "return", "of", "king", "last", "city", "lost",
+            "love", "war", "shadow", "river", "storm", "silent", "empire", "dream", "blue", "fire",
+            "ghost", "island", "secret", "garden", "machine", "winter", "summer", "road", "house", "moon"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Christopher", "Greta", "Akira", "Sofia", "Denis", "Agnes", "Martin", "Bong", "Kathryn", "Wong"
+    };
+    private static final String[] LAST_NAMES = {
+            "Nolan", "Gerwig", "Kurosawa", "Coppola", "Villeneuve", "Varda", "Scorsese", "Joon-ho", "Bigelow", "Kar-wai"
+    };
+
+    private MovieLibraryGenerator() {
+    }
+
+    public static List<Movie> generate(int size, long seed) {
+        Random random = new Random(seed);
+        Category[] categories = Category.values();
+        Status[] statuses = Status.values();
+        int directorPool = Math.max(1, size / 20);
+
+        List<Movie> movies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            movies.add(new Movie.Builder(title(random, i), director(random.nextInt(directorPool)))
+                    .year(1920 + random.nextInt(106))
+                    .rating(1 + random.nextInt(5))
+                    .category(categories[random.nextInt(categories.length)])
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .build());
+        }
+        return movies;
+    }
+
+    private static String title(Random random, int index) {
+        int words = 1 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length()).append(' ');
+        }
+        return sb.append(index).toString(); // keeps titles unique
+    }
+
+    private static String director(int id) {
+        return FIRST_NAMES[id % FIRST_NAMES.length] + " " + LAST_NAMES[(id / FIRST_NAMES.length) % LAST_NAMES.length]
+                + (id >= FIRST_NAMES.length * LAST_NAMES.length ? " " + id : "");
+    }
+}
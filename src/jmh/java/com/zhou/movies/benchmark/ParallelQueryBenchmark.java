@@ -0,0 +1,70 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import com.zhou.movies.service.query.MovieQuery;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential vs. parallel query evaluation across library sizes, to locate the
+ * crossover where forking onto the ForkJoinPool starts to pay off.
+ *
+ * PARALLEL forces every search and sort onto the pool (threshold 1), so the pair of
+ * results at each size shows the cost or gain of parallelism without a threshold.
+ * Only meaningful on multi-core hardware: with one CPU the pool has nothing to gain,
+ * so no crossover (and no default threshold) has been derived from it yet. The sort
+ * alone is measured by SlotSortBenchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelQueryBenchmark {
+
+    @Param({"10000", "50000", "100000", "500000", "1000000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    public String mode;
+
+    // NONE (pure sort), a sub-trigram scan and a trigram search
+    @Param({"NONE", "th", "night"})
+    public String search;
+
+    @Param({"TITLE", "YEAR"})
+    public SortStrategyType sort;
+
+    private MovieServiceImpl service;
+    private MovieQuery query;
+    private Movie touchedMovie;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Movie> movies = MovieLibraryGenerator.generate(size, 42);
+        touchedMovie = movies.get(0);
+        int threshold = "PARALLEL".equals(mode) ? 1 : MovieServiceImpl.SEQUENTIAL_ONLY;
+        service = new MovieServiceImpl(new InMemoryMovieRepository(movies), threshold);
+
+        query = new MovieQuery.Builder()
+                .search("NONE".equals(search) ? null : search)
+                .sortType(sort)
+                .build();
+    }
+
+    /** Replacing a movie with itself bumps the data version and so drops memoized results. */
+    @Setup(Level.Invocation)
+    public void invalidateResults() {
+        service.updateMovie(touchedMovie);
+    }
+
+    @Benchmark
+    public List<Movie> evaluate() {
+        return service.query(query);
+    }
+}
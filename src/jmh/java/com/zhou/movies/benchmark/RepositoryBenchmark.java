@@ -0,0 +1,60 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.impl.MovieRepositoryJsonImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * MovieRepositoryJsonImpl.findAll/saveAll on a temporary file, pretty and compact.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean prettyPrinting;
+
+    private Path directory;
+    private MovieRepositoryJsonImpl repository;
+    private List<Movie> movies;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("movies-bench");
+        movies = MovieLibraryGenerator.generate(size, 42);
+        repository = new MovieRepositoryJsonImpl(directory.resolve("movies.json").toString(), prettyPrinting);
+        repository.saveAll(movies);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<Movie> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public void saveAll() {
+        repository.saveAll(movies);
+    }
+}
@@ -0,0 +1,103 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import com.zhou.movies.service.index.ColumnarRowStore;
+import com.zhou.movies.service.index.ObjectRowStore;
+import com.zhou.movies.service.index.PagedRowStore;
+import com.zhou.movies.service.index.RowStore;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per movie of a MovieServiceImpl over each RowStore implementation.
+ *
+ * Builds the whole service (store, secondary indexes, trigram search index and sorted
+ * views) from a generated library that it keeps no other reference to, and reports the
+ * heap still in use after GC. The bare store is reported alongside for comparison.
+ *
+ * Usage: java -cp target/benchmarks.jar com.zhou.movies.benchmark.RowStoreFootprint [size]
+ */
+public class RowStoreFootprint {
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        report("ObjectRowStore", size, ObjectRowStore::new);
+        report("ColumnarRowStore", size, ColumnarRowStore::new);
+        // Rows live in mapped files; the heap holds the ID index, the page table and the service's indexes
+        report("PagedRowStore", size, () -> new PagedRowStore(tempDirectory()));
+    }
+
+    private static void report(String name, int size, Supplier<RowStore> storeFactory) {
+        long before = usedAfterGc();
+        RowStore store = fillStore(storeFactory.get(), size);
+        long storeOnly = usedAfterGc() - before;
+        close(store);
+
+        before = usedAfterGc();
+        RowStore serviceStore = storeFactory.get();
+        MovieServiceImpl service = new MovieServiceImpl(
+                new GeneratedRepository(MovieLibraryGenerator.generate(size, 42)),
+                serviceStore, MovieServiceImpl.SEQUENTIAL_ONLY);
+        long whole = usedAfterGc() - before;
+
+        System.out.printf("%-18s %,d movies: store %.1f bytes/movie, whole service %.1f bytes/movie (%,d bytes)%n",
+                name, serviceStore.slotCount(), storeOnly / (double) size, whole / (double) size, whole);
+        Reference.reachabilityFence(service);
+        close(serviceStore);
+    }
+
+    private static RowStore fillStore(RowStore store, int size) {
+        List<Movie> movies = MovieLibraryGenerator.generate(size, 42);
+        for (Movie movie : movies) store.append(movie);
+        return store; // the generated list becomes garbage here
+    }
+
+    private static Path tempDirectory() {
+        try {
+            return Files.createTempDirectory("movies-paged");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create temp directory", e);
+        }
+    }
+
+    private static void close(RowStore store) {
+        if (store instanceof PagedRowStore paged) paged.close();
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Hands the generated library to the service once and keeps no reference to it. */
+    private static final class GeneratedRepository extends InMemoryMovieRepository {
+        private List<Movie> library;
+
+        GeneratedRepository(List<Movie> library) {
+            super(List.of());
+            this.library = library;
+        }
+
+        @Override
+        public List<Movie> findAll() {
+            List<Movie> movies = library;
+            library = null;
+            return movies;
+        }
+    }
+}
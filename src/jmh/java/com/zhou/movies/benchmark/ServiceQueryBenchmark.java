@@ -0,0 +1,107 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import com.zhou.movies.service.query.MovieQuery;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MovieServiceImpl query evaluation under every filter/sort/search combination.
+ *
+ * {@code evaluate} measures a full query evaluation: the query is not the session query,
+ * so the change made before each invocation finds no served result to patch and drops
+ * every memoized one. {@code cached} measures a repeated refresh of the session view
+ * (getAllMovies(), warmed once per trial and never invalidated).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"NONE", "ACTION"})
+    public String category;
+
+    @Param({"NONE", "WATCHED"})
+    public String status;
+
+    @Param({"NONE", "5"})
+    public String rating;
+
+    // NONE, a short (sub-trigram) query, a common word and a rare word
+    @Param({"NONE", "th", "night", "silent empire"})
+    public String search;
+
+    @Param({"TITLE", "YEAR", "RATING"})
+    public SortStrategyType sort;
+
+    @Param({"ASCENDING", "DESCENDING"})
+    public SortDirection direction;
+
+    private MovieServiceImpl service;
+    private MovieQuery query;
+    private Movie touchedMovie;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Movie> movies = MovieLibraryGenerator.generate(size, 42);
+        touchedMovie = movies.get(0);
+        service = new MovieServiceImpl(new InMemoryMovieRepository(movies));
+
+        query = new MovieQuery.Builder()
+                .category("NONE".equals(category) ? null : Category.valueOf(category))
+                .status("NONE".equals(status) ? null : Status.valueOf(status))
+                .rating("NONE".equals(rating) ? null : Integer.valueOf(rating))
+                .search("NONE".equals(search) ? null : search)
+                .sortType(sort)
+                .sortDirection(direction)
+                .build();
+    }
+
+    @Benchmark
+    public List<Movie> evaluate(Invalidated invalidated) {
+        return service.query(query);
+    }
+
+    @Benchmark
+    public List<Movie> cached(SessionView sessionView) {
+        return service.getAllMovies();
+    }
+
+    /** Drops memoized results before every invocation of the benchmarks that use it. */
+    @State(Scope.Benchmark)
+    public static class Invalidated {
+
+        /**
+         * Replacing a movie with itself bumps the data version. With no session result
+         * served there is nothing to patch, so every memoized result is dropped.
+         */
+        @Setup(Level.Invocation)
+        public void invalidateResults(ServiceQueryBenchmark benchmark) {
+            benchmark.service.updateMovie(benchmark.touchedMovie);
+        }
+    }
+
+    /** Makes the query the session query and serves it once, so its result is cached. */
+    @State(Scope.Benchmark)
+    public static class SessionView {
+
+        @Setup(Level.Trial)
+        public void warm(ServiceQueryBenchmark benchmark) {
+            benchmark.service.setCurrentQuery(benchmark.query);
+            benchmark.service.getAllMovies();
+        }
+    }
+}
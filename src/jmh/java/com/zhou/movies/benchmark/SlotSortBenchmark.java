@@ -0,0 +1,73 @@
+package com.zhou.movies.benchmark;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.index.ColumnarRowStore;
+import com.zhou.movies.service.index.SlotComparator;
+import com.zhou.movies.service.index.SlotSort;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import com.zhou.movies.service.strategy.impl.SortByTitleStrategy;
+import com.zhou.movies.service.strategy.impl.SortByYearStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The direct sort of the query path on its own: sequential vs. parallel sort of a
+ * random subset of a 1M-movie library's slots, by title or year column.
+ *
+ * The parallel run uses the chunking of MovieServiceImpl (at least 16384 slots a task,
+ * four tasks per pool thread), so subsets below one chunk show the pure overhead of
+ * going through the pool and larger ones its split/merge cost. See MovieServiceImpl
+ * for the numbers measured with it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotSortBenchmark {
+
+    private static final int LIBRARY_SIZE = 1_000_000;
+    private static final int MIN_PARALLEL_CHUNK = 16_384;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int candidates;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    public String mode;
+
+    @Param({"TITLE", "YEAR"})
+    public SortStrategyType sort;
+
+    private SlotComparator order;
+    private int[] unsorted;
+    private int[] slots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ColumnarRowStore rows = new ColumnarRowStore();
+        for (Movie movie : MovieLibraryGenerator.generate(LIBRARY_SIZE, 42)) rows.append(movie);
+        order = sort == SortStrategyType.TITLE ? new SortByTitleStrategy().slotComparator(rows)
+                : new SortByYearStrategy().slotComparator(rows);
+        unsorted = new Random(7).ints(0, LIBRARY_SIZE).distinct().limit(candidates).toArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void shuffle() {
+        slots = unsorted.clone();
+    }
+
+    @Benchmark
+    public int[] sortSlots() {
+        if ("PARALLEL".equals(mode)) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            SlotSort.parallelSort(slots, order, pool, Math.max(MIN_PARALLEL_CHUNK, slots.length / (pool.getParallelism() * 4)));
+        } else {
+            SlotSort.sort(slots, order);
+        }
+        return slots;
+    }
+}
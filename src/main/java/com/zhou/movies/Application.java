@@ -1,9 +1,11 @@
 package com.zhou.movies;
 
+import com.zhou.movies.command.CommandJournal;
 import com.zhou.movies.command.CommandManager;
 import com.zhou.movies.controller.MovieController;
-import com.zhou.movies.repository.MovieRepository;
-import com.zhou.movies.repository.impl.MovieRepositoryJsonImpl;
+import com.zhou.movies.repository.impl.MovieRepositoryBinaryImpl;
+import com.zhou.movies.repository.impl.MovieRepositoryLogImpl;
+import com.zhou.movies.repository.impl.WriteBehindMovieRepository;
 import com.zhou.movies.service.impl.MovieServiceImpl;
 import com.zhou.movies.view.MovieView;
 import com.zhou.movies.view.event.ViewListenerManager;
@@ -17,14 +19,29 @@ import javax.swing.*;
  */
 public class Application {
     private final String JSON_FILE_PATH = "movies.json";
+    private final String BINARY_FILE_PATH = "movies.bin";
+    private final String LOG_FILE_PATH = "movies.log";
+    private final String JOURNAL_FILE_PATH = "movies.journal";
+    private final long SAVE_DEBOUNCE_MILLIS = 300;
+    private final long SAVE_MAX_STALENESS_MILLIS = 2000;
+    private final int SEARCH_DEBOUNCE_MILLIS = 250;
 
     public void start() {
         SwingUtilities.invokeLater(() -> {
-            // Create components
-            MovieRepository movieRepository = new MovieRepositoryJsonImpl(JSON_FILE_PATH);
+            // Create components (the binary snapshot is imported from the JSON file on first start)
+            WriteBehindMovieRepository movieRepository = new WriteBehindMovieRepository(
+                    new MovieRepositoryLogImpl(
+                            MovieRepositoryBinaryImpl.openOrImport(BINARY_FILE_PATH, JSON_FILE_PATH), LOG_FILE_PATH),
+                    SAVE_DEBOUNCE_MILLIS, SAVE_MAX_STALENESS_MILLIS);
+            // Flush pending writes on exit (EXIT_ON_CLOSE runs shutdown hooks)
+            Runtime.getRuntime().addShutdownHook(new Thread(movieRepository::close, "movie-repository-flush"));
+
             MovieServiceImpl serviceImpl = new MovieServiceImpl(movieRepository);
             MovieView view = new MovieView();
-            CommandManager commandManager = new CommandManager();
+            // Undo history is kept across restarts; it is read back on first use
+            CommandJournal journal = new CommandJournal(JOURNAL_FILE_PATH, serviceImpl);
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "command-journal-flush"));
+            CommandManager commandManager = new CommandManager(CommandManager.DEFAULT_HISTORY_LIMIT, journal);
             MovieController controller = new MovieController(serviceImpl, commandManager);
 
             // Wire dependencies
@@ -34,7 +51,7 @@ public class Application {
             serviceImpl.addObserver(view);
 
             // Bind all UI listeners
-            ViewListenerManager listenerManager = new ViewListenerManager(view, controller);
+            ViewListenerManager listenerManager = new ViewListenerManager(view, controller, SEARCH_DEBOUNCE_MILLIS);
             listenerManager.bindListeners();
 
             // Load initial data into table
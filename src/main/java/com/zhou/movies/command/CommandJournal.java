@@ -0,0 +1,383 @@
+package com.zhou.movies.command;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.zhou.movies.command.impl.AddMovieCommand;
+import com.zhou.movies.command.impl.BatchCommand;
+import com.zhou.movies.command.impl.DeleteMovieCommand;
+import com.zhou.movies.command.impl.EditMovieCommand;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.MovieService;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of the undo/redo history.
+ *
+ * Responsibility:
+ * Records every executed, undone and redone command as one line of a journal file
+ * ("DO" followed by the command as JSON, "UNDO" or "REDO"), so CommandManager can rebuild
+ * its history after a restart. Reading is lazy: CommandManager reads the file only when the
+ * history is first used, and a command's JSON is decoded only when that command is undone,
+ * redone or visited. Once the file outgrows its size cap it is rewritten from the live
+ * history, keeping only the newest contiguous part of it that fits in half the cap. The
+ * history is cut at the first command that does not fit, even if older ones would, since
+ * undoing past a missing step would apply a change to a state it was never recorded against.
+ *
+ * Appending only encodes the entry and queues it, so the caller (the Swing EDT) never
+ * waits for the disk. A background writer appends everything queued since its last run
+ * with one write and one force (group commit). {@link #close()} writes what is left.
+ */
+public class CommandJournal implements AutoCloseable {
+
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    public enum Op { DO, UNDO, REDO }
+
+    /** One journal line: a newly executed command (DO), or an undo or redo step. */
+    public record Entry(Op op, Command command) {}
+
+    private static final String DO_PREFIX = "DO ";
+
+    private final Path journalPath;
+    private final MovieService movieService;
+    private final long maxBytes;
+    private final Gson gson;
+
+    private final ExecutorService writer;
+
+    // Serializes all access to the file
+    private final Object fileLock = new Object();
+    // Guards the queued entries below
+    private final Object stateLock = new Object();
+    private ByteArrayOutputStream queued = new ByteArrayOutputStream();
+    private boolean writeScheduled = false;
+    private boolean closed = false;
+
+    private long size; // including queued entries
+    private boolean tornTail = false;
+
+    public CommandJournal(String journalPath, MovieService movieService) {
+        this(journalPath, movieService, DEFAULT_MAX_BYTES);
+    }
+
+    public CommandJournal(String journalPath, MovieService movieService, long maxBytes) {
+        this.journalPath = Paths.get(journalPath);
+        this.movieService = movieService;
+        this.maxBytes = maxBytes;
+        this.gson = new GsonBuilder().create(); // compact output: one entry per line
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "command-journal-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        initFile();
+    }
+
+    private void initFile() {
+        try {
+            if (journalPath.getParent() != null) {
+                Files.createDirectories(journalPath.getParent());
+            }
+            if (Files.notExists(journalPath)) {
+                Files.createFile(journalPath);
+            }
+            size = Files.size(journalPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize journal file: " + journalPath, e);
+        }
+    }
+
+    /**
+     * Reads every complete entry in journal order. A partially written last line
+     * (crash mid-append) and anything after an unreadable line are ignored.
+     */
+    public List<Entry> read() {
+        writeQueued();
+        String content;
+        try {
+            content = Files.readString(journalPath, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read journal file: " + journalPath, e);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        int start = 0;
+        for (int end = content.indexOf('\n'); end >= 0; start = end + 1, end = content.indexOf('\n', start)) {
+            String line = content.substring(start, end);
+            if (line.startsWith(DO_PREFIX)) {
+                entries.add(new Entry(Op.DO, new JournaledCommand(line.substring(DO_PREFIX.length()))));
+            } else if (line.equals(Op.UNDO.name())) {
+                entries.add(new Entry(Op.UNDO, null));
+            } else if (line.equals(Op.REDO.name())) {
+                entries.add(new Entry(Op.REDO, null));
+            } else {
+                tornTail = true;
+                return entries;
+            }
+        }
+        tornTail = start < content.length();
+        return entries;
+    }
+
+    /**
+     * Queues one entry for the background writer; the command is required for DO only.
+     * After {@link #close()} the entry is written through synchronously.
+     */
+    public void append(Op op, Command command) {
+        byte[] line = ((op == Op.DO ? DO_PREFIX + gson.toJson(encode(command)) : op.name()) + '\n')
+                .getBytes(StandardCharsets.UTF_8);
+        synchronized (stateLock) {
+            queued.writeBytes(line);
+            size += line.length;
+            if (!closed) {
+                if (!writeScheduled) {
+                    writeScheduled = true;
+                    writer.execute(this::writeQueuedInBackground);
+                }
+                return;
+            }
+        }
+        writeQueued();
+    }
+
+    /** Synchronously appends every queued entry. Entries that failed to write stay queued. */
+    public void writeQueued() {
+        synchronized (fileLock) {
+            byte[] lines;
+            synchronized (stateLock) {
+                writeScheduled = false;
+                if (queued.size() == 0) return;
+                lines = queued.toByteArray();
+                queued = new ByteArrayOutputStream();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(lines);
+            try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (stateLock) {
+                    // Put the unwritten entries back in front of any queued meanwhile
+                    ByteArrayOutputStream retry = new ByteArrayOutputStream();
+                    retry.write(lines, buffer.position(), buffer.remaining());
+                    retry.writeBytes(queued.toByteArray());
+                    queued = retry;
+                }
+                throw new RuntimeException("Failed to append to journal file: " + journalPath, e);
+            }
+        }
+    }
+
+    private void writeQueuedInBackground() {
+        try {
+            writeQueued();
+        } catch (RuntimeException e) {
+            System.out.println("Journal write failed: " + e.getMessage()); // retried with the next entry
+        }
+    }
+
+    /** Stops the background writer and writes every entry still queued. */
+    @Override
+    public void close() {
+        synchronized (stateLock) {
+            closed = true;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeQueued();
+    }
+
+    /** @return true if the file is over its size cap or ends with a torn entry */
+    public boolean needsCompaction() {
+        return tornTail || size > maxBytes;
+    }
+
+    /**
+     * Replaces the file with the minimal entries that rebuild the given history.
+     * Both stacks are ordered most recent first, as CommandManager keeps them.
+     */
+    public void rewrite(Deque<Command> undoStack, Deque<Command> redoStack) {
+        long budget = maxBytes / 2;
+
+        // Undo history is kept from the most recent command backwards, then redo from its top,
+        // each up to the first command that no longer fits
+        List<String> undoLines = new ArrayList<>();
+        for (Command command : undoStack) {
+            String line = DO_PREFIX + gson.toJson(encode(command));
+            long bytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if ((budget -= bytes) < 0) break;
+            undoLines.add(line);
+        }
+        List<String> redoLines = new ArrayList<>();
+        for (Command command : redoStack) {
+            String line = DO_PREFIX + gson.toJson(encode(command));
+            long bytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if ((budget -= bytes) < 0) break;
+            redoLines.add(line);
+        }
+
+        // Redo commands are re-done then undone, which leaves the first one on top of the redo stack
+        Path tempPath = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        synchronized (fileLock) {
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+                    for (int i = undoLines.size() - 1; i >= 0; i--) writeLine(writer, undoLines.get(i));
+                    for (String line : redoLines) writeLine(writer, line);
+                    for (int i = 0; i < redoLines.size(); i++) writeLine(writer, Op.UNDO.name());
+                }
+                try {
+                    Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+                synchronized (stateLock) {
+                    // The rewritten history already contains every queued step
+                    queued = new ByteArrayOutputStream();
+                    size = Files.size(journalPath);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to compact journal file: " + journalPath, e);
+            }
+            tornTail = false;
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    // ------------------------------------------------------------------
+    // Command encoding
+    // ------------------------------------------------------------------
+
+    private JsonElement encode(Command command) {
+        if (command instanceof JournaledCommand journaled && journaled.json != null) {
+            return JsonParser.parseString(journaled.json); // never decoded: copied as is
+        }
+        Encoder encoder = new Encoder();
+        command.accept(encoder);
+        return encoder.result;
+    }
+
+    private Command decode(JsonObject json) {
+        String type = json.get("type").getAsString();
+        switch (type) {
+            case "ADD":
+                return new AddMovieCommand(movieService, gson.fromJson(json.get("movie"), Movie.class));
+            case "DELETE":
+                return new DeleteMovieCommand(movieService, gson.fromJson(json.get("movie"), Movie.class));
+            case "EDIT": {
+                Set<EditMovieCommand.Field> fields = EnumSet.noneOf(EditMovieCommand.Field.class);
+                for (JsonElement field : json.getAsJsonArray("fields")) {
+                    fields.add(EditMovieCommand.Field.valueOf(field.getAsString()));
+                }
+                return new EditMovieCommand(movieService, json.get("id").getAsString(), fields,
+                        gson.fromJson(json.get("before"), Movie.class), gson.fromJson(json.get("after"), Movie.class));
+            }
+            case "BATCH": {
+                List<Command> commands = new ArrayList<>();
+                for (JsonElement child : json.getAsJsonArray("commands")) {
+                    commands.add(decode(child.getAsJsonObject()));
+                }
+                return new BatchCommand(movieService, commands);
+            }
+            default:
+                throw new RuntimeException("Unknown command in journal: " + type);
+        }
+    }
+
+    /** Turns a command into its journal JSON. */
+    private class Encoder implements CommandVisitor {
+
+        private final JsonObject result = new JsonObject();
+
+        @Override
+        public void visit(AddMovieCommand cmd) {
+            result.addProperty("type", "ADD");
+            result.add("movie", gson.toJsonTree(cmd.getCreatedMovie()));
+        }
+
+        @Override
+        public void visit(EditMovieCommand cmd) {
+            JsonArray fields = new JsonArray();
+            for (EditMovieCommand.Field field : cmd.getChangedFields()) fields.add(field.name());
+
+            result.addProperty("type", "EDIT");
+            result.addProperty("id", cmd.getMovieId());
+            result.add("fields", fields);
+            result.add("before", gson.toJsonTree(cmd.getOldValues()));
+            result.add("after", gson.toJsonTree(cmd.getNewValues()));
+        }
+
+        @Override
+        public void visit(DeleteMovieCommand cmd) {
+            result.addProperty("type", "DELETE");
+            result.add("movie", gson.toJsonTree(cmd.getMovieToDelete()));
+        }
+
+        @Override
+        public void visit(BatchCommand cmd) {
+            JsonArray commands = new JsonArray();
+            for (Command command : cmd.getCommands()) commands.add(encode(command));
+
+            result.addProperty("type", "BATCH");
+            result.add("commands", commands);
+        }
+    }
+
+    /** A command read from the journal, decoded from its JSON on first use. */
+    private class JournaledCommand implements Command {
+
+        private String json;
+        private Command decoded;
+
+        JournaledCommand(String json) {
+            this.json = json;
+        }
+
+        private Command decoded() {
+            if (decoded == null) {
+                decoded = decode(JsonParser.parseString(json).getAsJsonObject());
+                json = null;
+            }
+            return decoded;
+        }
+
+        @Override
+        public void execute() throws Exception {
+            decoded().execute();
+        }
+
+        @Override
+        public void undo() throws Exception {
+            decoded().undo();
+        }
+
+        @Override
+        public void accept(CommandVisitor visitor) {
+            decoded().accept(visitor);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.zhou.movies.command;
 
-import java.util.Stack;
+import com.zhou.movies.service.MovieNotFoundException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
  * Manages execution and history of commands.
@@ -8,28 +11,63 @@ import java.util.Stack;
  * Responsibility:
  * Executes Command objects and maintains undo/redo stacks,
  * serving as the central component of the Command pattern.
+ * The history is bounded: once it holds historyLimit commands, executing another one
+ * evicts the oldest, so memory stays flat however long the session runs.
+ * With a CommandJournal every step is also journaled, and the history of earlier sessions
+ * is read back from the journal the first time the history is used. A step whose movie no
+ * longer exists is dropped from the history when undoing or redoing it fails for that reason.
  */
 public class CommandManager {
 
-    private final Stack<Command> undoStack;
-    private final Stack<Command> redoStack;
+    public static final int DEFAULT_HISTORY_LIMIT = 500;
+
+    private final int historyLimit;
+    private final CommandJournal journal; // null: history lives in memory only
+    private boolean historyLoaded = false;
+    // Most recent command first; only touched from the thread driving the controller
+    private final Deque<Command> undoStack = new ArrayDeque<>();
+    private final Deque<Command> redoStack = new ArrayDeque<>();
 
     public CommandManager(){
-        undoStack = new Stack<>();
-        redoStack = new Stack<>();
+        this(DEFAULT_HISTORY_LIMIT);
+    }
+
+    /** @param historyLimit maximum number of commands that can be undone */
+    public CommandManager(int historyLimit){
+        this(historyLimit, null);
+    }
+
+    /**
+     * @param historyLimit maximum number of commands that can be undone
+     * @param journal      journal the history is kept in across sessions
+     */
+    public CommandManager(int historyLimit, CommandJournal journal){
+        if (historyLimit < 1) throw new IllegalArgumentException("History limit must be positive: " + historyLimit);
+        this.historyLimit = historyLimit;
+        this.journal = journal;
     }
 
     public void execute(Command command) throws Exception{
+        loadHistory();
         command.execute();
-        undoStack.push(command);
+        pushUndo(command);
         redoStack.clear();
+        journal(CommandJournal.Op.DO, command);
     }
 
     public Command undo() throws Exception{
+        loadHistory();
         if (!undoStack.isEmpty()){
-            Command commandToUndo = undoStack.pop();
-            commandToUndo.undo();
-            redoStack.push(commandToUndo);
+            // Popped only once undone, so a failed undo stays in the history and the journal agrees
+            Command commandToUndo = undoStack.peek();
+            try {
+                commandToUndo.undo();
+            } catch (MovieNotFoundException e) {
+                drop(undoStack);
+                throw e;
+            }
+            redoStack.push(undoStack.pop());
+            journal(CommandJournal.Op.UNDO, null);
             return commandToUndo;
         }
 
@@ -37,13 +75,73 @@ public class CommandManager {
     }
 
     public Command redo() throws Exception{
+        loadHistory();
         if (!redoStack.isEmpty()){
-            Command commandToRedo = redoStack.pop();
-            commandToRedo.execute();
-            undoStack.push(commandToRedo);
+            Command commandToRedo = redoStack.peek();
+            try {
+                commandToRedo.execute();
+            } catch (MovieNotFoundException e) {
+                drop(redoStack);
+                throw e;
+            }
+            pushUndo(redoStack.pop());
+            journal(CommandJournal.Op.REDO, null);
             return commandToRedo;
         }
 
         return null;
     }
+
+    public int undoSize() {
+        loadHistory();
+        return undoStack.size();
+    }
+
+    public int redoSize() {
+        loadHistory();
+        return redoStack.size();
+    }
+
+    /** Rebuilds the history of earlier sessions from the journal, without executing anything. */
+    private void loadHistory() {
+        if (journal == null || historyLoaded) return;
+        historyLoaded = true;
+
+        for (CommandJournal.Entry entry : journal.read()) {
+            switch (entry.op()) {
+                case DO:
+                    pushUndo(entry.command());
+                    redoStack.clear();
+                    break;
+                case UNDO:
+                    if (!undoStack.isEmpty()) redoStack.push(undoStack.pop());
+                    break;
+                case REDO:
+                    if (!redoStack.isEmpty()) pushUndo(redoStack.pop());
+                    break;
+            }
+        }
+        if (journal.needsCompaction()) journal.rewrite(undoStack, redoStack);
+    }
+
+    private void journal(CommandJournal.Op op, Command command) {
+        if (journal == null) return;
+        journal.append(op, command);
+        if (journal.needsCompaction()) journal.rewrite(undoStack, redoStack);
+    }
+
+    /**
+     * Removes the top command of the stack because its movie no longer exists, e.g. the
+     * journal outlived a change lost in a crash. It could never succeed again, and left on
+     * top it would block every older step. The journal is rewritten to match.
+     */
+    private void drop(Deque<Command> stack) {
+        stack.pop();
+        if (journal != null) journal.rewrite(undoStack, redoStack);
+    }
+
+    private void pushUndo(Command command) {
+        if (undoStack.size() == historyLimit) undoStack.removeLast(); // evict the oldest
+        undoStack.push(command);
+    }
 }
@@ -1,6 +1,7 @@
 package com.zhou.movies.command;
 
 import com.zhou.movies.command.impl.AddMovieCommand;
+import com.zhou.movies.command.impl.BatchCommand;
 import com.zhou.movies.command.impl.EditMovieCommand;
 import com.zhou.movies.command.impl.DeleteMovieCommand;
 
@@ -8,4 +9,5 @@ public interface CommandVisitor {
     void visit(AddMovieCommand cmd);
     void visit(EditMovieCommand cmd);
     void visit(DeleteMovieCommand cmd);
+    void visit(BatchCommand cmd);
 }
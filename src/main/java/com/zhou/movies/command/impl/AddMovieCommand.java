@@ -9,7 +9,7 @@ import com.zhou.movies.service.MovieService;
 public class AddMovieCommand implements Command {
 
     private final MovieService movieService;
-    private final MovieDTO movieDTO;
+    private MovieDTO movieDTO;
 
     private Movie createdMovie;
 
@@ -18,9 +18,21 @@ public class AddMovieCommand implements Command {
         this.movieDTO = movieDTO;
     }
 
+    /** Restores an executed add, e.g. when reading a command journal. */
+    public AddMovieCommand(MovieService movieService, Movie createdMovie) {
+        this.movieService = movieService;
+        this.createdMovie = createdMovie;
+    }
+
     @Override
     public void execute() throws Exception {
-        this.createdMovie = movieService.addMovie(movieDTO);
+        if (this.createdMovie == null) {
+            this.createdMovie = movieService.addMovie(movieDTO);
+            this.movieDTO = null;
+        } else {
+            // Redo brings back the same movie, so later commands can still find it by ID
+            movieService.addMovieObject(this.createdMovie);
+        }
     }
 
     @Override
@@ -40,4 +52,4 @@ public class AddMovieCommand implements Command {
     public Movie getCreatedMovie() {
         return createdMovie;
     }
-}
\ No newline at end of file
+}
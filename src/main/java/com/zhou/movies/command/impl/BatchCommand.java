@@ -0,0 +1,62 @@
+package com.zhou.movies.command.impl;
+
+import com.zhou.movies.command.Command;
+import com.zhou.movies.command.CommandVisitor;
+import com.zhou.movies.service.MovieService;
+
+import java.util.List;
+
+/**
+ * Composite command running several commands as one undoable step.
+ *
+ * Responsibility:
+ * Executes its commands in order and undoes them in reverse order inside one
+ * MovieService batch, so a bulk operation costs one persistence flush and one
+ * change notification. Execution and undo are all-or-nothing: if a command fails,
+ * the ones already applied are rolled back before the failure is rethrown.
+ */
+public class BatchCommand implements Command {
+
+    private final MovieService movieService;
+    private final List<Command> commands;
+
+    public BatchCommand(MovieService movieService, List<? extends Command> commands) {
+        this.movieService = movieService;
+        this.commands = List.copyOf(commands);
+    }
+
+    @Override
+    public void execute() throws Exception {
+        movieService.runBatch(() -> {
+            int done = 0;
+            try {
+                for (; done < commands.size(); done++) commands.get(done).execute();
+            } catch (Exception e) {
+                for (int i = done - 1; i >= 0; i--) commands.get(i).undo();
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public void undo() throws Exception {
+        movieService.runBatch(() -> {
+            int undone = 0;
+            try {
+                for (; undone < commands.size(); undone++) commands.get(commands.size() - 1 - undone).undo();
+            } catch (Exception e) {
+                for (int i = commands.size() - undone; i < commands.size(); i++) commands.get(i).execute();
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public void accept(CommandVisitor visitor) {
+        visitor.visit(this);
+    }
+
+    public List<Command> getCommands() {
+        return commands;
+    }
+}
@@ -3,31 +3,77 @@ package com.zhou.movies.command.impl;
 import com.zhou.movies.command.Command;
 import com.zhou.movies.command.CommandVisitor;
 import com.zhou.movies.dto.MovieDTO;
+import com.zhou.movies.pojo.Category;
 import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.MovieNotFoundException;
 import com.zhou.movies.service.MovieService;
 
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Command that edits one movie.
+ *
+ * Responsibility:
+ * Applies the DTO on the first execute and then keeps only a field-level delta: the ID,
+ * which fields changed, and their values before and after. Undo and redo re-apply that
+ * delta to the movie as it currently is, so a command in the history holds neither the
+ * DTO nor two full copies of the movie.
+ */
 public class EditMovieCommand implements Command {
 
+    private static final Object[] NO_VALUES = new Object[0];
+
     private final MovieService movieService;
-    private final MovieDTO movieDTO;
+    private final String movieId;
 
-    private final Movie originalMovie;
-    private Movie updatedMovie;
+    // Needed for the first execute only
+    private Movie originalMovie;
+    private MovieDTO movieDTO;
+
+    // Bit per changed Field; values of the changed fields only, in Field order
+    private int changedFields;
+    private Object[] oldValues = NO_VALUES;
+    private Object[] newValues = NO_VALUES;
 
     public EditMovieCommand(MovieService movieService, Movie originalMovie, MovieDTO movieDTO) {
         this.movieService = movieService;
+        this.movieId = originalMovie.getId();
         this.originalMovie = originalMovie;
         this.movieDTO = movieDTO;
     }
 
+    /**
+     * Restores an executed edit from its delta, e.g. when reading a command journal.
+     * @param oldValues movie holding the changed fields' values before the edit
+     * @param newValues movie holding the changed fields' values after the edit
+     */
+    public EditMovieCommand(MovieService movieService, String movieId, Set<Field> changedFields,
+                            Movie oldValues, Movie newValues) {
+        this.movieService = movieService;
+        this.movieId = movieId;
+        recordDelta(changedFields, oldValues, newValues);
+    }
+
     @Override
     public void execute() throws Exception {
-        this.updatedMovie = movieService.editMovie(originalMovie.getId(), movieDTO);
+        if (movieDTO != null) {
+            Movie updatedMovie = movieService.editMovie(movieId, movieDTO);
+            recordDelta(originalMovie, updatedMovie);
+            originalMovie = null;
+            movieDTO = null;
+        } else {
+            movieService.updateMovie(apply(newValues));
+        }
     }
 
     @Override
     public void undo() throws Exception {
-        movieService.updateMovie(this.originalMovie);
+        movieService.updateMovie(apply(oldValues));
     }
 
     @Override
@@ -35,11 +81,93 @@ public class EditMovieCommand implements Command {
         visitor.visit(this);
     }
 
-    public Movie getUpdatedMovie() {
-        return updatedMovie;
+    public String getMovieId() {
+        return movieId;
+    }
+
+    /** @return true if the field was changed by this edit */
+    public boolean changed(Field field) {
+        return (changedFields & (1 << field.ordinal())) != 0;
     }
 
-    public Movie getOriginalMovie() {
-        return originalMovie;
+    public Set<Field> getChangedFields() {
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        for (Field field : Field.VALUES) {
+            if (changed(field)) fields.add(field);
+        }
+        return fields;
+    }
+
+    /** Movie with the ID and the changed fields' values before the edit; other fields are unset. */
+    public Movie getOldValues() {
+        return valuesAsMovie(oldValues);
+    }
+
+    /** Movie with the ID and the changed fields' values after the edit; other fields are unset. */
+    public Movie getNewValues() {
+        return valuesAsMovie(newValues);
+    }
+
+    private void recordDelta(Movie before, Movie after) {
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        for (Field field : Field.VALUES) {
+            if (!Objects.equals(field.getter.apply(before), field.getter.apply(after))) fields.add(field);
+        }
+        recordDelta(fields, before, after);
+    }
+
+    private void recordDelta(Set<Field> fields, Movie before, Movie after) {
+        if (fields.isEmpty()) return;
+
+        oldValues = new Object[fields.size()];
+        newValues = new Object[fields.size()];
+        int i = 0;
+        for (Field field : Field.VALUES) {
+            if (!fields.contains(field)) continue;
+            changedFields |= 1 << field.ordinal();
+            oldValues[i] = field.getter.apply(before);
+            newValues[i++] = field.getter.apply(after);
+        }
+    }
+
+    private Movie valuesAsMovie(Object[] values) {
+        return withValues(new Movie.Builder(movieId, null, null), values).build();
+    }
+
+    /** Current movie with the changed fields set to the given values. */
+    private Movie apply(Object[] values) throws Exception {
+        Movie current = movieService.findMovieById(movieId);
+        if (current == null)
+            throw new MovieNotFoundException(movieId);
+
+        return withValues(current.toBuilder(), values).build();
+    }
+
+    private Movie.Builder withValues(Movie.Builder builder, Object[] values) {
+        int i = 0;
+        for (Field field : Field.VALUES) {
+            if (changed(field)) field.setter.accept(builder, values[i++]);
+        }
+        return builder;
+    }
+
+    /** Editable fields of a movie. */
+    public enum Field {
+        TITLE(Movie::getTitle, (builder, value) -> builder.title((String) value)),
+        DIRECTOR(Movie::getDirector, (builder, value) -> builder.director((String) value)),
+        YEAR(Movie::getYear, (builder, value) -> builder.year((Integer) value)),
+        RATING(Movie::getRating, (builder, value) -> builder.rating((Integer) value)),
+        CATEGORY(Movie::getCategory, (builder, value) -> builder.category((Category) value)),
+        STATUS(Movie::getStatus, (builder, value) -> builder.status((Status) value));
+
+        private static final Field[] VALUES = values();
+
+        private final Function<Movie, Object> getter;
+        private final BiConsumer<Movie.Builder, Object> setter;
+
+        Field(Function<Movie, Object> getter, BiConsumer<Movie.Builder, Object> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
     }
-}
\ No newline at end of file
+}
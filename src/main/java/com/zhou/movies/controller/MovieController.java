@@ -3,13 +3,19 @@ package com.zhou.movies.controller;
 import com.zhou.movies.command.CommandManager;
 import com.zhou.movies.command.impl.*;
 import com.zhou.movies.command.Command;
+import com.zhou.movies.controller.io.MovieExporter;
+import com.zhou.movies.controller.io.MovieImporter;
+import com.zhou.movies.controller.io.ProgressListener;
 import com.zhou.movies.dto.MovieDTO;
 import com.zhou.movies.pojo.Category;
 import com.zhou.movies.pojo.Movie;
 import com.zhou.movies.pojo.Status;
 import com.zhou.movies.service.MovieService;
+import com.zhou.movies.service.query.MovieQuery;
 import com.zhou.movies.service.strategy.SortDirection;
 import com.zhou.movies.service.strategy.SortStrategyType;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -50,7 +56,7 @@ public class MovieController {
             EditMovieCommand editCmd = new EditMovieCommand(movieService, movieToEdit, dto);
             commandManager.execute(editCmd);
 
-            return editCmd.getUpdatedMovie();
+            return movieService.findMovieById(editCmd.getMovieId());
         } catch (Exception e) {
             System.out.println("Update Failed: " + e.getMessage());
             return null;
@@ -61,21 +67,74 @@ public class MovieController {
         Command deleteCmd = new DeleteMovieCommand(movieService, movieToDelete);
         commandManager.execute(deleteCmd);
     }
-    private void validateFields(MovieDTO dto) throws Exception {
-        if (dto.title.isEmpty() || dto.director.isEmpty() || dto.yearStr.isEmpty())
-            throw new Exception("Title, Director or Year cannot be empty!");
 
+    /** Deletes a multi-row selection as one undoable step, with one save and one table refresh. */
+    public void deleteMoviesRequest(List<Movie> moviesToDelete) throws Exception {
+        if (moviesToDelete.size() == 1) {
+            deleteMovieRequest(moviesToDelete.get(0));
+            return;
+        }
+        List<Command> deleteCmds = new ArrayList<>(moviesToDelete.size());
+        for (Movie movie : moviesToDelete) {
+            deleteCmds.add(new DeleteMovieCommand(movieService, movie));
+        }
+        commandManager.execute(new BatchCommand(movieService, deleteCmds));
+    }
+
+    /**
+     * Adds several movies as one undoable step; nothing is added if any DTO is invalid.
+     * @return the created movies, or null if validation or the batch failed
+     */
+    public List<Movie> addMoviesRequest(List<MovieDTO> dtos) {
         try {
-            Integer.parseInt(dto.yearStr);
-        } catch (NumberFormatException e) {
-            throw new Exception("Year must be a valid number!");
+            List<AddMovieCommand> addCmds = new ArrayList<>(dtos.size());
+            for (MovieDTO dto : dtos) {
+                validateFields(dto);
+                addCmds.add(new AddMovieCommand(movieService, dto));
+            }
+            commandManager.execute(new BatchCommand(movieService, addCmds));
+
+            List<Movie> created = new ArrayList<>(addCmds.size());
+            for (AddMovieCommand addCmd : addCmds) created.add(addCmd.getCreatedMovie());
+            return created;
+        } catch (Exception e) {
+            System.out.println("Add Movies Failed: " + e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * Imports a CSV or JSON-lines catalog in large batches, skipping rows that are invalid or
+     * duplicate a movie already in the library. Blocks until done, so call it off the EDT.
+     */
+    public MovieImporter.Result importMoviesRequest(Path file, ProgressListener progress) throws Exception {
+        return new MovieImporter(movieService).importFile(file, progress);
+    }
+
+    /**
+     * Exports the current search, filter and sort result to a CSV, JSON-lines or binary file,
+     * streaming it rather than building the list. Blocks until done, so call it off the EDT.
+     */
+    public MovieExporter.Result exportMoviesRequest(Path file, ProgressListener progress) throws Exception {
+        return new MovieExporter(movieService).exportQuery(movieService.getCurrentQuery(), file, progress);
+    }
+
+    private void validateFields(MovieDTO dto) throws Exception {
+        MovieValidator.validate(dto);
+    }
+
     public List<Movie> getAllMovies(){
         return movieService.getAllMovies();
     }
 
+    public List<Movie> queryMovies(MovieQuery query) {
+        return movieService.query(query);
+    }
+
+    public MovieQuery getCurrentQuery() {
+        return movieService.getCurrentQuery();
+    }
+
     public void changeSortStrategy(SortStrategyType strategyType){
         movieService.setSortStrategy(strategyType);
     }
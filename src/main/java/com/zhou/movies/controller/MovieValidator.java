@@ -0,0 +1,34 @@
+package com.zhou.movies.controller;
+
+import com.zhou.movies.dto.MovieDTO;
+
+/**
+ * Validation rules for raw movie input.
+ *
+ * Responsibility:
+ * Checks a MovieDTO before it is turned into a Movie, for the form as well as for
+ * bulk imports. Stateless and thread-safe, so imports can validate rows in parallel.
+ */
+public final class MovieValidator {
+
+    private MovieValidator() {
+    }
+
+    public static void validate(MovieDTO dto) throws Exception {
+        if (isEmpty(dto.title) || isEmpty(dto.director) || isEmpty(dto.yearStr))
+            throw new Exception("Title, Director or Year cannot be empty!");
+
+        try {
+            Integer.parseInt(dto.yearStr);
+        } catch (NumberFormatException e) {
+            throw new Exception("Year must be a valid number!");
+        }
+
+        if (dto.rating != null && (dto.rating < 0 || dto.rating > 5))
+            throw new Exception("Rating must be between 0 and 5!");
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
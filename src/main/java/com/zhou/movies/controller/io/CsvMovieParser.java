@@ -0,0 +1,97 @@
+package com.zhou.movies.controller.io;
+
+import com.zhou.movies.dto.MovieDTO;
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses CSV rows of the form title,director,year,category,status,rating.
+ *
+ * Responsibility:
+ * Splits a row on commas outside double quotes (a doubled quote inside quotes is a literal
+ * quote) and maps the cells to MovieDTO fields. A header row may name the columns in any
+ * order; without one the default order above is assumed. Quoted line breaks are not supported.
+ */
+class CsvMovieParser implements MovieRecordParser {
+
+    private static final String[] COLUMNS = {"title", "director", "year", "category", "status", "rating"};
+    private static final int TITLE = 0, DIRECTOR = 1, YEAR = 2, CATEGORY = 3, STATUS = 4, RATING = 5;
+
+    // Cell index of each column, -1 if absent
+    private final int[] cellOf;
+
+    CsvMovieParser() {
+        this.cellOf = new int[]{0, 1, 2, 3, 4, 5};
+    }
+
+    private CsvMovieParser(int[] cellOf) {
+        this.cellOf = cellOf;
+    }
+
+    /** @return a parser for the columns named by the header, or null if the line is not a header */
+    static CsvMovieParser fromHeader(String line) throws Exception {
+        List<String> cells = split(line);
+        int[] cellOf = {-1, -1, -1, -1, -1, -1};
+        boolean header = false;
+        for (int cell = 0; cell < cells.size(); cell++) {
+            String name = cells.get(cell).trim().toLowerCase(Locale.ROOT);
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (COLUMNS[column].equals(name)) {
+                    cellOf[column] = cell;
+                    header = true;
+                }
+            }
+        }
+        return header ? new CsvMovieParser(cellOf) : null;
+    }
+
+    @Override
+    public MovieDTO parse(String line) throws Exception {
+        List<String> cells = split(line);
+        return new MovieDTO(
+                cell(cells, TITLE),
+                cell(cells, DIRECTOR),
+                cell(cells, YEAR),
+                MovieRecordParser.parseEnum(Category.class, cell(cells, CATEGORY)),
+                MovieRecordParser.parseEnum(Status.class, cell(cells, STATUS)),
+                MovieRecordParser.parseRating(cell(cells, RATING)));
+    }
+
+    private String cell(List<String> cells, int column) {
+        int cell = cellOf[column];
+        return cell < 0 || cell >= cells.size() ? "" : cells.get(cell).trim();
+    }
+
+    static List<String> split(String line) throws Exception {
+        List<String> cells = new ArrayList<>(COLUMNS.length);
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    cell.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) throw new Exception("Unterminated quoted value");
+        cells.add(cell.toString());
+        return cells;
+    }
+}
@@ -0,0 +1,19 @@
+package com.zhou.movies.controller.io;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/** File formats a query result can be exported to, chosen by file extension. */
+public enum ExportFormat {
+    CSV,
+    JSON_LINES,
+    BINARY;
+
+    public static ExportFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) return JSON_LINES;
+        if (name.endsWith(".bin")) return BINARY;
+        throw new IllegalArgumentException("Unsupported export file (expected .csv, .jsonl or .bin): " + file.getFileName());
+    }
+}
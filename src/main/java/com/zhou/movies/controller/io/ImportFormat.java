@@ -0,0 +1,17 @@
+package com.zhou.movies.controller.io;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/** File formats a movie catalog can be imported from, chosen by file extension. */
+public enum ImportFormat {
+    CSV,
+    JSON_LINES;
+
+    public static ImportFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) return JSON_LINES;
+        throw new IllegalArgumentException("Unsupported import file (expected .csv or .jsonl): " + file.getFileName());
+    }
+}
@@ -0,0 +1,38 @@
+package com.zhou.movies.controller.io;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.zhou.movies.dto.MovieDTO;
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Status;
+
+/**
+ * Parses JSON-lines rows: one object per line with the keys title, director, year,
+ * category, status and rating. Year and rating may be numbers or strings.
+ */
+class JsonLinesMovieParser implements MovieRecordParser {
+
+    @Override
+    public MovieDTO parse(String line) throws Exception {
+        JsonObject object;
+        try {
+            object = JsonParser.parseString(line).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new Exception("Malformed JSON object");
+        }
+        return new MovieDTO(
+                value(object, "title"),
+                value(object, "director"),
+                value(object, "year"),
+                MovieRecordParser.parseEnum(Category.class, value(object, "category")),
+                MovieRecordParser.parseEnum(Status.class, value(object, "status")),
+                MovieRecordParser.parseRating(value(object, "rating")));
+    }
+
+    private static String value(JsonObject object, String key) {
+        JsonElement element = object.get(key);
+        return element == null || !element.isJsonPrimitive() ? "" : element.getAsString().trim();
+    }
+}
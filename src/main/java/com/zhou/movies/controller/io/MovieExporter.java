@@ -0,0 +1,100 @@
+package com.zhou.movies.controller.io;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.MovieService;
+import com.zhou.movies.service.query.MovieQuery;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Streaming exporter of a query result to CSV, JSON-lines or the binary format.
+ *
+ * Responsibility:
+ * Pulls the result movie by movie through MovieService.streamQuery and writes each one
+ * straight to the file channel, so the result list is never built. The file is written
+ * next to the target and moved into place when complete; a cancelled or failed export
+ * leaves no partial file behind.
+ */
+public class MovieExporter {
+
+    // Movies written between progress reports and cancellation checks
+    private static final int PROGRESS_INTERVAL = 4096;
+
+    /** Outcome of an export; exported counts the movies written before any cancellation. */
+    public record Result(long exported, boolean cancelled) {}
+
+    private final MovieService movieService;
+
+    public MovieExporter(MovieService movieService) {
+        this.movieService = movieService;
+    }
+
+    /** @param progress receives movies written out of the result size */
+    public Result exportQuery(MovieQuery query, Path file, ProgressListener progress) throws Exception {
+        ExportFormat format = ExportFormat.forFile(file);
+        Path tempPath = file.resolveSibling(file.getFileName() + ".tmp");
+        ResultWriter writer = new ResultWriter(progress);
+
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 MovieRecordWriter out = MovieRecordWriter.open(format, Channels.newOutputStream(channel))) {
+                writer.out = out;
+                movieService.streamQuery(query, writer);
+            }
+            if (writer.cancelled) {
+                Files.deleteIfExists(tempPath);
+                return new Result(writer.written, true);
+            }
+            moveIntoPlace(tempPath, file);
+        } catch (Exception e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        progress.onProgress(writer.written, writer.written);
+        return new Result(writer.written, false);
+    }
+
+    private static void moveIntoPlace(Path tempPath, Path file) throws IOException {
+        try {
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Writes each streamed movie and reports progress every PROGRESS_INTERVAL movies. */
+    private static final class ResultWriter implements MovieService.ResultConsumer {
+        private final ProgressListener progress;
+        private MovieRecordWriter out;
+        private long total;
+        private long written;
+        private boolean cancelled;
+
+        ResultWriter(ProgressListener progress) {
+            this.progress = progress;
+        }
+
+        @Override
+        public void begin(int total) {
+            this.total = total;
+            progress.onProgress(0, total);
+        }
+
+        @Override
+        public boolean accept(Movie movie) throws IOException {
+            out.write(movie);
+            if (++written % PROGRESS_INTERVAL == 0) {
+                progress.onProgress(written, total);
+                if (progress.isCancelled()) {
+                    cancelled = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.zhou.movies.controller.io;
+
+import com.zhou.movies.controller.MovieValidator;
+import com.zhou.movies.dto.MovieDTO;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.MovieService;
+import com.zhou.movies.service.query.MovieQuery;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Streaming bulk importer for CSV and JSON-lines movie catalogs.
+ *
+ * Responsibility:
+ * Reads the file line by line in chunks. Each chunk is parsed and validated in parallel
+ * (with the same rules as the form) while the next one is read, and its rows are then
+ * committed in file order: invalid rows are counted and reported, rows whose title and
+ * director match a movie already in the library or earlier in the file are skipped, and
+ * the rest are added through MovieService batches, so every batch costs one persistence
+ * flush and one change notification. Memory stays bounded by two chunks plus one batch,
+ * apart from the title/director keys kept for deduplication.
+ *
+ * Imports bypass the undo history: a catalog of millions of rows would pin it in memory.
+ * Cancelling stops reading at the next chunk; the rows already read, including the chunk
+ * still being parsed, are committed and counted before the import returns.
+ */
+public class MovieImporter {
+
+    public static final int DEFAULT_CHUNK_ROWS = 10_000;
+    public static final int DEFAULT_BATCH_ROWS = 100_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    /** Outcome of an import; errors holds the first few rejected rows as "Line n: reason". */
+    public record Result(long imported, long duplicates, long rejected, List<String> errors, boolean cancelled) {}
+
+    private final MovieService movieService;
+    private final int chunkRows;
+    private final int batchRows;
+
+    public MovieImporter(MovieService movieService) {
+        this(movieService, DEFAULT_CHUNK_ROWS, DEFAULT_BATCH_ROWS);
+    }
+
+    /**
+     * @param chunkRows rows parsed and validated together
+     * @param batchRows rows committed with one persistence flush
+     */
+    public MovieImporter(MovieService movieService, int chunkRows, int batchRows) {
+        this.movieService = movieService;
+        this.chunkRows = chunkRows;
+        this.batchRows = batchRows;
+    }
+
+    /** @param progress receives bytes read out of the file size */
+    public Result importFile(Path file, ProgressListener progress) throws Exception {
+        ImportFormat format = ImportFormat.forFile(file);
+        Run run = new Run(existingKeys());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), 1 << 16)) {
+            long totalBytes = channel.size();
+            MovieRecordParser parser = format == ImportFormat.CSV ? new CsvMovieParser() : new JsonLinesMovieParser();
+
+            CompletableFuture<ParsedChunk> pending = null;
+            List<String> lines = new ArrayList<>(chunkRows);
+            long firstLine = 1;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && format == ImportFormat.CSV) {
+                    CsvMovieParser headerParser = CsvMovieParser.fromHeader(line);
+                    if (headerParser != null) {
+                        parser = headerParser;
+                        firstLine = 2;
+                        continue;
+                    }
+                }
+                lines.add(line);
+                if (lines.size() < chunkRows) continue;
+
+                // Parse this chunk in the background while the previous one is committed
+                CompletableFuture<ParsedChunk> next = parseAsync(parser, lines, firstLine);
+                if (pending != null) run.commit(pending.join());
+                pending = next;
+                lines = new ArrayList<>(chunkRows);
+                firstLine = lineNumber + 1;
+
+                progress.onProgress(channel.position(), totalBytes);
+                if (progress.isCancelled()) {
+                    run.commit(pending.join());
+                    run.flush();
+                    return run.result(true);
+                }
+            }
+
+            if (pending != null) run.commit(pending.join());
+            if (!lines.isEmpty()) run.commit(parseAsync(parser, lines, firstLine).join());
+            run.flush();
+            progress.onProgress(totalBytes, totalBytes);
+            return run.result(false);
+        }
+    }
+
+    /** Keys of the library, streamed in the order of its maintained title view: no result list is built or sorted. */
+    private Set<String> existingKeys() throws Exception {
+        Set<String> keys = new HashSet<>();
+        movieService.streamQuery(MovieQuery.ALL, movie -> {
+            keys.add(key(movie));
+            return true;
+        });
+        return keys;
+    }
+
+    /** Title and director, ignoring case and surrounding blanks. */
+    private static String key(Movie movie) {
+        return normalize(movie.getTitle()) + '\n' + normalize(movie.getDirector());
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static CompletableFuture<ParsedChunk> parseAsync(MovieRecordParser parser, List<String> lines, long firstLine) {
+        return CompletableFuture.supplyAsync(() -> parse(parser, lines, firstLine));
+    }
+
+    /** Parses and validates the lines in parallel; each row ends up as a movie, an error or neither (blank). */
+    private static ParsedChunk parse(MovieRecordParser parser, List<String> lines, long firstLine) {
+        Movie[] movies = new Movie[lines.size()];
+        String[] errors = new String[lines.size()];
+        IntStream.range(0, lines.size()).parallel().forEach(i -> {
+            String line = lines.get(i);
+            if (line.isBlank()) return;
+            try {
+                MovieDTO dto = parser.parse(line);
+                MovieValidator.validate(dto);
+                movies[i] = toMovie(dto);
+            } catch (Exception e) {
+                errors[i] = "Line " + (firstLine + i) + ": " + e.getMessage();
+            }
+        });
+        return new ParsedChunk(movies, errors);
+    }
+
+    private static Movie toMovie(MovieDTO dto) {
+        return new Movie.Builder(dto.title, dto.director)
+                .year(Integer.parseInt(dto.yearStr))
+                .category(dto.category)
+                .status(dto.status)
+                .rating(dto.rating == null ? 0 : dto.rating)
+                .build();
+    }
+
+    private record ParsedChunk(Movie[] movies, String[] errors) {}
+
+    /** Counters, deduplication keys and the batch being filled for one import. */
+    private final class Run {
+        private final Set<String> keys;
+        private final List<Movie> batch = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private long imported;
+        private long duplicates;
+        private long rejected;
+
+        Run(Set<String> keys) {
+            this.keys = keys;
+        }
+
+        void commit(ParsedChunk chunk) throws Exception {
+            for (int i = 0; i < chunk.movies.length; i++) {
+                if (chunk.errors[i] != null) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) errors.add(chunk.errors[i]);
+                } else if (chunk.movies[i] != null) {
+                    if (!keys.add(key(chunk.movies[i]))) {
+                        duplicates++;
+                    } else {
+                        batch.add(chunk.movies[i]);
+                        if (batch.size() >= batchRows) flush();
+                    }
+                }
+            }
+        }
+
+        void flush() throws Exception {
+            if (batch.isEmpty()) return;
+            movieService.runBatch(() -> {
+                for (Movie movie : batch) movieService.addMovieObject(movie);
+            });
+            imported += batch.size();
+            batch.clear();
+        }
+
+        Result result(boolean cancelled) {
+            return new Result(imported, duplicates, rejected, List.copyOf(errors), cancelled);
+        }
+    }
+}
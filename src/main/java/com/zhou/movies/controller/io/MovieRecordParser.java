@@ -0,0 +1,33 @@
+package com.zhou.movies.controller.io;
+
+import com.zhou.movies.dto.MovieDTO;
+
+import java.util.Locale;
+
+/**
+ * Turns one line of an import file into a raw, unvalidated MovieDTO.
+ * Implementations are stateless after construction, so lines can be parsed in parallel.
+ */
+interface MovieRecordParser {
+
+    MovieDTO parse(String line) throws Exception;
+
+    /** Enum constant by name, ignoring case and treating spaces and dashes as underscores. */
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String value) throws Exception {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new Exception("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT) + ": " + value);
+        }
+    }
+
+    static Integer parseRating(String value) throws Exception {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new Exception("Rating must be a valid number!");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.zhou.movies.controller.io;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.impl.MovieRepositoryBinaryImpl;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes movies to an export file one at a time, in a layout the importer reads back.
+ * Nothing but the current movie is held, so exports run in constant memory.
+ */
+interface MovieRecordWriter extends Closeable {
+
+    void write(Movie movie) throws IOException;
+
+    static MovieRecordWriter open(ExportFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvWriter(out);
+            case JSON_LINES:
+                return new JsonLinesWriter(out);
+            case BINARY: {
+                MovieRepositoryBinaryImpl.StreamWriter writer = new MovieRepositoryBinaryImpl.StreamWriter(out);
+                return new MovieRecordWriter() {
+                    @Override
+                    public void write(Movie movie) throws IOException {
+                        writer.write(movie);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        writer.close();
+                    }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+    }
+
+    /** title,director,year,category,status,rating with a header row; enums by name. */
+    final class CsvWriter implements MovieRecordWriter {
+        private final Writer out;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            this.out.write("title,director,year,category,status,rating\n");
+        }
+
+        @Override
+        public void write(Movie movie) throws IOException {
+            out.write(quote(movie.getTitle()));
+            out.write(',');
+            out.write(quote(movie.getDirector()));
+            out.write(',');
+            out.write(Integer.toString(movie.getYear()));
+            out.write(',');
+            out.write(movie.getCategory() == null ? "" : movie.getCategory().name());
+            out.write(',');
+            out.write(movie.getStatus() == null ? "" : movie.getStatus().name());
+            out.write(',');
+            out.write(Integer.toString(movie.getRating()));
+            out.write('\n');
+        }
+
+        /**
+         * Quotes a value containing a comma or quote, doubling its quotes. Line breaks are
+         * written as spaces: the importer reads one record per line, so a quoted line break
+         * would split the record.
+         */
+        static String quote(String value) {
+            if (value == null) return "";
+            if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                value = value.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' ');
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** One JSON object per line with the importer's keys; null fields are left out. */
+    final class JsonLinesWriter implements MovieRecordWriter {
+        private static final Gson GSON = new Gson();
+        private final Writer out;
+
+        JsonLinesWriter(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        @Override
+        public void write(Movie movie) throws IOException {
+            JsonObject object = new JsonObject();
+            object.addProperty("title", movie.getTitle());
+            object.addProperty("director", movie.getDirector());
+            object.addProperty("year", movie.getYear());
+            if (movie.getCategory() != null) object.addProperty("category", movie.getCategory().name());
+            if (movie.getStatus() != null) object.addProperty("status", movie.getStatus().name());
+            object.addProperty("rating", movie.getRating());
+            GSON.toJson(object, out);
+            out.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
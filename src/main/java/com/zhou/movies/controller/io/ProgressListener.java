@@ -0,0 +1,18 @@
+package com.zhou.movies.controller.io;
+
+/**
+ * Receives progress of a long-running import or export and can ask it to stop.
+ * Called on the thread doing the work.
+ */
+public interface ProgressListener {
+
+    ProgressListener NONE = (done, total) -> { };
+
+    /** @param done work done so far, in the same unit as total (bytes or rows) */
+    void onProgress(long done, long total);
+
+    /** Polled between chunks of work; returning true stops the work early. */
+    default boolean isCancelled() {
+        return false;
+    }
+}
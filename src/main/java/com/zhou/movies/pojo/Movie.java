@@ -41,6 +41,13 @@ public class Movie {
             this.director = director;
         }
 
+        /** Rebuilds a movie with a known ID, e.g. when materializing it from a row store. */
+        public Builder(String id, String title, String director){
+            this.id = id;
+            this.title = title;
+            this.director = director;
+        }
+
         private Builder(Movie movie) {
             this.id = movie.id;
             this.title = movie.title;
@@ -2,9 +2,22 @@ package com.zhou.movies.repository;
 
 import com.zhou.movies.pojo.Movie;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MovieRepository {
     List<Movie> findAll();
     void saveAll(List<Movie> moviesListCache);
+
+    /** Inserts the movie, or replaces the stored movie with the same ID. */
+    void save(Movie movie);
+    void deleteById(String id);
+    void saveBatch(Collection<Movie> movies);
+
+    /** Deletes several movies; backends override this to persist them in one write. */
+    default void deleteBatch(Collection<String> ids) {
+        for (String id : ids) {
+            deleteById(id);
+        }
+    }
 }
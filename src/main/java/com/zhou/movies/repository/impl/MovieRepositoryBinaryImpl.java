@@ -0,0 +1,493 @@
+package com.zhou.movies.repository.impl;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.repository.MovieRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Binary file-based repository for movies.
+ *
+ * Responsibility:
+ * Stores movies in a compact, versioned record layout and loads them through a
+ * memory-mapped FileChannel. The file starts with a magic number and a format version,
+ * followed by length-prefixed records of two kinds: STRING records define the next
+ * entry of the string table (titles, directors and non-UUID IDs, each stored once),
+ * and MOVIE records refer to those entries by index, store UUID IDs as two longs and
+ * enums as ordinals. Record types a reader does not know are skipped by their length,
+ * and a torn last record (crash mid-append) is ignored and overwritten by the next append.
+ * A record header no writer could have produced fails the load instead, so damage in
+ * the middle of the file is never mistaken for a torn tail and truncated away.
+ * New movies are appended; updates and deletions rewrite the file atomically.
+ *
+ * {@link #openOrImport(String, String)} migrates an existing JSON file on first use,
+ * and {@link StreamWriter} writes the same format to any stream, e.g. for exports.
+ */
+public class MovieRepositoryBinaryImpl implements MovieRepository {
+
+    static final int MAGIC = 0x4D4F5649;          // "MOVI"
+    static final short FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;   // magic, version, reserved flags
+
+    static final byte RECORD_STRING = 1;
+    static final byte RECORD_MOVIE = 2;
+    private static final int RECORD_HEADER_BYTES = 5; // tag, payload length
+    // Longest STRING record accepted as cut short by a crash; a longer length past the end is damage
+    private static final int MAX_TORN_STRING_BYTES = 1 << 16;
+
+    private static final byte ID_UUID = 0;
+    private static final byte ID_STRING = 1;
+    private static final int NO_STRING = -1;
+    private static final byte NO_ENUM = -1;
+
+    // Fixed part of a MOVIE payload after the ID: title, director, year, rating, category, status
+    private static final int MOVIE_FIELDS_BYTES = 4 + 4 + 4 + 4 + 1 + 1;
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Path filePath;
+
+    // Mirror of the file content, used to tell inserts from updates.
+    // Built on the first write rather than in findAll, which keeps startup load cheap.
+    private final Map<String, Movie> moviesById = new LinkedHashMap<>();
+    private List<Movie> unindexed;
+    private boolean loaded = false;
+
+    // String table of the file on disk, as loaded; replaced by the reverse lookup once something is appended
+    private List<String> strings = new ArrayList<>();
+    private Map<String, Integer> stringCodes;
+    private int stringCount;    // entries in the file's string table, i.e. the code of the next new string
+    private long validLength;   // end of the last complete record
+
+    public MovieRepositoryBinaryImpl(String filePath) {
+        this.filePath = Paths.get(filePath);
+        try {
+            if (this.filePath.getParent() != null) {
+                Files.createDirectories(this.filePath.getParent());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize binary file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Opens the binary file, importing the JSON file into it if the binary file does not exist yet.
+     * The JSON file is left untouched, and the import is written atomically, so an interrupted
+     * migration simply runs again on the next start.
+     */
+    public static MovieRepositoryBinaryImpl openOrImport(String binaryFilePath, String jsonFilePath) {
+        MovieRepositoryBinaryImpl repository = new MovieRepositoryBinaryImpl(binaryFilePath);
+        if (Files.notExists(Paths.get(binaryFilePath)) && Files.exists(Paths.get(jsonFilePath))) {
+            repository.importFrom(new MovieRepositoryJsonImpl(jsonFilePath));
+        }
+        return repository;
+    }
+
+    /** Replaces the content of this repository with all movies of the source repository. */
+    public void importFrom(MovieRepository source) {
+        saveAll(source.findAll());
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        List<Movie> movies = new ArrayList<>();
+        List<String> table = new ArrayList<>();
+        long end = 0;
+
+        if (Files.exists(filePath)) {
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Binary file too large to map: " + size + " bytes");
+                }
+                if (size > 0) {
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    end = readRecords(buffer, movies, table);
+                }
+            } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new RuntimeException("Failed to read movie data from binary file: " + filePath, e);
+            }
+        }
+
+        strings = table;
+        stringCodes = null;
+        stringCount = table.size();
+        validLength = end;
+        moviesById.clear();
+        unindexed = new ArrayList<>(movies);
+        loaded = true;
+        return movies;
+    }
+
+    @Override
+    public void saveAll(List<Movie> moviesListCache) {
+        writeFile(moviesListCache);
+        resetIndex(moviesListCache);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        ensureLoaded();
+        boolean isNew = moviesById.put(movie.getId(), movie) == null;
+
+        if (isNew) {
+            appendRecords(List.of(movie));
+        } else {
+            writeFile(moviesById.values());
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        ensureLoaded();
+        if (moviesById.remove(id) != null) {
+            writeFile(moviesById.values());
+        }
+    }
+
+    @Override
+    public void deleteBatch(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        ensureLoaded();
+
+        boolean removed = false;
+        for (String id : ids) {
+            if (moviesById.remove(id) != null) removed = true;
+        }
+        if (removed) {
+            writeFile(moviesById.values());
+        }
+    }
+
+    @Override
+    public void saveBatch(Collection<Movie> movies) {
+        if (movies.isEmpty()) return;
+        ensureLoaded();
+
+        boolean allNew = true;
+        for (Movie movie : movies) {
+            if (moviesById.put(movie.getId(), movie) != null) allNew = false;
+        }
+
+        // One append for pure inserts, one rewrite as soon as any existing movie changed
+        if (allNew) {
+            appendRecords(movies);
+        } else {
+            writeFile(moviesById.values());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) findAll();
+        if (unindexed != null) resetIndex(unindexed);
+    }
+
+    private void resetIndex(Collection<Movie> movies) {
+        unindexed = null;
+        moviesById.clear();
+        for (Movie movie : movies) {
+            moviesById.put(movie.getId(), movie);
+        }
+        loaded = true;
+    }
+
+    // ------------------------------------------------------------------
+    // Reading
+    // ------------------------------------------------------------------
+
+    /**
+     * Decodes all complete records of the mapped file.
+     * @return the offset just past the last complete record
+     */
+    private long readRecords(ByteBuffer buffer, List<Movie> movies, List<String> table) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary movie file");
+        }
+        short version = buffer.getShort();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Unsupported binary movie file version: " + version);
+        }
+        buffer.getShort(); // reserved flags
+
+        byte[] scratch = new byte[256]; // reused for every string
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int start = buffer.position();
+            byte tag = buffer.get();
+            int length = buffer.getInt();
+            checkLength(tag, length, buffer, start);
+            if (length > buffer.remaining()) {
+                // Only the last record of an append can be cut short by a crash
+                System.out.println("Ignoring incomplete record at the end of " + filePath);
+                return start;
+            }
+
+            int next = buffer.position() + length;
+            if (tag == RECORD_STRING) {
+                if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                buffer.get(scratch, 0, length);
+                table.add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+            } else if (tag == RECORD_MOVIE) {
+                movies.add(readMovie(buffer, table));
+            } // other tags come from a newer writer and are skipped
+            buffer.position(next);
+        }
+        if (buffer.hasRemaining()) {
+            System.out.println("Ignoring incomplete record at the end of " + filePath);
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Rejects a record header that cannot have been written by any writer, so a damaged
+     * length in the middle of the file fails the load instead of passing for a torn tail
+     * that the next append would truncate. A length running past the end of the file is
+     * only accepted for a record type whose complete size could really be that long.
+     */
+    private void checkLength(byte tag, int length, ByteBuffer buffer, int start) throws IOException {
+        boolean torn = length > buffer.remaining();
+        boolean valid;
+        if (tag == RECORD_MOVIE) {
+            // The ID kind is the first payload byte and fixes the payload size
+            boolean uuidSize = length == 1 + 16 + MOVIE_FIELDS_BYTES;
+            boolean stringSize = length == 1 + 4 + MOVIE_FIELDS_BYTES;
+            if (!buffer.hasRemaining()) {
+                valid = uuidSize || stringSize;
+            } else {
+                byte idKind = buffer.get(buffer.position());
+                valid = (idKind == ID_UUID && uuidSize) || (idKind == ID_STRING && stringSize);
+            }
+        } else if (tag == RECORD_STRING) {
+            valid = length >= 0 && (!torn || length <= MAX_TORN_STRING_BYTES);
+        } else {
+            valid = length >= 0 && !torn; // records of a newer writer are skipped, never taken for torn
+        }
+        if (!valid) {
+            throw new IOException("Corrupt record header at offset " + start + " of " + filePath
+                    + " (type " + tag + ", length " + length + ")");
+        }
+    }
+
+    private static Movie readMovie(ByteBuffer buffer, List<String> table) {
+        String id = buffer.get() == ID_UUID
+                ? new UUID(buffer.getLong(), buffer.getLong()).toString()
+                : lookup(table, buffer.getInt());
+        String title = lookup(table, buffer.getInt());
+        String director = lookup(table, buffer.getInt());
+        int year = buffer.getInt();
+        int rating = buffer.getInt();
+        byte category = buffer.get();
+        byte status = buffer.get();
+
+        return new Movie.Builder(id, title, director)
+                .year(year)
+                .rating(rating)
+                .category(category == NO_ENUM ? null : CATEGORIES[category])
+                .status(status == NO_ENUM ? null : STATUSES[status])
+                .build();
+    }
+
+    private static String lookup(List<String> table, int code) {
+        return code == NO_STRING ? null : table.get(code);
+    }
+
+    // ------------------------------------------------------------------
+    // Writing
+    // ------------------------------------------------------------------
+
+    /**
+     * Streams all movies into a temporary file and atomically swaps it in,
+     * so a crash mid-write never leaves a truncated movies file behind.
+     */
+    private void writeFile(Collection<Movie> movies) {
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        Map<String, Integer> codes = new HashMap<>();
+        int count = 0;
+        long length;
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                writeHeader(out);
+                for (Movie movie : movies) {
+                    count = writeMovie(out, movie, codes, count);
+                }
+                out.flush();
+                length = channel.position();
+                channel.force(false);
+            }
+            moveIntoPlace(tempPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save movie data to binary file: " + filePath, e);
+        }
+        strings = null;
+        stringCodes = codes;
+        stringCount = count;
+        validLength = length;
+    }
+
+    private void moveIntoPlace(Path tempPath) throws IOException {
+        try {
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Appends records after the last complete record, so the cost is proportional
+     * to the new records only. A torn tail left by an earlier crash is overwritten.
+     */
+    private void appendRecords(Collection<Movie> movies) {
+        if (stringCodes == null) {
+            stringCodes = new HashMap<>(strings.size() * 2);
+            for (int code = 0; code < strings.size(); code++) {
+                stringCodes.putIfAbsent(strings.get(code), code);
+            }
+            strings = null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(bytes);
+            if (validLength == 0) writeHeader(out);
+            int count = stringCount;
+            for (Movie movie : movies) {
+                count = writeMovie(out, movie, stringCodes, count);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            long position = validLength;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.truncate(position);
+            channel.force(false);
+            stringCount = count;
+            validLength = position;
+        } catch (IOException e) {
+            // The string table may now name entries that never reached the disk
+            loaded = false;
+            throw new RuntimeException("Failed to append movie data to binary file: " + filePath, e);
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeShort(0);
+    }
+
+    /**
+     * Writes the STRING records for any new strings of the movie, then its MOVIE record.
+     * @param stringCount entries in the string table so far
+     * @return entries in the string table after the movie's new strings
+     */
+    private static int writeMovie(DataOutputStream out, Movie movie,
+                                  Map<String, Integer> codes, int stringCount) throws IOException {
+        UUID uuid = canonicalUuid(movie.getId());
+        int idCode = uuid == null ? intern(out, movie.getId(), codes, stringCount) : NO_STRING;
+        if (idCode == stringCount) stringCount++;
+        int titleCode = intern(out, movie.getTitle(), codes, stringCount);
+        if (titleCode == stringCount) stringCount++;
+        int directorCode = intern(out, movie.getDirector(), codes, stringCount);
+        if (directorCode == stringCount) stringCount++;
+
+        out.writeByte(RECORD_MOVIE);
+        out.writeInt(1 + (uuid != null ? 16 : 4) + MOVIE_FIELDS_BYTES);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_STRING);
+            out.writeInt(idCode);
+        }
+        out.writeInt(titleCode);
+        out.writeInt(directorCode);
+        out.writeInt(movie.getYear());
+        out.writeInt(movie.getRating());
+        out.writeByte(movie.getCategory() == null ? NO_ENUM : movie.getCategory().ordinal());
+        out.writeByte(movie.getStatus() == null ? NO_ENUM : movie.getStatus().ordinal());
+        return stringCount;
+    }
+
+    /**
+     * @param nextCode table index a new string gets
+     * @return the table index of the string, writing a STRING record if it is new
+     */
+    private static int intern(DataOutputStream out, String value,
+                              Map<String, Integer> codes, int nextCode) throws IOException {
+        if (value == null) return NO_STRING;
+        Integer code = codes.get(value);
+        if (code != null) return code;
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(RECORD_STRING);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+
+        codes.put(value, nextCode);
+        return nextCode;
+    }
+
+    /**
+     * Writes movies in the binary format to a stream, one at a time.
+     * Strings are deduplicated through a bounded LRU of recent strings, so memory stays flat
+     * however many movies are written; a string that fell out of it is simply stored again.
+     */
+    public static final class StreamWriter implements Closeable {
+
+        private static final int MAX_REMEMBERED_STRINGS = 1 << 16;
+
+        private final DataOutputStream out;
+        private int stringCount = 0;
+        private final Map<String, Integer> codes = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > MAX_REMEMBERED_STRINGS;
+            }
+        };
+
+        public StreamWriter(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            writeHeader(this.out);
+        }
+
+        public void write(Movie movie) throws IOException {
+            stringCount = writeMovie(out, movie, codes, stringCount);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** @return the UUID if the ID is in canonical form (so it round-trips through two longs), else null */
+    private static UUID canonicalUuid(String id) {
+        if (id == null || id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
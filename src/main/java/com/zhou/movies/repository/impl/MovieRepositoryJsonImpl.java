@@ -2,30 +2,57 @@ package com.zhou.movies.repository.impl;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.zhou.movies.pojo.Movie;
 import com.zhou.movies.repository.MovieRepository;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * JSON file-based repository for movies.
  * Handles all file I/O and JSON (de)serialization using Gson.
+ *
+ * The file is read and written as a stream of records through JsonReader/JsonWriter,
+ * so the whole document is never held in memory as a single String.
+ * New movies are appended in place before the closing bracket of the JSON array;
+ * only updates and deletions require the whole file to be rewritten.
  */
 public class MovieRepositoryJsonImpl implements MovieRepository {
 
     private final Path filePath;
     private final Gson gson;
-    private static final Type MOVIE_LIST_TYPE = new TypeToken<List<Movie>>(){}.getType();
+    private final boolean prettyPrinting;
+
+    // Mirror of the file content, used to tell inserts from updates
+    private final Map<String, Movie> moviesById = new LinkedHashMap<>();
+    private boolean loaded = false;
 
     public MovieRepositoryJsonImpl(String filePath) {
+        this(filePath, true);
+    }
+
+    /**
+     * @param prettyPrinting false writes compact single-line JSON (smaller file, faster I/O)
+     */
+    public MovieRepositoryJsonImpl(String filePath, boolean prettyPrinting) {
         this.filePath = Paths.get(filePath);
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.prettyPrinting = prettyPrinting;
+        this.gson = prettyPrinting ? new GsonBuilder().setPrettyPrinting().create() : new Gson();
         initFile();
     }
 
@@ -49,22 +76,182 @@ public class MovieRepositoryJsonImpl implements MovieRepository {
 
     @Override
     public List<Movie> findAll() {
-        try {
-            String json = Files.readString(filePath, StandardCharsets.UTF_8);
-            List<Movie> movies = gson.fromJson(json, MOVIE_LIST_TYPE);
-            return movies != null ? movies : new ArrayList<>();
-        } catch (IOException e) {
+        List<Movie> movies = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+             JsonReader reader = new JsonReader(new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8)))) {
+
+            // Empty file is treated like an empty array
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    Movie movie = gson.fromJson(reader, Movie.class);
+                    if (movie != null) movies.add(movie);
+                }
+                reader.endArray();
+            }
+        } catch (IOException | JsonParseException | IllegalStateException e) {
             throw new RuntimeException("Failed to read movie data from JSON file: " + filePath, e);
         }
+        resetIndex(movies);
+        return movies;
     }
 
     @Override
     public void saveAll(List<Movie> moviesListCache) {
+        writeFile(moviesListCache);
+        resetIndex(moviesListCache);
+    }
+
+    @Override
+    public void save(Movie movie) {
+        ensureLoaded();
+        boolean isNew = moviesById.put(movie.getId(), movie) == null;
+
+        if (isNew) {
+            appendRecords(List.of(movie));
+        } else {
+            writeFile(moviesById.values());
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        ensureLoaded();
+        if (moviesById.remove(id) != null) {
+            writeFile(moviesById.values());
+        }
+    }
+
+    @Override
+    public void deleteBatch(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        ensureLoaded();
+
+        boolean removed = false;
+        for (String id : ids) {
+            if (moviesById.remove(id) != null) removed = true;
+        }
+        if (removed) {
+            writeFile(moviesById.values());
+        }
+    }
+
+    @Override
+    public void saveBatch(Collection<Movie> movies) {
+        if (movies.isEmpty()) return;
+        ensureLoaded();
+
+        boolean allNew = true;
+        for (Movie movie : movies) {
+            if (moviesById.put(movie.getId(), movie) != null) allNew = false;
+        }
+
+        // One append for pure inserts, one rewrite as soon as any existing movie changed
+        if (allNew) {
+            appendRecords(movies);
+        } else {
+            writeFile(moviesById.values());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) findAll();
+    }
+
+    private void resetIndex(Collection<Movie> movies) {
+        moviesById.clear();
+        for (Movie movie : movies) {
+            moviesById.put(movie.getId(), movie);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Streams all movies into a temporary file and atomically swaps it in,
+     * so a crash mid-write never leaves a truncated movies file behind.
+     */
+    private void writeFile(Collection<Movie> movies) {
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
         try {
-            String json = gson.toJson(moviesListCache);
-            Files.writeString(filePath, json, StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                JsonWriter writer = new JsonWriter(new BufferedWriter(
+                        Channels.newWriter(channel, StandardCharsets.UTF_8)));
+                if (prettyPrinting) writer.setIndent("  ");
+
+                writer.beginArray();
+                for (Movie movie : movies) {
+                    gson.toJson(movie, Movie.class, writer);
+                }
+                writer.endArray();
+                writer.flush();
+                channel.force(false);
+            }
+            moveIntoPlace(tempPath);
         } catch (IOException e) {
             throw new RuntimeException("Failed to save movie data to JSON file: " + filePath, e);
         }
     }
+
+    private void moveIntoPlace(Path tempPath) throws IOException {
+        try {
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Appends records to the JSON array by overwriting its closing bracket,
+     * so the cost is proportional to the new records only.
+     * The new tail (records plus bracket) is written over the old one before anything is cut,
+     * so the file never loses its bracket ahead of the records; it is truncated only if it
+     * shrinks, then forced to disk. A crash in the middle of the write can still leave a
+     * partial tail, as with any in-place update; full rewrites go through a temporary file.
+     */
+    private void appendRecords(Collection<Movie> movies) {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long closingBracket = findLastNonWhitespace(channel, channel.size());
+            if (closingBracket < 0 || readByte(channel, closingBracket) != ']') {
+                throw new IOException("JSON file does not end with an array");
+            }
+            long previous = findLastNonWhitespace(channel, closingBracket);
+            boolean emptyArray = previous >= 0 && readByte(channel, previous) == '[';
+
+            // Match the layout of the rest of the file (pretty or compact)
+            String indent = prettyPrinting ? "\n  " : "";
+            StringBuilder sb = new StringBuilder();
+            for (Movie movie : movies) {
+                sb.append(emptyArray ? indent : "," + indent);
+                sb.append(gson.toJson(movie).replace("\n", indent));
+                emptyArray = false;
+            }
+            sb.append(prettyPrinting ? "\n]" : "]");
+
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            long position = closingBracket;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            if (position < channel.size()) channel.truncate(position); // old tail had trailing blanks
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append movie data to JSON file: " + filePath, e);
+        }
+    }
+
+    /** Position of the last non-whitespace byte strictly before {@code end}, or -1. */
+    private static long findLastNonWhitespace(FileChannel channel, long end) throws IOException {
+        for (long position = end - 1; position >= 0; position--) {
+            if (!Character.isWhitespace(readByte(channel, position))) return position;
+        }
+        return -1;
+    }
+
+    private static char readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        channel.read(one, position);
+        return (char) one.get(0);
+    }
 }
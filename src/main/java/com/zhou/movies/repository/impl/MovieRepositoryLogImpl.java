@@ -0,0 +1,306 @@
+package com.zhou.movies.repository.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.MovieRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Append-only (write-ahead log) repository for movies.
+ *
+ * Responsibility:
+ * Persists every change as a single add/update/delete record appended to a log file,
+ * rebuilds the collection at startup by replaying the log on top of the last snapshot,
+ * and compacts the log into a new snapshot once it grows past a threshold.
+ * A single edit therefore costs one log line on disk instead of a full file rewrite.
+ */
+public class MovieRepositoryLogImpl implements MovieRepository {
+
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+    private static final String OP_PUT = "PUT";
+    private static final String OP_DELETE = "DELETE";
+
+    private final MovieRepository snapshotRepository;
+    private final Path logPath;
+    private final Gson gson;
+    private final int compactionThreshold;
+
+    // Last state known to be on disk (snapshot + log), in insertion order
+    private final Map<String, Movie> persistedState = new LinkedHashMap<>();
+    private int logRecordCount;
+    private boolean loaded = false;
+
+    public MovieRepositoryLogImpl(String snapshotPath, String logPath) {
+        this(new MovieRepositoryJsonImpl(snapshotPath), logPath);
+    }
+
+    public MovieRepositoryLogImpl(MovieRepository snapshotRepository, String logPath) {
+        this(snapshotRepository, logPath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public MovieRepositoryLogImpl(MovieRepository snapshotRepository, String logPath, int compactionThreshold) {
+        this.snapshotRepository = snapshotRepository;
+        this.logPath = Paths.get(logPath);
+        this.gson = new GsonBuilder().create(); // compact output: one record per line
+        this.compactionThreshold = compactionThreshold;
+        initFile();
+    }
+
+    /**
+     * Ensure the log file exists (empty log means "snapshot only").
+     */
+    private void initFile() {
+        try {
+            if (logPath.getParent() != null) {
+                Files.createDirectories(logPath.getParent());
+            }
+            if (Files.notExists(logPath)) {
+                Files.createFile(logPath);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize log file: " + logPath, e);
+        }
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        persistedState.clear();
+        for (Movie movie : snapshotRepository.findAll()) {
+            persistedState.put(movie.getId(), movie);
+        }
+
+        boolean tornTail = replayLog();
+        loaded = true;
+
+        // A torn last record (crash mid-append) or an oversized log is folded into a fresh snapshot
+        if (tornTail || logRecordCount >= compactionThreshold) {
+            compact();
+        }
+        return new ArrayList<>(persistedState.values());
+    }
+
+    @Override
+    public void saveAll(List<Movie> moviesListCache) {
+        List<LogEntry> entries = diff(moviesListCache);
+        if (entries.isEmpty()) return;
+
+        // Rewriting the snapshot is cheaper than logging most of the collection
+        if (entries.size() > moviesListCache.size() / 2 && entries.size() > 1) {
+            resetState(moviesListCache);
+            compact();
+            return;
+        }
+
+        append(entries);
+        resetState(moviesListCache);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void save(Movie movie) {
+        ensureLoaded();
+        append(List.of(LogEntry.put(movie)));
+        persistedState.put(movie.getId(), movie);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        ensureLoaded();
+        if (!persistedState.containsKey(id)) return;
+
+        append(List.of(LogEntry.delete(id)));
+        persistedState.remove(id);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void deleteBatch(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        ensureLoaded();
+
+        List<LogEntry> entries = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (persistedState.containsKey(id)) entries.add(LogEntry.delete(id));
+        }
+        if (entries.isEmpty()) return;
+
+        append(entries);
+        for (String id : ids) {
+            persistedState.remove(id);
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public void saveBatch(Collection<Movie> movies) {
+        if (movies.isEmpty()) return;
+        ensureLoaded();
+
+        List<LogEntry> entries = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            entries.add(LogEntry.put(movie));
+        }
+        append(entries);
+        for (Movie movie : movies) {
+            persistedState.put(movie.getId(), movie);
+        }
+        compactIfNeeded();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) findAll();
+    }
+
+    private void compactIfNeeded() {
+        if (logRecordCount >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the snapshot from the current persisted state and truncates the log.
+     */
+    public void compact() {
+        snapshotRepository.saveAll(new ArrayList<>(persistedState.values()));
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to truncate log file: " + logPath, e);
+        }
+        logRecordCount = 0;
+    }
+
+    /**
+     * Replays all log records on top of the loaded snapshot.
+     * Only the last record may be unreadable (crash mid-append); an unreadable record followed
+     * by others means the log is corrupt, and loading fails so nothing is compacted away.
+     * @return true if the log ends with an unreadable (partially written) record
+     */
+    private boolean replayLog() {
+        logRecordCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            int unreadableLine = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (unreadableLine > 0) {
+                    throw new RuntimeException("Corrupt record at line " + unreadableLine + " of log file: " + logPath);
+                }
+
+                LogEntry entry;
+                try {
+                    entry = gson.fromJson(line, LogEntry.class);
+                } catch (JsonParseException e) {
+                    entry = null;
+                }
+                if (entry == null || entry.op == null) {
+                    unreadableLine = lineNumber;
+                    continue;
+                }
+
+                apply(entry);
+                logRecordCount++;
+            }
+            return unreadableLine > 0;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to replay log file: " + logPath, e);
+        }
+    }
+
+    private void apply(LogEntry entry) {
+        if (OP_PUT.equals(entry.op) && entry.movie != null) {
+            persistedState.put(entry.movie.getId(), entry.movie);
+        } else if (OP_DELETE.equals(entry.op)) {
+            persistedState.remove(entry.id);
+        }
+    }
+
+    /**
+     * Computes the records needed to turn the persisted state into the given list.
+     */
+    private List<LogEntry> diff(List<Movie> movies) {
+        List<LogEntry> entries = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+
+        for (Movie movie : movies) {
+            seenIds.add(movie.getId());
+            Movie previous = persistedState.get(movie.getId());
+            if (previous == null || !sameContent(previous, movie)) {
+                entries.add(LogEntry.put(movie));
+            }
+        }
+        for (String id : persistedState.keySet()) {
+            if (!seenIds.contains(id)) {
+                entries.add(LogEntry.delete(id));
+            }
+        }
+        return entries;
+    }
+
+    /** Movie.equals compares IDs only, so field changes are detected here. */
+    private static boolean sameContent(Movie a, Movie b) {
+        return a == b || (a.getYear() == b.getYear()
+                && a.getRating() == b.getRating()
+                && Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getDirector(), b.getDirector())
+                && a.getCategory() == b.getCategory()
+                && a.getStatus() == b.getStatus());
+    }
+
+    private void resetState(List<Movie> movies) {
+        persistedState.clear();
+        for (Movie movie : movies) {
+            persistedState.put(movie.getId(), movie);
+        }
+        loaded = true;
+    }
+
+    private void append(List<LogEntry> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (LogEntry entry : entries) {
+            sb.append(gson.toJson(entry)).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append to log file: " + logPath, e);
+        }
+        logRecordCount += entries.size();
+    }
+
+    /**
+     * A single log record: either the full new state of a movie or a deletion by ID.
+     */
+    private static final class LogEntry {
+        private final String op;
+        private final String id;
+        private final Movie movie;
+
+        private LogEntry(String op, String id, Movie movie) {
+            this.op = op;
+            this.id = id;
+            this.movie = movie;
+        }
+
+        static LogEntry put(Movie movie) { return new LogEntry(OP_PUT, movie.getId(), movie); }
+        static LogEntry delete(String id) { return new LogEntry(OP_DELETE, id, null); }
+    }
+}
@@ -0,0 +1,255 @@
+package com.zhou.movies.repository.impl;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.MovieRepository;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind decorator for any MovieRepository.
+ *
+ * Responsibility:
+ * Records mutations in memory and returns immediately, so the caller (the Swing EDT)
+ * never waits for disk I/O. A background writer flushes the pending changes to the
+ * wrapped repository once no new mutation arrived for the debounce window, and never
+ * later than the max-staleness bound after the first unsaved change.
+ * Several changes to the same movie (e.g. rapid undo/redo) are merged into one write.
+ */
+public class WriteBehindMovieRepository implements MovieRepository, AutoCloseable {
+
+    private static final int CLOSE_FLUSH_ATTEMPTS = 3;
+    // Wait before the second close attempt, doubled before each later one
+    private static final long CLOSE_RETRY_DELAY_MILLIS = 100;
+
+    private final MovieRepository delegate;
+    private final long debounceMillis;
+    private final long maxStalenessMillis;
+    private final ScheduledExecutorService writer;
+
+    // Guards the pending state below
+    private final Object stateLock = new Object();
+    // Serializes all access to the delegate
+    private final Object flushLock = new Object();
+
+    // Latest unsaved state per movie ID, null value marks a deletion
+    private Map<String, Movie> pending = new LinkedHashMap<>();
+    private long firstDirtyNanos = -1;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed = false;
+
+    public WriteBehindMovieRepository(MovieRepository delegate, long debounceMillis, long maxStalenessMillis) {
+        this.delegate = delegate;
+        this.debounceMillis = debounceMillis;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "movie-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Writes pending changes first (read-your-writes); a failed write is thrown, not hidden behind stale data. */
+    @Override
+    public List<Movie> findAll() {
+        synchronized (flushLock) {
+            writePending();
+            return delegate.findAll();
+        }
+    }
+
+    @Override
+    public void saveAll(List<Movie> moviesListCache) {
+        // A full replace supersedes every pending change
+        synchronized (flushLock) {
+            synchronized (stateLock) {
+                pending = new LinkedHashMap<>();
+                firstDirtyNanos = -1;
+                cancelScheduledFlush();
+            }
+            delegate.saveAll(moviesListCache);
+        }
+    }
+
+    @Override
+    public void save(Movie movie) {
+        if (!enqueue(changes -> changes.put(movie.getId(), movie))) {
+            writeThrough(() -> delegate.save(movie));
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        if (!enqueue(changes -> changes.put(id, null))) {
+            writeThrough(() -> delegate.deleteById(id));
+        }
+    }
+
+    @Override
+    public void saveBatch(Collection<Movie> movies) {
+        boolean queued = enqueue(changes -> {
+            for (Movie movie : movies) {
+                changes.put(movie.getId(), movie);
+            }
+        });
+        if (!queued) writeThrough(() -> delegate.saveBatch(movies));
+    }
+
+    @Override
+    public void deleteBatch(Collection<String> ids) {
+        boolean queued = enqueue(changes -> {
+            for (String id : ids) {
+                changes.put(id, null);
+            }
+        });
+        if (!queued) writeThrough(() -> delegate.deleteBatch(ids));
+    }
+
+    /**
+     * Synchronously writes all pending changes to the wrapped repository.
+     * Failed changes are kept and retried on the next flush.
+     */
+    public void flush() {
+        try {
+            writePending();
+        } catch (RuntimeException e) {
+            System.out.println("Write-behind flush failed: " + e.getMessage());
+        }
+    }
+
+    /** Number of changes waiting to be written. */
+    public int pendingCount() {
+        synchronized (stateLock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Durable shutdown: stops the writer thread and flushes everything still pending,
+     * retrying a failed flush a few times with a growing pause (so a briefly locked or
+     * full disk can recover) before giving up with an exception.
+     * Changes made after close are written through synchronously.
+     */
+    @Override
+    public void close() {
+        synchronized (stateLock) {
+            closed = true;
+            cancelScheduledFlush();
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(maxStalenessMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        RuntimeException failure = null;
+        long delay = CLOSE_RETRY_DELAY_MILLIS;
+        for (int attempt = 0; attempt < CLOSE_FLUSH_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break; // the caller wants out; report what is still pending
+                }
+                delay *= 2;
+            }
+            try {
+                writePending();
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        throw new RuntimeException("Failed to flush " + pendingCount() + " pending changes on close", failure);
+    }
+
+    /**
+     * Records a change for the background writer.
+     * @return false if the repository is closed and the change was not recorded
+     */
+    private boolean enqueue(Consumer<Map<String, Movie>> change) {
+        synchronized (stateLock) {
+            if (closed) return false;
+            change.accept(pending);
+            scheduleFlush();
+            return true;
+        }
+    }
+
+    /** Writes one change directly, after anything still pending so the order is kept. */
+    private void writeThrough(Runnable write) {
+        synchronized (flushLock) {
+            writePending();
+            write.run();
+        }
+    }
+
+    /** Writes all pending changes; on failure they are requeued and the exception is rethrown. */
+    private void writePending() {
+        synchronized (flushLock) {
+            Map<String, Movie> batch;
+            synchronized (stateLock) {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                firstDirtyNanos = -1;
+                cancelScheduledFlush();
+            }
+
+            List<Movie> saves = new ArrayList<>();
+            List<String> deletes = new ArrayList<>();
+            for (Map.Entry<String, Movie> entry : batch.entrySet()) {
+                if (entry.getValue() != null) saves.add(entry.getValue());
+                else deletes.add(entry.getKey());
+            }
+
+            try {
+                delegate.saveBatch(saves);
+                delegate.deleteBatch(deletes);
+            } catch (RuntimeException e) {
+                requeue(batch);
+                throw e;
+            }
+        }
+    }
+
+    private void requeue(Map<String, Movie> failedBatch) {
+        synchronized (stateLock) {
+            // Newer changes recorded during the failed write win
+            Map<String, Movie> merged = new LinkedHashMap<>(failedBatch);
+            merged.putAll(pending);
+            pending = merged;
+            scheduleFlush();
+        }
+    }
+
+    /** Must hold stateLock. Debounces, but never beyond the staleness bound. */
+    private void scheduleFlush() {
+        long now = System.nanoTime();
+        if (firstDirtyNanos < 0) firstDirtyNanos = now;
+
+        if (closed) {
+            return; // close() flushes synchronously
+        }
+
+        long untilStale = TimeUnit.NANOSECONDS.toMillis(firstDirtyNanos - now) + maxStalenessMillis;
+        long delay = Math.max(0, Math.min(debounceMillis, untilStale));
+
+        cancelScheduledFlush();
+        scheduledFlush = writer.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /** Must hold stateLock. */
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.zhou.movies.service;
+
+import com.zhou.movies.pojo.Movie;
+
+import java.util.List;
+
+/**
+ * Describes what changed in the movie data, so observers can apply row-level deltas.
+ *
+ * Positions refer to the service's current query result (search + filter + sort):
+ * fromPosition is the movie's row before the change, toPosition its row after it,
+ * and -1 means "not part of the result" on that side.
+ * QUERY_CHANGED carries no positions: the whole result must be re-read.
+ *
+ * A delta also carries the result its positions were computed against and the patched
+ * result after the change. Positions are only meaningful to an observer that still shows
+ * that very base result (compared by identity); any other observer must re-read instead.
+ */
+public class MovieChangeEvent {
+
+    public enum Type {
+        INSERTED,
+        UPDATED,
+        DELETED,
+        QUERY_CHANGED
+    }
+
+    private static final MovieChangeEvent QUERY_CHANGED_EVENT =
+            new MovieChangeEvent(Type.QUERY_CHANGED, null, -1, -1, null, null);
+
+    private final Type type;
+    private final String movieId;
+    private final int fromPosition;
+    private final int toPosition;
+    private final List<Movie> baseResult;
+    private final List<Movie> result;
+
+    public MovieChangeEvent(Type type, String movieId, int fromPosition, int toPosition,
+                            List<Movie> baseResult, List<Movie> result) {
+        this.type = type;
+        this.movieId = movieId;
+        this.fromPosition = fromPosition;
+        this.toPosition = toPosition;
+        this.baseResult = baseResult;
+        this.result = result;
+    }
+
+    public static MovieChangeEvent queryChanged() {
+        return QUERY_CHANGED_EVENT;
+    }
+
+    public Type getType() { return type; }
+    public String getMovieId() { return movieId; }
+    public int getFromPosition() { return fromPosition; }
+    public int getToPosition() { return toPosition; }
+    /** Result the positions refer to, or null for QUERY_CHANGED. */
+    public List<Movie> getBaseResult() { return baseResult; }
+    /** Result with the change applied, or null for QUERY_CHANGED. */
+    public List<Movie> getResult() { return result; }
+
+    /** Whether the delta can be applied to an observer currently showing the given result. */
+    public boolean appliesTo(List<Movie> shown) {
+        return type != Type.QUERY_CHANGED && baseResult != null && baseResult == shown;
+    }
+
+    @Override
+    public String toString() {
+        return "MovieChangeEvent{" +
+                "type=" + type +
+                ", movieId='" + movieId + '\'' +
+                ", fromPosition=" + fromPosition +
+                ", toPosition=" + toPosition +
+                '}';
+    }
+}
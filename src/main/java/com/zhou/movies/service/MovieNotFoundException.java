@@ -0,0 +1,15 @@
+package com.zhou.movies.service;
+
+/**
+ * Thrown when an operation refers to a movie that does not exist (any more).
+ *
+ * Responsibility:
+ * Lets callers tell a missing movie apart from other failures, e.g. so the command
+ * history can drop a step that can never be undone instead of failing on it forever.
+ */
+public class MovieNotFoundException extends Exception {
+
+    public MovieNotFoundException(String movieId) {
+        super("Movie not found with id: " + movieId);
+    }
+}
@@ -4,13 +4,26 @@ import com.zhou.movies.dto.MovieDTO;
 import com.zhou.movies.pojo.Category;
 import com.zhou.movies.pojo.Movie;
 import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.query.MovieQuery;
 import com.zhou.movies.service.strategy.SortDirection;
 import com.zhou.movies.service.strategy.SortStrategyType;
 
 import java.util.List;
 
 public interface MovieService {
+    /** Result of the session query; the returned list is read-only and may be shared. */
     List<Movie> getAllMovies();
+    /** Stateless evaluation of any query; the returned list is read-only and may be shared. */
+    List<Movie> query(MovieQuery query);
+    MovieQuery getCurrentQuery();
+    /**
+     * Streams the query's result, in order, to the consumer without building the result list.
+     * The order is fixed when the call starts and movies are read in chunks, so later edits
+     * of listed movies show through and movies deleted meanwhile are skipped.
+     */
+    void streamQuery(MovieQuery query, ResultConsumer consumer) throws Exception;
+    void setCurrentQuery(MovieQuery query);
+    Movie findMovieById(String id);
 
     Movie addMovie(MovieDTO dto) throws Exception;
     Movie editMovie(String id, MovieDTO dto) throws Exception;
@@ -29,4 +42,27 @@ public interface MovieService {
     void setSearchQuery(String query);
 
     void addMovieObject(Movie movie);
+
+    /**
+     * Runs all mutations made by the operation (on this thread) as one change: they are
+     * persisted with a single batch write and announced with a single event at the end,
+     * also when the operation fails midway. Nested batches join the outer one.
+     */
+    void runBatch(BatchOperation operation) throws Exception;
+
+    /** Receiver of a result streamed by {@link #streamQuery(MovieQuery, ResultConsumer)}. */
+    interface ResultConsumer {
+        /** Called once before the first movie, with the number of movies listed. */
+        default void begin(int total) throws Exception {
+        }
+
+        /** @return false to stop the stream */
+        boolean accept(Movie movie) throws Exception;
+    }
+
+    /** A group of mutations for {@link #runBatch(BatchOperation)}. */
+    @FunctionalInterface
+    interface BatchOperation {
+        void run() throws Exception;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 package com.zhou.movies.service;
 
 public interface Observer {
-    void update();
+    void update(MovieChangeEvent event);
 }
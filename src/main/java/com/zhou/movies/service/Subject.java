@@ -3,5 +3,5 @@ package com.zhou.movies.service;
 public interface Subject {
     void addObserver(Observer observer);
     void removeObserver(Observer observer);
-    void notifyObservers();
+    void notifyObservers(MovieChangeEvent event);
 }
@@ -0,0 +1,54 @@
+package com.zhou.movies.service.cache;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.query.MovieQuery;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of query results.
+ *
+ * Responsibility:
+ * Memoizes the result of a search/filter/sort combination for a given data version,
+ * so repeated refreshes and toggling back to a previous view skip recomputation.
+ * Cached lists are shared and must be treated as read-only.
+ * Thread-safe: lookups reorder the LRU list, so every access is synchronized.
+ */
+public class QueryResultCache {
+
+    /** A query result depends on the query and the data; dataVersion changes on every mutation. */
+    public record Key(MovieQuery query, long dataVersion) {
+    }
+
+    private final Map<Key, List<Movie>> entries;
+
+    public QueryResultCache(int capacity) {
+        // Access-ordered map evicting the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Movie>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** @return the cached result, or null on a miss */
+    public synchronized List<Movie> get(Key key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(Key key, List<Movie> result) {
+        entries.put(key, result);
+    }
+
+    /** Drops every entry, e.g. after the data version moved on. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -7,8 +7,18 @@ import com.zhou.movies.pojo.Status;
 import com.zhou.movies.service.strategy.SortDirection;
 import com.zhou.movies.service.strategy.SortStrategyType;
 import com.zhou.movies.repository.MovieRepository;
+import com.zhou.movies.service.MovieChangeEvent;
+import com.zhou.movies.service.MovieNotFoundException;
 import com.zhou.movies.service.MovieService;
 import com.zhou.movies.service.Observer;
+import com.zhou.movies.service.cache.QueryResultCache;
+import com.zhou.movies.service.index.MovieIndex;
+import com.zhou.movies.service.index.ObjectRowStore;
+import com.zhou.movies.service.index.RowStore;
+import com.zhou.movies.service.index.SlotComparator;
+import com.zhou.movies.service.index.SlotSort;
+import com.zhou.movies.service.index.SortedView;
+import com.zhou.movies.service.query.MovieQuery;
 import com.zhou.movies.service.strategy.SortingStrategy;
 import com.zhou.movies.service.Subject;
 import com.zhou.movies.service.strategy.impl.SortByRatingStrategy;
@@ -16,77 +26,602 @@ import com.zhou.movies.service.strategy.impl.SortByTitleStrategy;
 import com.zhou.movies.service.strategy.impl.SortByYearStrategy;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * Core service handling all movie-related business logic.
  *
  * Responsibility:
  * Performs CRUD operations, filtering, sorting, and search on movies,
- * maintains a cached movie list, and notifies observers of data changes.
+ * maintains an indexed movie cache (ID hash, category/status/rating bitsets, trigram search),
+ * memoizes query results per data version, narrows a search that extends the previous one
+ * from its matches, and notifies observers with typed change events
+ * (row positions in the current result are patched rather than recomputed).
+ * Mutations grouped by runBatch are persisted in one batch write and announced with one event.
  * Applies Strategy pattern for sorting and Observer pattern for UI updates.
+ *
+ * Thread-safe: writers are serialized by the write side of a StampedLock, queries share
+ * its read side, and a query whose result was already served at the current data version
+ * is answered from an immutable snapshot under an optimistic read, without locking.
+ * Other queries release the read lock between chunks of rows, so a writer waits for one
+ * chunk rather than a whole evaluation; an evaluation whose data changed in between
+ * starts over on the new data.
+ * Results are immutable lists that are never modified after publication, and a query
+ * running on an interrupted thread is abandoned with a CancellationException.
+ *
+ * Queries are immutable MovieQuery specs: query(MovieQuery) is stateless and serves any
+ * number of consumers, while getAllMovies() and the filter setters operate on the
+ * UI session's query, the one whose result is patched into change events.
+ * streamQuery(MovieQuery, ResultConsumer) hands a result out movie by movie instead,
+ * for exports that should not hold the whole result in memory.
  */
 public class MovieServiceImpl implements MovieService, Subject {
+    private static final int QUERY_CACHE_CAPACITY = 16;
+    // Rows evaluated per read-lock hold; writers get in and cancellation is checked between chunks
+    private static final int EVALUATION_CHUNK_ROWS = 4096;
+    // Slots searched per read-lock hold
+    private static final int SEARCH_CHUNK_SLOTS = 65_536;
+    // Evaluations started over this often because of writers hold the read lock throughout the next time
+    private static final int MAX_YIELDING_ATTEMPTS = 3;
+    // Smallest slot range searched as one parallel task
+    private static final int MIN_PARALLEL_CHUNK = 16_384;
+    // Movies materialized per read lock while streaming a result
+    private static final int STREAM_CHUNK_ROWS = 4096;
+
+    /** Parallel threshold that keeps every query sequential (the default). */
+    public static final int SEQUENTIAL_ONLY = Integer.MAX_VALUE;
+
+    private static final Map<SortStrategyType, SortingStrategy> SORTING_STRATEGIES = new EnumMap<>(Map.of(
+            SortStrategyType.TITLE, new SortByTitleStrategy(),
+            SortStrategyType.YEAR, new SortByYearStrategy(),
+            SortStrategyType.RATING, new SortByRatingStrategy()));
+
+    /** Immutable result of a query, published for lock-free reads. */
+    private record ServedResult(QueryResultCache.Key key, List<Movie> movies) {
+    }
+
+    /** Matches of an evaluated search; the bitset is never modified after publication. */
+    private record SearchMatches(QueryResultCache.Key key, BitSet slots) {
+    }
+
+    /** Result order of a streamed query, valid until the index is compacted again. */
+    private record StreamOrder(int[] slots, int compactions) {
+    }
+
+    /** Thrown between two chunks of an evaluation when a writer changed the data meanwhile. */
+    private static final class StaleReadException extends RuntimeException {
+        StaleReadException() {
+            super("Data changed during evaluation", null, false, false);
+        }
+    }
+
+    /**
+     * Net changes of a running batch, persisted and announced once when it ends.
+     * The state of each touched movie before the batch is kept, so changes that were
+     * undone within the batch (e.g. by a rollback) are not written at all.
+     */
+    private static final class PendingBatch {
+        private final Map<String, Movie> saved = new LinkedHashMap<>();
+        private final Set<String> deleted = new LinkedHashSet<>();
+        // Movie as it was before the batch touched it; null if it did not exist
+        private final Map<String, Movie> original = new HashMap<>();
+
+        void save(Movie before, Movie movie) {
+            remember(movie.getId(), before);
+            deleted.remove(movie.getId());
+            saved.put(movie.getId(), movie);
+        }
+
+        void delete(Movie before, String id) {
+            remember(id, before);
+            saved.remove(id);
+            deleted.add(id);
+        }
+
+        boolean isEmpty() {
+            return original.isEmpty();
+        }
+
+        private void remember(String id, Movie before) {
+            if (!original.containsKey(id)) original.put(id, before); // putIfAbsent would overwrite a null
+        }
+
+        /** Saved movies that differ from their state before the batch. */
+        List<Movie> netSaved() {
+            List<Movie> changed = new ArrayList<>();
+            for (Movie movie : saved.values()) {
+                Movie before = original.get(movie.getId());
+                if (before == null || !sameContent(before, movie)) changed.add(movie);
+            }
+            return changed;
+        }
+
+        /** Deleted IDs that existed before the batch. */
+        List<String> netDeleted() {
+            List<String> removed = new ArrayList<>();
+            for (String id : deleted) {
+                if (original.get(id) != null) removed.add(id);
+            }
+            return removed;
+        }
+
+        /** Movie.equals compares IDs only, so field changes are detected here. */
+        private static boolean sameContent(Movie a, Movie b) {
+            return a == b || (a.getYear() == b.getYear()
+                    && a.getRating() == b.getRating()
+                    && Objects.equals(a.getTitle(), b.getTitle())
+                    && Objects.equals(a.getDirector(), b.getDirector())
+                    && a.getCategory() == b.getCategory()
+                    && a.getStatus() == b.getStatus());
+        }
+    }
+
     private final MovieRepository movieRepository;
     private final List<Observer> observers;
 
-    private final List<Movie> moviesListCache;
-    private SortingStrategy currentSortingStrategy;
-    private SortDirection currentSortDirection;
+    // Libraries (search) or candidate sets (sort) of at least this size are evaluated in parallel
+    private final int parallelThreshold;
+    private final ForkJoinPool parallelPool = ForkJoinPool.commonPool();
+
+    // Writers take the write lock; queries share the read lock
+    private final StampedLock lock = new StampedLock();
+    // Writers waiting for the write lock; readers would otherwise barge ahead of them when yielding
+    private final AtomicInteger waitingWriters = new AtomicInteger();
 
-    private Category currentFilterCategory = null;
-    private Status currentFilterStatus = null;
-    private Integer currentFilterRating = null;
+    // Insertion-ordered movies with ID and filter indexes
+    private final MovieIndex moviesCache;
 
-    private String currentSearchQuery = null;
+    // Query of the UI session behind getAllMovies() and the observer events
+    private final AtomicReference<MovieQuery> currentQuery = new AtomicReference<>(MovieQuery.ALL);
+
+    // Bumped on every data mutation (under the write lock), so cached results of older data never match
+    private volatile long dataVersion = 0;
+    private final QueryResultCache queryCache = new QueryResultCache(QUERY_CACHE_CAPACITY);
+
+    // Matches of the last evaluated search, reused to narrow a longer follow-up query
+    private volatile SearchMatches lastSearch = null;
+
+    // Last result served for the current query state; patched on data changes
+    private volatile ServedResult lastServed = null;
+
+    // Batch running on the current thread; its mutations skip per-change persistence and events
+    private final ThreadLocal<PendingBatch> runningBatch = new ThreadLocal<>();
 
     public MovieServiceImpl(MovieRepository movieRepository){
-        this.movieRepository = movieRepository;
-        this.observers = new ArrayList<>();
+        this(movieRepository, SEQUENTIAL_ONLY);
+    }
 
-        this.moviesListCache = movieRepository.findAll();
+    public MovieServiceImpl(MovieRepository movieRepository, int parallelThreshold){
+        this(movieRepository, new ObjectRowStore(), parallelThreshold);
+    }
 
-        this.currentSortingStrategy = new SortByTitleStrategy();
-        this.currentSortDirection = SortDirection.ASCENDING;
+    /**
+     * @param rowStore          store for the movie rows, e.g. a ColumnarRowStore for large
+     *                          libraries or a PagedRowStore to keep the rows themselves off the
+     *                          heap (rows are then materialized on read; the indexes stay on
+     *                          the heap at 80 to 100 bytes a movie). An empty store is filled
+     *                          from the repository; a store that already holds rows (a reopened
+     *                          PagedRowStore) is indexed as-is and the repository is not loaded
+     * @param parallelThreshold opt-in parallel evaluation: searches over at least this many
+     *                          slots and sorts of at least this many candidates run on the
+     *                          common ForkJoinPool; {@link #SEQUENTIAL_ONLY} disables it.
+     *                          The default stays sequential because no crossover has been
+     *                          measured: on a single-CPU machine SlotSortBenchmark put the
+     *                          parallel sort at par or up to 30% slower than the sequential
+     *                          one for every size from 1k to 1M candidates (year sort of 100k:
+     *                          37.5 ms sequential, 40.0 ms parallel). Pick a threshold from
+     *                          that benchmark and ParallelQueryBenchmark on the target hardware
+     */
+    public MovieServiceImpl(MovieRepository movieRepository, RowStore rowStore, int parallelThreshold){
+        this.movieRepository = movieRepository;
+        this.parallelThreshold = parallelThreshold;
+        this.observers = new CopyOnWriteArrayList<>();
+
+        this.moviesCache = rowStore.slotCount() > 0 ? new MovieIndex(rowStore)
+                : new MovieIndex(rowStore, movieRepository.findAll());
+        // Build every sorted view up front, so concurrent queries only ever read the index
+        for (SortStrategyType sortType : SortStrategyType.values()) sortedView(sortType);
     }
 
     @Override
     public List<Movie> getAllMovies(){
-        // Apply search params if exist
-        List<Movie> searchResults;
-        if (currentSearchQuery == null) {
-            searchResults = new ArrayList<>(moviesListCache);
-        } else {
-            String queryLower = currentSearchQuery.toLowerCase();
-            searchResults = moviesListCache.stream()
-                    .filter(movie ->
-                            movie.getTitle().toLowerCase().contains(queryLower) ||
-                                    movie.getDirector().toLowerCase().contains(queryLower)
-                    )
-                    .collect(Collectors.toList());
+        return query(currentQuery.get(), true);
+    }
+
+    @Override
+    public List<Movie> query(MovieQuery query) {
+        return query(query, false);
+    }
+
+    /**
+     * @param session true if this is the session query, whose result is kept for patching on data changes
+     */
+    private List<Movie> query(MovieQuery query, boolean session) {
+        // Fast path: this query was already served at the current data version and no writer interfered
+        long stamp = lock.tryOptimisticRead();
+        ServedResult served = lastServed;
+        if (served != null && served.key().equals(new QueryResultCache.Key(query, dataVersion))
+                && lock.validate(stamp)) {
+            return served.movies();
+        }
+
+        return evaluate(read -> {
+            QueryResultCache.Key key = new QueryResultCache.Key(query, read.version);
+
+            List<Movie> result = queryCache.get(key);
+            if (result == null) {
+                result = Collections.unmodifiableList(executeQuery(key, read));
+                queryCache.put(key, result);
+            }
+
+            if (session) lastServed = new ServedResult(key, result);
+            return result;
+        });
+    }
+
+    /**
+     * Runs an evaluation under a QueryRead, starting over on the new data whenever a writer
+     * changed it between two chunks. After a few such attempts the read lock is held
+     * throughout, so a steady stream of writers cannot starve the evaluation.
+     */
+    private <T> T evaluate(Function<QueryRead, T> evaluation) {
+        for (int attempt = 1; ; attempt++) {
+            QueryRead read = new QueryRead(attempt < MAX_YIELDING_ATTEMPTS);
+            try {
+                return evaluation.apply(read);
+            } catch (StaleReadException e) {
+                // a writer got in between two chunks: start over
+            } finally {
+                read.close();
+            }
+        }
+    }
+
+    /**
+     * Read lock held by one evaluation. Between two chunks of rows it is released and
+     * re-acquired, letting waiting writers in; the evaluation goes on only if none of
+     * them changed the data, since its partial results would be stale otherwise.
+     */
+    private final class QueryRead implements AutoCloseable {
+        private final long version;
+        private final boolean yielding;
+        private long stamp;
+
+        QueryRead(boolean yielding) {
+            this.stamp = lock.readLock();
+            this.version = dataVersion;
+            this.yielding = yielding;
+        }
+
+        /** Called between chunks: abandons a superseded query and lets waiting writers in. */
+        void yieldToWriters() {
+            checkCancelled();
+            if (!yielding || waitingWriters.get() == 0) return;
+
+            lock.unlockRead(stamp);
+            while (waitingWriters.get() > 0) Thread.yield(); // until they hold the lock
+            stamp = lock.readLock();
+            if (dataVersion != version) throw new StaleReadException();
+        }
+
+        @Override
+        public void close() {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public MovieQuery getCurrentQuery() {
+        return currentQuery.get();
+    }
+
+    /**
+     * Resolves the result order to an int per movie under one read lock, then materializes
+     * the movies chunk by chunk, so writers are only held off for one chunk at a time.
+     */
+    @Override
+    public void streamQuery(MovieQuery query, ResultConsumer consumer) throws Exception {
+        StreamOrder order = evaluate(read -> {
+            BitSet candidates = moviesCache.select(query.getCategory(), query.getStatus(), query.getRating());
+            if (query.getSearchQuery() != null) {
+                candidates = search(query.getSearchQuery().toLowerCase(), candidates, read);
+            }
+            return new StreamOrder(orderedSlots(candidates, query, read), moviesCache.compactionCount());
+        });
+        int[] slots = order.slots();
+        int compactions = order.compactions();
+
+        consumer.begin(slots.length);
+        Movie[] chunk = new Movie[Math.min(STREAM_CHUNK_ROWS, slots.length)];
+        for (int from = 0; from < slots.length; from += chunk.length) {
+            int count = Math.min(chunk.length, slots.length - from);
+            long stamp = lock.readLock();
+            try {
+                if (moviesCache.compactionCount() != compactions) {
+                    throw new ConcurrentModificationException("Movies were compacted while the result was streamed");
+                }
+                for (int i = 0; i < count; i++) chunk[i] = moviesCache.row(slots[from + i]);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+
+            for (int i = 0; i < count; i++) {
+                Movie movie = chunk[i];
+                chunk[i] = null;
+                if (movie != null && !consumer.accept(movie)) return; // null: deleted meanwhile
+            }
+        }
+    }
+
+    /**
+     * Candidate slots in result order, read off the maintained sorted view of the query's
+     * strategy. Small candidate sets are sorted directly with the view's order instead of
+     * walking the whole view.
+     */
+    private int[] orderedSlots(BitSet candidates, MovieQuery query, QueryRead read) {
+        SortedView view = sortedView(query.getSortType());
+        int count = candidates.cardinality();
+        if (directSort(count, view)) {
+            int[] slots = candidates.stream().toArray();
+            SlotSort.sort(slots, view.slotOrder(query.getSortDirection()), read::yieldToWriters);
+            return slots;
+        }
+
+        int[] slots = new int[count];
+        PrimitiveIterator.OfInt walk = view.iterator(query.getSortDirection());
+        int i = 0;
+        for (int walked = 1; walk.hasNext(); walked++) {
+            if (walked % EVALUATION_CHUNK_ROWS == 0) read.yieldToWriters();
+            int slot = walk.nextInt();
+            if (candidates.get(slot)) slots[i++] = slot;
+        }
+        return slots;
+    }
+
+    /** True if sorting the candidates costs less than walking the whole view. */
+    private static boolean directSort(int count, SortedView view) {
+        return (long) count * (32 - Integer.numberOfLeadingZeros(count)) < view.size();
+    }
+
+    /** Evaluates the query's search, filters and sort against the indexed cache. */
+    private List<Movie> executeQuery(QueryResultCache.Key key, QueryRead read) {
+        MovieQuery query = key.query();
+
+        // Resolve category/status/rating filters by bitset intersection
+        BitSet candidates = moviesCache.select(query.getCategory(), query.getStatus(), query.getRating());
+
+        // Apply search params (if any) through the trigram index
+        if (query.getSearchQuery() != null) {
+            read.yieldToWriters();
+            String queryLower = query.getSearchQuery().toLowerCase();
+            BitSet previousMatches = narrowableMatches(key, queryLower);
+            candidates = search(queryLower, previousMatches != null ? previousMatches : candidates, read);
+
+            lastSearch = new SearchMatches(key, candidates);
+        }
+
+        read.yieldToWriters();
+        return sortCandidates(candidates, query, read);
+    }
+
+    /**
+     * Matches of the previous search if the new query can only narrow them
+     * (it contains the previous query, same filters, same data), otherwise null.
+     */
+    private BitSet narrowableMatches(QueryResultCache.Key key, String queryLower) {
+        SearchMatches previous = lastSearch;
+        if (previous == null
+                || previous.key().dataVersion() != key.dataVersion()
+                || !previous.key().query().sameFilters(key.query())) {
+            return null;
         }
+        String previousLower = previous.key().query().getSearchQuery().toLowerCase();
+        return queryLower.contains(previousLower) ? previous.slots() : null;
+    }
 
-        // Filtering result of searched movies with selected categories
-        List<Movie> filteredMovies = searchResults.stream()
-                .filter(movie -> (currentFilterCategory == null || movie.getCategory().equals(currentFilterCategory)))
-                .filter(movie -> (currentFilterStatus == null || movie.getStatus().equals(currentFilterStatus)))
-                .filter(movie -> (currentFilterRating == null || movie.getRating() == currentFilterRating))
-                .collect(Collectors.toList());
+    /**
+     * Trigram search in slot-range chunks: one per read-lock hold, or spread across the
+     * pool on large libraries.
+     */
+    private BitSet search(String queryLower, BitSet candidates, QueryRead read) {
+        int slotCount = moviesCache.slotCount();
+        if (slotCount < parallelThreshold) {
+            int end = candidates.length();
+            BitSet matches = new BitSet(end);
+            for (int from = 0; from < end; from += SEARCH_CHUNK_SLOTS) {
+                if (from > 0) read.yieldToWriters();
+                matches.or(moviesCache.search(queryLower, candidates, from, Math.min(from + SEARCH_CHUNK_SLOTS, end)));
+            }
+            return matches;
+        }
+
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK, slotCount / (parallelPool.getParallelism() * 4));
+        return moviesCache.search(queryLower, candidates, parallelPool, chunkSize, cancellationCheck());
+    }
 
-        // Sorting filtered Movies with the selected strategy
-        if (currentSortingStrategy != null) {
-            currentSortingStrategy.sort(filteredMovies, currentSortDirection);
+    /** Acquires the write lock, announcing the wait to yielding evaluations. */
+    private long writeLock() {
+        waitingWriters.incrementAndGet();
+        try {
+            return lock.writeLock();
+        } finally {
+            waitingWriters.decrementAndGet();
         }
+    }
+
+    /**
+     * The same check for tasks that work for the calling query on the pool's threads:
+     * they look at the caller's interrupt status instead of their own.
+     */
+    private static Runnable cancellationCheck() {
+        Thread caller = Thread.currentThread();
+        return () -> {
+            if (caller.isInterrupted()) throw new CancellationException("Query superseded");
+        };
+    }
 
-        return filteredMovies;
+    /** Abandons a query whose (background) thread was interrupted by a newer one. */
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Query superseded");
+        }
+    }
+
+    /**
+     * Candidates in result order (see orderedSlots), materialized chunk by chunk.
+     * Above the parallel threshold, the direct sort becomes a parallel merge sort and
+     * the view walk an ordered parallel stream.
+     */
+    private List<Movie> sortCandidates(BitSet candidates, MovieQuery query, QueryRead read) {
+        SortedView view = sortedView(query.getSortType());
+        int count = candidates.cardinality();
+        if (count >= parallelThreshold) {
+            return directSort(count, view) ? parallelSort(candidates, view, query.getSortDirection())
+                    : parallelWalk(candidates, view, query.getSortDirection());
+        }
+
+        int[] slots = orderedSlots(candidates, query, read);
+        Movie[] sortedMovies = new Movie[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            if (i > 0 && i % EVALUATION_CHUNK_ROWS == 0) read.yieldToWriters();
+            sortedMovies[i] = moviesCache.row(slots[i]);
+        }
+        return Arrays.asList(sortedMovies);
+    }
+
+    /** Parallel sort and materialization; the caller's cancellation is checked on every comparison and row. */
+    private List<Movie> parallelSort(BitSet candidates, SortedView view, SortDirection direction) {
+        Runnable cancellation = cancellationCheck();
+        int[] slots = candidates.stream().toArray();
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK, slots.length / (parallelPool.getParallelism() * 4));
+        SlotComparator slotOrder = view.slotOrder(direction);
+        SlotSort.parallelSort(slots, (a, b) -> {
+            cancellation.run();
+            return slotOrder.compare(a, b);
+        }, parallelPool, chunkSize);
+
+        Movie[] sortedMovies = new Movie[slots.length];
+        Arrays.parallelSetAll(sortedMovies, i -> {
+            cancellation.run();
+            return moviesCache.row(slots[i]);
+        });
+        return Arrays.asList(sortedMovies);
+    }
+
+    /** Ordered parallel walk; the caller's cancellation is checked on every slot walked. */
+    private List<Movie> parallelWalk(BitSet candidates, SortedView view, SortDirection direction) {
+        Runnable cancellation = cancellationCheck();
+        // Encounter order is kept, so the chunks are concatenated in view order
+        return parallelPool.submit(() -> view.stream(direction).parallel()
+                .filter(slot -> {
+                    cancellation.run();
+                    return candidates.get(slot);
+                })
+                .mapToObj(moviesCache::row)
+                .toList()).join();
+    }
+
+    private SortedView sortedView(SortStrategyType sortType) {
+        return moviesCache.sortedView(sortType, SORTING_STRATEGIES.get(sortType));
+    }
+
+    // ------------------------------------------------------------------
+    // Change tracking: patch the last result instead of recomputing it
+    // ------------------------------------------------------------------
+
+    /**
+     * Row of the movie in the last result, captured before the data changes.
+     * @param batch running batch; its changes are not patched one by one, observers re-query at its end
+     * @param query session query snapshotted for this mutation
+     * @return -1 if not in the result, or null if there is no up-to-date result to patch
+     */
+    private Integer positionBeforeChange(PendingBatch batch, MovieQuery query, Movie before) {
+        if (batch != null) return null;
+        ServedResult served = lastServed;
+        if (served == null || !served.key().equals(new QueryResultCache.Key(query, dataVersion))) return null;
+        if (before == null) return -1;
+
+        int index = Collections.binarySearch(served.movies(), before, resultOrder(query));
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Invalidates memoized results for the new data version, patches the last result
+     * with the change and builds the matching event. Must hold the write lock.
+     */
+    private MovieChangeEvent dataChanged(MovieQuery query, MovieChangeEvent.Type type,
+                                         String movieId, Integer from, Movie after) {
+        dataVersion++;
+        queryCache.clear();
+
+        if (from == null) {
+            lastServed = null;
+            return MovieChangeEvent.queryChanged(); // nothing to patch, observers re-query
+        }
+
+        List<Movie> base = lastServed.movies();
+        List<Movie> patched = new ArrayList<>(base);
+        if (from >= 0) patched.remove((int) from);
+
+        int to = -1;
+        if (after != null && query.matches(after)) {
+            int index = Collections.binarySearch(patched, after, resultOrder(query));
+            to = index >= 0 ? index : -index - 1;
+            patched.add(to, after);
+        }
+
+        QueryResultCache.Key patchedKey = new QueryResultCache.Key(query, dataVersion);
+        List<Movie> result = Collections.unmodifiableList(patched);
+        queryCache.put(patchedKey, result);
+        lastServed = new ServedResult(patchedKey, result);
+        return new MovieChangeEvent(type, movieId, from, to, base, result);
+    }
+
+    /** Total order of the query result: the sorted view's order over each movie's slot. */
+    private Comparator<Movie> resultOrder(MovieQuery query) {
+        SlotComparator slotOrder = sortedView(query.getSortType()).slotOrder(query.getSortDirection());
+        return (a, b) -> slotOrder.compare(moviesCache.slotOf(a.getId()), moviesCache.slotOf(b.getId()));
     }
 
     @Override
     public void addMovieObject(Movie movie) {
-        moviesListCache.add(movie);
-        movieRepository.saveAll(moviesListCache);
-        notifyObservers();
+        PendingBatch batch = runningBatch.get();
+        MovieChangeEvent event;
+        long stamp = writeLock();
+        try {
+            MovieQuery query = currentQuery.get();
+            Movie existing = moviesCache.get(movie.getId());
+            Integer from = positionBeforeChange(batch, query, existing);
+
+            moviesCache.add(movie);
+            event = dataChanged(query, existing == null ? MovieChangeEvent.Type.INSERTED
+                    : MovieChangeEvent.Type.UPDATED, movie.getId(), from, movie);
+            persistSave(batch, existing, movie);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (batch == null) notifyObservers(event);
     }
 
     @Override
@@ -101,12 +636,22 @@ public class MovieServiceImpl implements MovieService, Subject {
                 .rating(dto.rating)
                 .build();
 
-        // Save to cache and persist changes
-        moviesListCache.add(movie);
-        movieRepository.saveAll(moviesListCache);
+        // Save to cache and persist only the new record
+        PendingBatch batch = runningBatch.get();
+        MovieChangeEvent event;
+        long stamp = writeLock();
+        try {
+            MovieQuery query = currentQuery.get();
+            Integer from = positionBeforeChange(batch, query, null);
+            moviesCache.add(movie);
+            event = dataChanged(query, MovieChangeEvent.Type.INSERTED, movie.getId(), from, movie);
+            persistSave(batch, null, movie);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
 
-        // Notify observers to refresh the view
-        notifyObservers();
+        // Notify observers with the inserted row
+        if (batch == null) notifyObservers(event);
 
         return movie;
     }
@@ -114,10 +659,9 @@ public class MovieServiceImpl implements MovieService, Subject {
     @Override
     public Movie editMovie(String id, MovieDTO dto) throws Exception {
         // Find the original movie by ID or throw if not found
-        Movie originalMovie = moviesListCache.stream()
-                .filter(m -> m.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new Exception("Movie not found with id: " + id));
+        Movie originalMovie = findMovieById(id);
+        if (originalMovie == null)
+            throw new MovieNotFoundException(id);
 
         int year = Integer.parseInt(dto.yearStr);
 
@@ -137,25 +681,110 @@ public class MovieServiceImpl implements MovieService, Subject {
 
     @Override
     public void updateMovie(Movie movie) {
-        int index = moviesListCache.indexOf(movie);
-
-        if (index != -1) {
-            moviesListCache.set(index, movie);
-            movieRepository.saveAll(moviesListCache);
-            notifyObservers();
+        PendingBatch batch = runningBatch.get();
+        MovieChangeEvent event;
+        long stamp = writeLock();
+        try {
+            Movie before = moviesCache.get(movie.getId());
+            if (before == null) return;
+
+            // Replacing an existing movie keeps its insertion position
+            MovieQuery query = currentQuery.get();
+            Integer from = positionBeforeChange(batch, query, before);
+            moviesCache.replace(movie);
+            event = dataChanged(query, MovieChangeEvent.Type.UPDATED, movie.getId(), from, movie);
+            persistSave(batch, before, movie);
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        if (batch == null) notifyObservers(event);
     }
 
     @Override
     public void deleteMovie(String id) {
-        // Remove the movie from cache using its unique ID
-        moviesListCache.removeIf(movie -> movie.getId().equals(id));
+        PendingBatch batch = runningBatch.get();
+        MovieChangeEvent event;
+        long stamp = writeLock();
+        try {
+            Movie before = moviesCache.get(id);
+            if (before == null) return;
+
+            // Remove the movie from cache using its unique ID
+            MovieQuery query = currentQuery.get();
+            Integer from = positionBeforeChange(batch, query, before);
+            moviesCache.remove(id);
+            event = dataChanged(query, MovieChangeEvent.Type.DELETED, id, from, null);
+
+            // Persist the deletion of this single record
+            if (batch != null) batch.delete(before, id);
+            else movieRepository.deleteById(id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        // Notify all observers (View) with the deleted row
+        if (batch == null) notifyObservers(event);
+    }
+
+    @Override
+    public void runBatch(BatchOperation operation) throws Exception {
+        if (runningBatch.get() != null) {
+            operation.run(); // joins the outer batch
+            return;
+        }
+
+        PendingBatch batch = new PendingBatch();
+        runningBatch.set(batch);
+        Exception failure = null;
+        try {
+            operation.run();
+        } catch (Exception e) {
+            failure = e;
+            throw e;
+        } finally {
+            runningBatch.remove();
+            // Whatever the operation changed before failing is already in the index, so it is persisted too
+            if (!batch.isEmpty()) {
+                try {
+                    persistBatch(batch);
+                } catch (RuntimeException e) {
+                    if (failure == null) throw e;
+                    failure.addSuppressed(e); // the operation's own failure stays the one reported
+                } finally {
+                    notifyObservers(MovieChangeEvent.queryChanged());
+                }
+            }
+        }
+    }
 
-        // Update the JSON file (by overwriting with the new cache)
-        movieRepository.saveAll(moviesListCache);
+    /** Writes the net changes of a finished batch; movies left as they were before it are not rewritten. */
+    private void persistBatch(PendingBatch batch) {
+        List<String> deleted = batch.netDeleted();
+        List<Movie> saved = batch.netSaved();
+        if (deleted.isEmpty() && saved.isEmpty()) return;
+
+        long stamp = writeLock();
+        try {
+            movieRepository.deleteBatch(deleted);
+            movieRepository.saveBatch(saved);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
 
-        // Notify all observers (View) to refresh
-        notifyObservers();
+    private void persistSave(PendingBatch batch, Movie before, Movie movie) {
+        if (batch != null) batch.save(before, movie);
+        else movieRepository.save(movie);
+    }
+
+    @Override
+    public Movie findMovieById(String id) {
+        long stamp = lock.readLock();
+        try {
+            return moviesCache.get(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     @Override
@@ -169,72 +798,54 @@ public class MovieServiceImpl implements MovieService, Subject {
     }
 
     @Override
-    public void notifyObservers() {
+    public void notifyObservers(MovieChangeEvent event) {
         for (Observer observer : observers)
-            observer.update();
+            observer.update(event);
     }
 
     @Override
     public void setSortStrategy(SortStrategyType strategyType){
-        if (strategyType == null)
-            strategyType = SortStrategyType.TITLE;
-
-        switch (strategyType){
-            case YEAR:
-                currentSortingStrategy = new SortByYearStrategy();
-                break;
-            case RATING:
-                currentSortingStrategy = new SortByRatingStrategy();
-                break;
-            default:
-                currentSortingStrategy = new SortByTitleStrategy();
-                break;
-        }
-
-        notifyObservers();
+        updateCurrentQuery(query -> query.toBuilder().sortType(strategyType).build());
     }
 
     @Override
     public void setSortDirection(SortDirection sortDirection){
-        currentSortDirection = sortDirection;
-        notifyObservers();
+        updateCurrentQuery(query -> query.toBuilder().sortDirection(sortDirection).build());
     }
 
     @Override
     public void setFilterCategory(Category category) {
-        this.currentFilterCategory = category;
-        notifyObservers();
+        updateCurrentQuery(query -> query.toBuilder().category(category).build());
     }
 
     @Override
     public void setFilterStatus(Status status) {
-        this.currentFilterStatus = status;
-        notifyObservers();
+        updateCurrentQuery(query -> query.toBuilder().status(status).build());
     }
 
     @Override
     public void setFilterRating(Integer rating) {
-        this.currentFilterRating = rating;
-        notifyObservers();
+        updateCurrentQuery(query -> query.toBuilder().rating(rating).build());
     }
 
     @Override
     public void resetFiltersAndSort() {
-        this.currentFilterCategory = null;
-        this.currentFilterStatus = null;
-        this.currentFilterRating = null;
-
-        this.currentSearchQuery = null;
-
-        this.currentSortingStrategy = new SortByTitleStrategy();
-        this.currentSortDirection = SortDirection.ASCENDING;
-
-        notifyObservers();
+        updateCurrentQuery(query -> MovieQuery.ALL);
     }
 
     @Override
     public void setSearchQuery(String query) {
-        this.currentSearchQuery = (query == null || query.trim().isEmpty()) ? null : query.trim();
-        notifyObservers();
+        updateCurrentQuery(current -> current.toBuilder().search(query).build());
+    }
+
+    @Override
+    public void setCurrentQuery(MovieQuery query) {
+        updateCurrentQuery(current -> query);
+    }
+
+    /** Swaps the session query and lets observers re-query. */
+    private void updateCurrentQuery(UnaryOperator<MovieQuery> change) {
+        currentQuery.updateAndGet(change);
+        notifyObservers(MovieChangeEvent.queryChanged());
     }
 }
@@ -0,0 +1,220 @@
+package com.zhou.movies.service.index;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+
+import java.util.*;
+
+/**
+ * Column-oriented row store with primitive columns.
+ *
+ * Responsibility:
+ * Keeps every field in its own primitive array: year as int, rating as byte,
+ * category and status as byte ordinals, title and director as codes into a shared
+ * dictionary-encoded StringPool, and UUID IDs as two longs found through an
+ * open-addressing hash index. Scans and sort comparisons read the columns directly;
+ * a Movie object is materialized only for rows that are actually returned.
+ * IDs that are not canonical UUIDs fall back to a side map.
+ */
+public class ColumnarRowStore implements RowStore {
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private static final int NO_STRING = -1;   // string column value for null
+    private static final byte NO_ENUM = -1;    // enum column value for null
+
+    private int slotCount = 0;
+    private final BitSet live = new BitSet();
+
+    private long[] idHigh = new long[16];
+    private long[] idLow = new long[16];
+    private int[] years = new int[16];
+    private byte[] ratings = new byte[16];
+    private byte[] categories = new byte[16];
+    private byte[] statuses = new byte[16];
+    private int[] titles = new int[16];
+    private int[] directors = new int[16];
+
+    private StringPool strings = new StringPool();
+
+    // UUID ID -> slot, reading the ID columns
+    private final UuidSlotIndex idIndex = new UuidSlotIndex(slot -> idHigh[slot], slot -> idLow[slot]);
+
+    // IDs that are not canonical UUIDs
+    private final Map<String, Integer> otherIds = new HashMap<>();
+    private final Map<Integer, String> otherIdsBySlot = new HashMap<>();
+
+    @Override
+    public int append(Movie movie) {
+        int slot = slotCount++;
+        ensureCapacity(slotCount);
+        live.set(slot);
+        writeRow(slot, movie);
+
+        long[] bits = new long[2];
+        if (UuidSlotIndex.parseCanonical(movie.getId(), bits)) {
+            idHigh[slot] = bits[0];
+            idLow[slot] = bits[1];
+            idIndex.insert(slot);
+        } else {
+            otherIds.put(movie.getId(), slot);
+            otherIdsBySlot.put(slot, movie.getId());
+        }
+        return slot;
+    }
+
+    @Override
+    public void set(int slot, Movie movie) {
+        writeRow(slot, movie); // same ID, so the ID columns stay valid
+    }
+
+    @Override
+    public void delete(int slot) {
+        String otherId = otherIdsBySlot.remove(slot);
+        if (otherId != null) {
+            otherIds.remove(otherId);
+        } else {
+            idIndex.remove(slot);
+        }
+        live.clear(slot);
+    }
+
+    @Override
+    public void reset() {
+        slotCount = 0;
+        live.clear();
+        strings = new StringPool();
+        idIndex.clear();
+        otherIds.clear();
+        otherIdsBySlot.clear();
+    }
+
+    /** Moves the columns down in place and re-interns the strings of live rows into a new pool. */
+    @Override
+    public void compact() {
+        StringPool compacted = new StringPool();
+        int[] recoded = new int[strings.size()]; // old code -> new code + 1 (0 = not copied yet)
+        idIndex.clear();
+
+        int to = 0;
+        for (int from = live.nextSetBit(0); from >= 0 && from < slotCount; from = live.nextSetBit(from + 1)) {
+            idHigh[to] = idHigh[from];
+            idLow[to] = idLow[from];
+            years[to] = years[from];
+            ratings[to] = ratings[from];
+            categories[to] = categories[from];
+            statuses[to] = statuses[from];
+            titles[to] = recode(titles[from], compacted, recoded);
+            directors[to] = recode(directors[from], compacted, recoded);
+
+            // Keys below 'from' were already moved or deleted, so 'to' is free in the map
+            String otherId = otherIdsBySlot.remove(from);
+            if (otherId != null) {
+                otherIds.put(otherId, to);
+                otherIdsBySlot.put(to, otherId);
+            } else {
+                idIndex.insert(to);
+            }
+            to++;
+        }
+
+        slotCount = to;
+        live.clear();
+        live.set(0, to);
+        strings = compacted;
+    }
+
+    private int recode(int code, StringPool target, int[] recoded) {
+        if (code == NO_STRING) return NO_STRING;
+        if (recoded[code] == 0) recoded[code] = target.intern(strings.get(code)) + 1;
+        return recoded[code] - 1;
+    }
+
+    @Override
+    public int slotCount() {
+        return slotCount;
+    }
+
+    @Override
+    public int slotOf(String id) {
+        long[] bits = new long[2];
+        if (!UuidSlotIndex.parseCanonical(id, bits)) {
+            return otherIds.getOrDefault(id, -1);
+        }
+        return idIndex.find(bits[0], bits[1]);
+    }
+
+    @Override
+    public Movie get(int slot) {
+        if (!live.get(slot)) return null;
+        return new Movie.Builder(id(slot), title(slot), director(slot))
+                .year(years[slot])
+                .rating(ratings[slot])
+                .category(category(slot))
+                .status(status(slot))
+                .build();
+    }
+
+    @Override
+    public String id(int slot) {
+        String otherId = otherIdsBySlot.get(slot);
+        return otherId != null ? otherId : new UUID(idHigh[slot], idLow[slot]).toString();
+    }
+
+    @Override public String title(int slot) { return decode(titles[slot]); }
+    @Override public String director(int slot) { return decode(directors[slot]); }
+    @Override public int year(int slot) { return years[slot]; }
+    @Override public int rating(int slot) { return ratings[slot]; }
+    @Override public Category category(int slot) { return categories[slot] == NO_ENUM ? null : CATEGORIES[categories[slot]]; }
+    @Override public Status status(int slot) { return statuses[slot] == NO_ENUM ? null : STATUSES[statuses[slot]]; }
+
+    @Override
+    public int compareTitlesIgnoreCase(int slotA, int slotB) {
+        int a = titles[slotA];
+        int b = titles[slotB];
+        if (a == NO_STRING || b == NO_STRING) return Boolean.compare(a != NO_STRING, b != NO_STRING);
+        return strings.compareIgnoreCase(a, b);
+    }
+
+    @Override
+    public boolean containsIgnoreCase(int slot, String queryLower) {
+        return pooledContains(titles[slot], queryLower) || pooledContains(directors[slot], queryLower);
+    }
+
+    private boolean pooledContains(int code, String queryLower) {
+        return code == NO_STRING ? queryLower.isEmpty() : strings.containsIgnoreCase(code, queryLower);
+    }
+
+    /** Distinct titles and directors held by the string pool. */
+    public int distinctStrings() {
+        return strings.size();
+    }
+
+    private void writeRow(int slot, Movie movie) {
+        years[slot] = movie.getYear();
+        ratings[slot] = (byte) movie.getRating();
+        categories[slot] = movie.getCategory() == null ? NO_ENUM : (byte) movie.getCategory().ordinal();
+        statuses[slot] = movie.getStatus() == null ? NO_ENUM : (byte) movie.getStatus().ordinal();
+        titles[slot] = movie.getTitle() == null ? NO_STRING : strings.intern(movie.getTitle());
+        directors[slot] = movie.getDirector() == null ? NO_STRING : strings.intern(movie.getDirector());
+    }
+
+    private String decode(int code) {
+        return code == NO_STRING ? null : strings.get(code);
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= years.length) return;
+        int capacity = Math.max(size, years.length * 2);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        years = Arrays.copyOf(years, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        directors = Arrays.copyOf(directors, capacity);
+    }
+}
@@ -0,0 +1,222 @@
+package com.zhou.movies.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted, duplicate-free list of row slots stored as delta-encoded blocks.
+ *
+ * Responsibility:
+ * Splits the list into blocks of at most {@value #BLOCK_CAPACITY} slots. Each block
+ * keeps its first and last slot as ints and the gaps between consecutive slots as
+ * variable-length bytes, so a dense list costs one to two bytes per slot instead of
+ * four. New slots are normally the largest ones, so adds are usually appends to the
+ * last block; any other change re-encodes the one block it falls into. Reads go
+ * through a {@link Cursor}, which skips whole blocks by their bounds.
+ */
+public class IntPostingList {
+
+    private static final int BLOCK_CAPACITY = 128;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private int size = 0;
+
+    public void add(int slot) {
+        Block last = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        if (last == null || last.last < slot) {
+            if (last != null && last.count < BLOCK_CAPACITY) {
+                last.append(slot);
+            } else {
+                if (last != null) last.trim();
+                blocks.add(new Block(slot));
+            }
+            size++;
+            return;
+        }
+
+        int index = blockFor(slot);
+        Block block = blocks.get(index);
+        int[] slots = block.decode();
+        int position = Arrays.binarySearch(slots, slot);
+        if (position >= 0) return; // already present
+        position = -position - 1;
+
+        int[] grown = new int[slots.length + 1];
+        System.arraycopy(slots, 0, grown, 0, position);
+        grown[position] = slot;
+        System.arraycopy(slots, position, grown, position + 1, slots.length - position);
+        if (grown.length > BLOCK_CAPACITY) {
+            int half = grown.length / 2;
+            blocks.set(index, Block.encode(grown, 0, half));
+            blocks.add(index + 1, Block.encode(grown, half, grown.length));
+        } else {
+            blocks.set(index, Block.encode(grown, 0, grown.length));
+        }
+        size++;
+    }
+
+    public void remove(int slot) {
+        if (blocks.isEmpty()) return;
+        int index = blockFor(slot);
+        Block block = blocks.get(index);
+        if (slot < block.first || slot > block.last) return;
+
+        int[] slots = block.decode();
+        int position = Arrays.binarySearch(slots, slot);
+        if (position < 0) return;
+
+        if (slots.length == 1) {
+            blocks.remove(index);
+        } else {
+            int[] shrunk = new int[slots.length - 1];
+            System.arraycopy(slots, 0, shrunk, 0, position);
+            System.arraycopy(slots, position + 1, shrunk, position, shrunk.length - position);
+            blocks.set(index, Block.encode(shrunk, 0, shrunk.length));
+        }
+        size--;
+    }
+
+    public boolean contains(int slot) {
+        return !blocks.isEmpty() && new Cursor().seek(slot) == slot;
+    }
+
+    /** Number of slots in [fromSlot, toSlot); only the blocks on the range's edges are decoded. */
+    public int count(int fromSlot, int toSlot) {
+        int count = 0;
+        for (int i = blockFor(fromSlot); i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (block.first >= toSlot) break;
+            if (block.first >= fromSlot && block.last < toSlot) {
+                count += block.count;
+                continue;
+            }
+            for (int slot : block.decode()) {
+                if (slot >= fromSlot && slot < toSlot) count++;
+            }
+        }
+        return count;
+    }
+
+    /** A cursor positioned before the first slot; it is invalidated by any change to the list. */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Index of the first block whose last slot is not smaller than the given one, else the last block. */
+    private int blockFor(int slot) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle).last < slot) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Forward-only reader over the slots. Seeking to ever larger targets, as an
+     * intersection of sorted lists does, decodes each block at most once.
+     */
+    public final class Cursor {
+        private int block = -1;
+        private int offset; // next gap byte in the current block
+        private int current = -1;
+
+        private Cursor() {
+        }
+
+        /** The smallest slot not smaller than the target, or -1 if there is none. */
+        public int seek(int target) {
+            if (block == blocks.size()) return -1;
+            if (current >= target) return current;
+            if (block < 0 || target > blocks.get(block).last) {
+                int next = blockFor(target);
+                if (next >= blocks.size() || blocks.get(next).last < target) {
+                    block = blocks.size(); // exhausted
+                    return -1;
+                }
+                block = next;
+                offset = 0;
+                current = blocks.get(block).first;
+            }
+
+            Block entered = blocks.get(block);
+            while (current < target) {
+                int gap = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = entered.gaps[offset++];
+                    gap |= (b & 0x7F) << shift;
+                    if (b >= 0) break;
+                }
+                current += gap;
+            }
+            return current;
+        }
+    }
+
+    /** Up to {@value #BLOCK_CAPACITY} ascending slots: the first as an int, the rest as varint gaps. */
+    private static final class Block {
+        private final int first;
+        private int last;
+        private int count;
+        private byte[] gaps;
+        private int length;
+
+        private Block(int first) {
+            this.first = first;
+            this.last = first;
+            this.count = 1;
+            this.gaps = new byte[8];
+        }
+
+        static Block encode(int[] slots, int from, int to) {
+            Block block = new Block(slots[from]);
+            for (int i = from + 1; i < to; i++) block.append(slots[i]);
+            block.trim();
+            return block;
+        }
+
+        void append(int slot) {
+            int gap = slot - last;
+            if (gaps.length - length < 5) gaps = Arrays.copyOf(gaps, gaps.length + Math.max(gaps.length / 2, 5));
+            while ((gap & ~0x7F) != 0) {
+                gaps[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            gaps[length++] = (byte) gap;
+            last = slot;
+            count++;
+        }
+
+        int[] decode() {
+            int[] slots = new int[count];
+            slots[0] = first;
+            int offset = 0;
+            for (int i = 1; i < count; i++) {
+                int gap = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = gaps[offset++];
+                    gap |= (b & 0x7F) << shift;
+                    if (b >= 0) break;
+                }
+                slots[i] = slots[i - 1] + gap;
+            }
+            return slots;
+        }
+
+        /** Drops the spare capacity once the block is no longer appended to. */
+        void trim() {
+            if (gaps.length != length) gaps = Arrays.copyOf(gaps, length);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.zhou.movies.service.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of memory-mapped pages of one file.
+ *
+ * Responsibility:
+ * Maps fixed-size pages of the file on demand (read-write, so touching a page past the
+ * end grows the file) and keeps at most a given number of them mapped. The least recently
+ * used page is unmapped as soon as another one is needed, rather than whenever the GC
+ * gets around to its buffer, so random access over a large file cannot pile up mappings.
+ * Buffers never leave this class: every access is a synchronized absolute read or write,
+ * which is what makes the eager unmapping safe with concurrent readers.
+ * Single values must not straddle pages; byte ranges may, and are copied piece by piece.
+ */
+public class MappedPageCache implements Closeable {
+
+    // Unmaps a buffer immediately where the JDK allows it (null: leave it to the GC)
+    private static final Unmapper UNMAPPER = Unmapper.find();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int pageSize;
+    private final int maxResidentPages;
+    private final Map<Long, MappedByteBuffer> pages = new LinkedHashMap<>(16, 0.75f, true);
+
+    public MappedPageCache(Path file, int pageSize, int maxResidentPages) {
+        this.file = file;
+        this.pageSize = pageSize;
+        this.maxResidentPages = maxResidentPages;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open paged file: " + file, e);
+        }
+    }
+
+    public synchronized byte getByte(long position) { return page(position).get(offset(position)); }
+    public synchronized int getInt(long position) { return page(position).getInt(offset(position)); }
+    public synchronized long getLong(long position) { return page(position).getLong(offset(position)); }
+
+    public synchronized void putByte(long position, byte value) { page(position).put(offset(position), value); }
+    public synchronized void putInt(long position, int value) { page(position).putInt(offset(position), value); }
+    public synchronized void putLong(long position, long value) { page(position).putLong(offset(position), value); }
+
+    public synchronized void read(long position, byte[] target, int offset, int length) {
+        while (length > 0) {
+            int chunk = Math.min(length, pageSize - offset(position));
+            page(position).get(offset(position), target, offset, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    public synchronized void write(long position, byte[] source, int offset, int length) {
+        while (length > 0) {
+            int chunk = Math.min(length, pageSize - offset(position));
+            page(position).put(offset(position), source, offset, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /** Forces the page holding the position to disk. */
+    public synchronized void force(long position) {
+        page(position).force();
+    }
+
+    /** Number of pages currently mapped. */
+    public synchronized int residentPages() {
+        return pages.size();
+    }
+
+    /** Unmaps every page and empties the file. */
+    public synchronized void truncate() {
+        unmapAll();
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to truncate paged file: " + file, e);
+        }
+    }
+
+    /** Writes dirty pages to disk, including pages already evicted from the cache. */
+    public synchronized void force() {
+        for (MappedByteBuffer page : pages.values()) page.force();
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to flush paged file: " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        unmapAll();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close paged file: " + file, e);
+        }
+    }
+
+    private int offset(long position) {
+        return (int) (position % pageSize);
+    }
+
+    private MappedByteBuffer page(long position) {
+        long pageIndex = position / pageSize;
+        MappedByteBuffer page = pages.get(pageIndex);
+        if (page != null) return page;
+
+        if (pages.size() >= maxResidentPages) {
+            Iterator<MappedByteBuffer> eldest = pages.values().iterator();
+            unmap(eldest.next());
+            eldest.remove();
+        }
+        try {
+            page = channel.map(FileChannel.MapMode.READ_WRITE, pageIndex * pageSize, pageSize);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map page " + pageIndex + " of " + file, e);
+        }
+        pages.put(pageIndex, page);
+        return page;
+    }
+
+    private void unmapAll() {
+        for (MappedByteBuffer page : pages.values()) unmap(page);
+        pages.clear();
+    }
+
+    /** Dirty data stays in the OS page cache, so unmapping never loses writes. */
+    private static void unmap(MappedByteBuffer page) {
+        if (UNMAPPER != null) UNMAPPER.unmap(page);
+    }
+
+    /** Access to Unsafe.invokeCleaner, the JDK's only way to release a mapping before GC. */
+    private record Unmapper(Object unsafe, Method invokeCleaner) {
+
+        static Unmapper find() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return new Unmapper(theUnsafe.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.out.println("Mapped pages will be released by the GC: " + e.getMessage());
+                return null;
+            }
+        }
+
+        void unmap(MappedByteBuffer page) {
+            try {
+                invokeCleaner.invoke(unsafe, page);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Failed to unmap page", e);
+            }
+        }
+    }
+}
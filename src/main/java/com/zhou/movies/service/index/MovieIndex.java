@@ -0,0 +1,288 @@
+package com.zhou.movies.service.index;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import com.zhou.movies.service.strategy.SortingStrategy;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Indexed in-memory movie collection.
+ *
+ * Responsibility:
+ * Stores movies in insertion-ordered row slots of a RowStore (which also resolves
+ * IDs to slots), and maintains secondary indexes (category, status, rating -> bitset of slots)
+ * plus a trigram search index and one sorted view per sort strategy, all updated
+ * incrementally on add, replace and remove.
+ * Combined filters are answered by bitset intersection instead of a full scan,
+ * and results are read off a sorted view instead of being re-sorted.
+ */
+public class MovieIndex {
+
+    // Deleted slots are compacted away once they outnumber live rows (and exceed this floor)
+    private static final int COMPACTION_MIN_DELETED = 1024;
+
+    private final RowStore rows;
+    private BitSet live = new BitSet();
+    private int liveCount = 0;
+
+    private final Map<Category, BitSet> byCategory = new EnumMap<>(Category.class);
+    private final Map<Status, BitSet> byStatus = new EnumMap<>(Status.class);
+    private final Map<Integer, BitSet> byRating = new HashMap<>();
+    private final SearchIndex searchIndex;
+    private final Map<SortStrategyType, SortedView> sortedViews = new EnumMap<>(SortStrategyType.class);
+
+    private int deletedCount = 0;
+    private int compactions = 0;
+
+    public MovieIndex() {
+        this(new ObjectRowStore());
+    }
+
+    public MovieIndex(Collection<Movie> movies) {
+        this(new ObjectRowStore(), movies);
+    }
+
+    /**
+     * @param rows store that will hold the rows; rows it already holds (e.g. a reopened
+     *             PagedRowStore) are indexed in their slots
+     */
+    public MovieIndex(RowStore rows) {
+        this.rows = rows;
+        this.searchIndex = new SearchIndex(rows);
+        for (int slot = 0; slot < rows.slotCount(); slot++) {
+            Movie movie = rows.get(slot);
+            if (movie == null) {
+                deletedCount++;
+                continue;
+            }
+            live.set(slot);
+            liveCount++;
+            indexRow(slot, movie);
+            searchIndex.put(slot);
+        }
+    }
+
+    public MovieIndex(RowStore rows, Collection<Movie> movies) {
+        this(rows);
+        for (Movie movie : movies) add(movie);
+    }
+
+    /** Appends a new movie, or replaces it in place if the ID is already indexed. */
+    public void add(Movie movie) {
+        if (replace(movie)) return;
+
+        int slot = rows.append(movie);
+        live.set(slot);
+        liveCount++;
+        indexRow(slot, movie);
+        searchIndex.put(slot);
+        for (SortedView view : sortedViews.values()) view.add(slot);
+    }
+
+    /**
+     * Replaces the movie with the same ID, keeping its slot (and therefore its order).
+     * @return false if no movie with that ID exists
+     */
+    public boolean replace(Movie movie) {
+        int slot = rows.slotOf(movie.getId());
+        if (slot < 0) return false;
+
+        // Views and the search index must see the old movie while removing its slot
+        boolean searchFieldsChanged = !Objects.equals(rows.title(slot), movie.getTitle())
+                || !Objects.equals(rows.director(slot), movie.getDirector());
+        for (SortedView view : sortedViews.values()) view.remove(slot);
+        unindexRow(slot);
+        if (searchFieldsChanged) searchIndex.remove(slot);
+        rows.set(slot, movie);
+        indexRow(slot, movie);
+        if (searchFieldsChanged) searchIndex.put(slot);
+        for (SortedView view : sortedViews.values()) view.add(slot);
+        return true;
+    }
+
+    /** @return the removed movie, or null if the ID was unknown */
+    public Movie remove(String id) {
+        int slot = rows.slotOf(id);
+        if (slot < 0) return null;
+
+        Movie removed = rows.get(slot);
+        for (SortedView view : sortedViews.values()) view.remove(slot);
+        unindexRow(slot);
+        searchIndex.remove(slot);
+        rows.delete(slot);
+        live.clear(slot);
+        liveCount--;
+        deletedCount++;
+
+        compactIfNeeded();
+        return removed;
+    }
+
+    public Movie get(String id) {
+        int slot = rows.slotOf(id);
+        return slot < 0 ? null : rows.get(slot);
+    }
+
+    /** Slot of the movie with the given ID, or -1. */
+    public int slotOf(String id) {
+        return rows.slotOf(id);
+    }
+
+    public boolean contains(String id) {
+        return rows.slotOf(id) >= 0;
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    /** Number of compactions so far; slots taken before a compaction no longer name the same rows. */
+    public int compactionCount() {
+        return compactions;
+    }
+
+    /** Movie stored in the given slot, or null if the slot was deleted. */
+    public Movie row(int slot) {
+        return rows.get(slot);
+    }
+
+    /** All live movies in insertion order. */
+    public List<Movie> movies() {
+        List<Movie> movies = new ArrayList<>(size());
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            movies.add(rows.get(slot));
+        }
+        return movies;
+    }
+
+    /**
+     * Slots matching all given filters; a null filter matches everything.
+     * The returned bitset is a fresh copy owned by the caller.
+     */
+    public BitSet select(Category category, Status status, Integer rating) {
+        BitSet result = (BitSet) live.clone();
+        if (category != null) result.and(byCategory.getOrDefault(category, new BitSet()));
+        if (status != null) result.and(byStatus.getOrDefault(status, new BitSet()));
+        if (rating != null) result.and(byRating.getOrDefault(rating, new BitSet()));
+        return result;
+    }
+
+    /**
+     * Slots among {@code candidates} whose title or director contains the query.
+     * @param queryLower query already lowercased
+     */
+    public BitSet search(String queryLower, BitSet candidates) {
+        return searchIndex.search(queryLower, candidates);
+    }
+
+    /** Same as {@link #search(String, BitSet)}, restricted to slots in [fromSlot, toSlot). */
+    public BitSet search(String queryLower, BitSet candidates, int fromSlot, int toSlot) {
+        return searchIndex.search(queryLower, candidates, fromSlot, toSlot);
+    }
+
+    /**
+     * Parallel version of {@link #search(String, BitSet)}: the slot range is split into
+     * chunks that are searched as separate tasks of the given pool, then merged.
+     * The index must not change while the tasks run.
+     */
+    public BitSet search(String queryLower, BitSet candidates, ForkJoinPool pool, int chunkSize) {
+        return search(queryLower, candidates, pool, chunkSize, () -> {});
+    }
+
+    /**
+     * Same as {@link #search(String, BitSet, ForkJoinPool, int)}, running the checkpoint
+     * before every chunk. A checkpoint that throws abandons the search: chunks not yet
+     * started are cancelled and the exception is rethrown to the caller.
+     */
+    public BitSet search(String queryLower, BitSet candidates, ForkJoinPool pool, int chunkSize, Runnable checkpoint) {
+        int slotCount = candidates.length();
+        List<ForkJoinTask<BitSet>> chunks = new ArrayList<>();
+        for (int from = 0; from < slotCount; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = (int) Math.min((long) from + chunkSize, slotCount);
+            chunks.add(pool.submit(() -> {
+                checkpoint.run();
+                return searchIndex.search(queryLower, candidates, chunkFrom, chunkTo);
+            }));
+        }
+
+        BitSet result = new BitSet(slotCount);
+        try {
+            for (ForkJoinTask<BitSet> chunk : chunks) result.or(chunk.join());
+        } catch (RuntimeException e) {
+            for (ForkJoinTask<BitSet> chunk : chunks) chunk.cancel(false);
+            throw e;
+        }
+        return result;
+    }
+
+    /** Number of slots including deleted ones, i.e. the upper bound of every slot. */
+    public int slotCount() {
+        return rows.slotCount();
+    }
+
+    /**
+     * Sorted view for the given strategy, built on first use and maintained afterwards.
+     */
+    public SortedView sortedView(SortStrategyType type, SortingStrategy strategy) {
+        SortedView view = sortedViews.get(type);
+        if (view == null) {
+            view = new SortedView(strategy.slotComparator(rows));
+            view.addAll(live.stream().toArray());
+            sortedViews.put(type, view);
+        }
+        return view;
+    }
+
+    private void indexRow(int slot, Movie movie) {
+        indexRow(slot, movie.getCategory(), movie.getStatus(), movie.getRating());
+    }
+
+    private void indexRow(int slot, Category category, Status status, int rating) {
+        if (category != null) byCategory.computeIfAbsent(category, c -> new BitSet()).set(slot);
+        if (status != null) byStatus.computeIfAbsent(status, s -> new BitSet()).set(slot);
+        byRating.computeIfAbsent(rating, r -> new BitSet()).set(slot);
+    }
+
+    /** Reads the old values from the store's columns, before the row changes. */
+    private void unindexRow(int slot) {
+        Category category = rows.category(slot);
+        Status status = rows.status(slot);
+        if (category != null) byCategory.get(category).clear(slot);
+        if (status != null) byStatus.get(status).clear(slot);
+        byRating.get(rows.rating(slot)).clear(slot);
+    }
+
+    /**
+     * Closes the holes of deleted slots once deletions dominate.
+     * The store moves its live rows down one at a time, keeping their relative order;
+     * the indexes are then rebuilt from the compacted slots, reading one row at a time.
+     */
+    private void compactIfNeeded() {
+        if (deletedCount < COMPACTION_MIN_DELETED || deletedCount < liveCount) return;
+
+        rows.compact();
+        live = new BitSet(liveCount);
+        live.set(0, liveCount);
+        byCategory.clear();
+        byStatus.clear();
+        byRating.clear();
+        searchIndex.clear();
+        for (int slot = 0; slot < liveCount; slot++) {
+            indexRow(slot, rows.category(slot), rows.status(slot), rows.rating(slot));
+            searchIndex.put(slot);
+        }
+        int[] slots = live.stream().toArray();
+        for (SortedView view : sortedViews.values()) {
+            view.clear();
+            view.addAll(slots);
+        }
+        deletedCount = 0;
+        compactions++;
+    }
+}
@@ -0,0 +1,94 @@
+package com.zhou.movies.service.index;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+
+import java.util.*;
+
+/**
+ * Row store keeping one Movie object per slot.
+ *
+ * Responsibility:
+ * The default store: rows are the Movie instances themselves, so reads return
+ * the very objects that were stored, at the cost of a full object graph per movie.
+ */
+public class ObjectRowStore implements RowStore {
+
+    private static final Comparator<String> TITLE_ORDER = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+
+    private final List<Movie> rows = new ArrayList<>();     // slot -> movie, null when deleted
+    private final Map<String, Integer> slotById = new HashMap<>();
+
+    @Override
+    public int append(Movie movie) {
+        int slot = rows.size();
+        rows.add(movie);
+        slotById.put(movie.getId(), slot);
+        return slot;
+    }
+
+    @Override
+    public void set(int slot, Movie movie) {
+        rows.set(slot, movie);
+    }
+
+    @Override
+    public void delete(int slot) {
+        slotById.remove(rows.get(slot).getId());
+        rows.set(slot, null);
+    }
+
+    @Override
+    public void reset() {
+        rows.clear();
+        slotById.clear();
+    }
+
+    @Override
+    public void compact() {
+        int to = 0;
+        for (int from = 0; from < rows.size(); from++) {
+            Movie movie = rows.get(from);
+            if (movie == null) continue;
+            rows.set(to, movie);
+            slotById.put(movie.getId(), to++);
+        }
+        rows.subList(to, rows.size()).clear();
+    }
+
+    @Override
+    public int slotCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int slotOf(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    @Override
+    public Movie get(int slot) {
+        return rows.get(slot);
+    }
+
+    @Override public String id(int slot) { return rows.get(slot).getId(); }
+    @Override public String title(int slot) { return rows.get(slot).getTitle(); }
+    @Override public String director(int slot) { return rows.get(slot).getDirector(); }
+    @Override public int year(int slot) { return rows.get(slot).getYear(); }
+    @Override public int rating(int slot) { return rows.get(slot).getRating(); }
+    @Override public Category category(int slot) { return rows.get(slot).getCategory(); }
+    @Override public Status status(int slot) { return rows.get(slot).getStatus(); }
+
+    @Override
+    public int compareTitlesIgnoreCase(int slotA, int slotB) {
+        return TITLE_ORDER.compare(title(slotA), title(slotB));
+    }
+
+    @Override
+    public boolean containsIgnoreCase(int slot, String queryLower) {
+        Movie movie = rows.get(slot);
+        return TextMatch.contains(movie.getTitle(), queryLower) || TextMatch.contains(movie.getDirector(), queryLower);
+    }
+}
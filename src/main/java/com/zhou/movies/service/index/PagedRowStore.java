@@ -0,0 +1,401 @@
+package com.zhou.movies.service.index;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Row store kept in memory-mapped files instead of on the heap.
+ *
+ * Responsibility:
+ * Stores each row as a fixed-width record in a record file (ID as two longs, offsets of
+ * title and director into a string heap file, year, rating, enum ordinals) and every
+ * string as a length-prefixed UTF-8 entry of the string heap file. Both files are read
+ * and written through MappedPageCaches, so only the most recently used pages are mapped.
+ * The store itself keeps one heap structure per row, the int-per-row UUID index (about
+ * nine bytes a row with its hash slack). The MovieIndex over it still keeps its own
+ * per-row structures on the heap: the bitset indexes, the delta-encoded trigram postings
+ * and one int-block sorted view per strategy, together 80 to 100 bytes a movie (see
+ * RowStoreFootprint). The heap therefore still bounds the library, at several times the
+ * size an on-heap store allows.
+ *
+ * The files survive a restart: {@link #close()} marks them clean, and reopening clean
+ * files keeps their rows, so a MovieIndex can be built without loading the repository.
+ * Files that were not closed cleanly are discarded on open and refilled by the owner.
+ */
+public class PagedRowStore implements RowStore, Closeable {
+
+    public static final int DEFAULT_MAX_RESIDENT_PAGES = 256;
+
+    static final String ROWS_FILE = "movies.rows";
+    static final String STRINGS_FILE = "movies.strings";
+    static final String COMPACT_STRINGS_FILE = "movies.strings.compact";
+
+    private static final int MAGIC = 0x4D4F5652;   // "MOVR"
+    private static final int FORMAT_VERSION = 1;
+
+    // Record layout; the header occupies the first record
+    private static final int RECORD_BYTES = 48;
+    private static final int RECORDS_PER_PAGE = 1024;
+    private static final int FLAGS = 0;            // byte: LIVE | OTHER_ID
+    private static final int CATEGORY = 1;         // byte ordinal, NO_ENUM for null
+    private static final int STATUS = 2;           // byte ordinal, NO_ENUM for null
+    private static final int YEAR = 4;             // int
+    private static final int ID_HIGH = 8;          // long; heap offset of the ID if OTHER_ID
+    private static final int ID_LOW = 16;          // long
+    private static final int TITLE = 24;           // long heap offset, NO_STRING for null
+    private static final int DIRECTOR = 32;        // long heap offset, NO_STRING for null
+    private static final int RATING = 40;          // int
+
+    private static final byte LIVE = 1;
+    private static final byte OTHER_ID = 2;
+
+    // Header fields
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SLOT_COUNT = 8;
+    private static final int HEADER_CLEAN = 12;
+    private static final int HEADER_HEAP_END = 16;
+
+    private static final int STRING_PAGE_BYTES = 64 * 1024;
+    private static final long NO_STRING = -1;
+    private static final byte NO_ENUM = -1;
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Path directory;
+    private final int maxResidentPages;
+    private final MappedPageCache records;
+    private MappedPageCache heap;               // replaced by compact()
+
+    private int slotCount = 0;
+    private long heapEnd = 0;
+    private boolean clean = false;
+
+    private final UuidSlotIndex idIndex = new UuidSlotIndex(slot -> idBits(slot, ID_HIGH), slot -> idBits(slot, ID_LOW));
+    // IDs that are not canonical UUIDs
+    private final Map<String, Integer> otherIds = new HashMap<>();
+
+    public PagedRowStore(Path directory) {
+        this(directory, DEFAULT_MAX_RESIDENT_PAGES);
+    }
+
+    /**
+     * Opens the store files in the directory, creating them if needed.
+     * @param maxResidentPages pages kept mapped per file; bounds the resident memory
+     *                         to about maxResidentPages * 112 KB
+     */
+    public PagedRowStore(Path directory, int maxResidentPages) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize paged store: " + directory, e);
+        }
+        this.directory = directory;
+        this.maxResidentPages = maxResidentPages;
+        this.records = new MappedPageCache(directory.resolve(ROWS_FILE), RECORD_BYTES * RECORDS_PER_PAGE, maxResidentPages);
+        this.heap = new MappedPageCache(directory.resolve(STRINGS_FILE), STRING_PAGE_BYTES, maxResidentPages);
+        open();
+    }
+
+    /** Adopts clean files, otherwise starts empty. */
+    private void open() {
+        if (records.getInt(HEADER_MAGIC) == MAGIC && records.getInt(HEADER_VERSION) == FORMAT_VERSION
+                && records.getByte(HEADER_CLEAN) == 1) {
+            slotCount = records.getInt(HEADER_SLOT_COUNT);
+            heapEnd = records.getLong(HEADER_HEAP_END);
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (isLive(slot)) indexId(slot);
+            }
+            clean = true;
+        } else {
+            reset();
+        }
+    }
+
+    @Override
+    public int append(Movie movie) {
+        markDirty();
+        int slot = slotCount++;
+
+        long[] bits = new long[2];
+        if (UuidSlotIndex.parseCanonical(movie.getId(), bits)) {
+            records.putByte(at(slot, FLAGS), LIVE);
+            records.putLong(at(slot, ID_HIGH), bits[0]);
+            records.putLong(at(slot, ID_LOW), bits[1]);
+        } else {
+            records.putByte(at(slot, FLAGS), (byte) (LIVE | OTHER_ID));
+            records.putLong(at(slot, ID_HIGH), writeString(movie.getId()));
+        }
+        records.putLong(at(slot, TITLE), writeString(movie.getTitle()));
+        records.putLong(at(slot, DIRECTOR), writeString(movie.getDirector()));
+        writeFields(slot, movie);
+
+        indexId(slot);
+        writeHeader();
+        return slot;
+    }
+
+    @Override
+    public void set(int slot, Movie movie) {
+        markDirty();
+
+        // Unchanged strings keep their heap entries; changed ones are appended to the heap
+        if (!Objects.equals(title(slot), movie.getTitle())) {
+            records.putLong(at(slot, TITLE), writeString(movie.getTitle()));
+        }
+        if (!Objects.equals(director(slot), movie.getDirector())) {
+            records.putLong(at(slot, DIRECTOR), writeString(movie.getDirector()));
+        }
+        writeFields(slot, movie);
+        writeHeader();
+    }
+
+    @Override
+    public void delete(int slot) {
+        markDirty();
+        if (isOtherId(slot)) {
+            otherIds.remove(id(slot));
+        } else {
+            idIndex.remove(slot);
+        }
+        records.putByte(at(slot, FLAGS), (byte) 0);
+    }
+
+    /** Empties both files. */
+    @Override
+    public void reset() {
+        records.truncate();
+        heap.truncate();
+        slotCount = 0;
+        heapEnd = 0;
+        idIndex.clear();
+        otherIds.clear();
+        clean = false;
+        writeHeader();
+    }
+
+    /**
+     * Moves the live records down in the record file and copies their strings, one at a
+     * time, into a fresh heap file that then replaces the old one, so the heap space of
+     * replaced and deleted rows is reclaimed without holding the rows in memory.
+     * Records past the new slot count stay in the file until they are overwritten.
+     */
+    @Override
+    public void compact() {
+        markDirty(); // a crash before the header is rewritten discards the files on open
+        Path compactFile = directory.resolve(COMPACT_STRINGS_FILE);
+        MappedPageCache target = new MappedPageCache(compactFile, STRING_PAGE_BYTES, maxResidentPages);
+        target.truncate(); // left over from an interrupted compaction
+        long targetEnd = 0;
+
+        byte[] record = new byte[RECORD_BYTES];
+        int to = 0;
+        for (int from = 0; from < slotCount; from++) {
+            if (!isLive(from)) continue;
+            if (from != to) {
+                records.read(at(from, FLAGS), record, 0, RECORD_BYTES);
+                records.write(at(to, FLAGS), record, 0, RECORD_BYTES);
+            }
+            if (isOtherId(to)) targetEnd = moveString(to, ID_HIGH, target, targetEnd);
+            targetEnd = moveString(to, TITLE, target, targetEnd);
+            targetEnd = moveString(to, DIRECTOR, target, targetEnd);
+            to++;
+        }
+
+        target.close();
+        heap.close();
+        Path stringsFile = directory.resolve(STRINGS_FILE);
+        try {
+            Files.move(compactFile, stringsFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to replace string heap: " + stringsFile, e);
+        }
+        heap = new MappedPageCache(stringsFile, STRING_PAGE_BYTES, maxResidentPages);
+
+        slotCount = to;
+        heapEnd = targetEnd;
+        idIndex.clear();
+        otherIds.clear();
+        for (int slot = 0; slot < slotCount; slot++) indexId(slot);
+        writeHeader();
+    }
+
+    @Override
+    public int slotCount() {
+        return slotCount;
+    }
+
+    @Override
+    public int slotOf(String id) {
+        long[] bits = new long[2];
+        if (!UuidSlotIndex.parseCanonical(id, bits)) {
+            return otherIds.getOrDefault(id, -1);
+        }
+        return idIndex.find(bits[0], bits[1]);
+    }
+
+    @Override
+    public Movie get(int slot) {
+        if (!isLive(slot)) return null;
+        return new Movie.Builder(id(slot), title(slot), director(slot))
+                .year(year(slot))
+                .rating(rating(slot))
+                .category(category(slot))
+                .status(status(slot))
+                .build();
+    }
+
+    @Override
+    public String id(int slot) {
+        if (isOtherId(slot)) return readString(idBits(slot, ID_HIGH));
+        return new UUID(idBits(slot, ID_HIGH), idBits(slot, ID_LOW)).toString();
+    }
+
+    @Override public String title(int slot) { return readString(records.getLong(at(slot, TITLE))); }
+    @Override public String director(int slot) { return readString(records.getLong(at(slot, DIRECTOR))); }
+    @Override public int year(int slot) { return records.getInt(at(slot, YEAR)); }
+    @Override public int rating(int slot) { return records.getInt(at(slot, RATING)); }
+    @Override public Category category(int slot) { return toEnum(CATEGORIES, records.getByte(at(slot, CATEGORY))); }
+    @Override public Status status(int slot) { return toEnum(STATUSES, records.getByte(at(slot, STATUS))); }
+
+    @Override
+    public int compareTitlesIgnoreCase(int slotA, int slotB) {
+        String a = title(slotA);
+        String b = title(slotB);
+        if (a == null || b == null) return Boolean.compare(a != null, b != null);
+        return String.CASE_INSENSITIVE_ORDER.compare(a, b);
+    }
+
+    /** Decodes the two strings from the heap file, but compares them without lowercasing. */
+    @Override
+    public boolean containsIgnoreCase(int slot, String queryLower) {
+        return TextMatch.contains(title(slot), queryLower) || TextMatch.contains(director(slot), queryLower);
+    }
+
+    /** Pages currently mapped across both files. */
+    public int residentPages() {
+        return records.residentPages() + heap.residentPages();
+    }
+
+    /** Flushes both files and marks them clean, so the next open keeps the rows. */
+    @Override
+    public void close() {
+        heap.force();
+        records.force();
+        records.putByte(HEADER_CLEAN, (byte) 1);
+        records.close();
+        heap.close();
+    }
+
+    // ------------------------------------------------------------------
+    // Records
+    // ------------------------------------------------------------------
+
+    /** File position of a field of the slot's record (the header comes first). */
+    private static long at(int slot, int field) {
+        return (slot + 1L) * RECORD_BYTES + field;
+    }
+
+    private boolean isLive(int slot) {
+        return (records.getByte(at(slot, FLAGS)) & LIVE) != 0;
+    }
+
+    private boolean isOtherId(int slot) {
+        return (records.getByte(at(slot, FLAGS)) & OTHER_ID) != 0;
+    }
+
+    private long idBits(int slot, int field) {
+        return records.getLong(at(slot, field));
+    }
+
+    private void indexId(int slot) {
+        if (isOtherId(slot)) {
+            otherIds.put(id(slot), slot);
+        } else {
+            idIndex.insert(slot);
+        }
+    }
+
+    private void writeFields(int slot, Movie movie) {
+        records.putByte(at(slot, CATEGORY), movie.getCategory() == null ? NO_ENUM : (byte) movie.getCategory().ordinal());
+        records.putByte(at(slot, STATUS), movie.getStatus() == null ? NO_ENUM : (byte) movie.getStatus().ordinal());
+        records.putInt(at(slot, YEAR), movie.getYear());
+        records.putInt(at(slot, RATING), movie.getRating());
+    }
+
+    private static <E> E toEnum(E[] values, byte ordinal) {
+        return ordinal == NO_ENUM ? null : values[ordinal];
+    }
+
+    /** The first write after opening clean files marks them dirty until the next close. */
+    private void markDirty() {
+        if (clean) {
+            records.putByte(HEADER_CLEAN, (byte) 0);
+            records.force(HEADER_CLEAN); // must be on disk before any change it vouches for
+            clean = false;
+        }
+    }
+
+    private void writeHeader() {
+        records.putInt(HEADER_MAGIC, MAGIC);
+        records.putInt(HEADER_VERSION, FORMAT_VERSION);
+        records.putInt(HEADER_SLOT_COUNT, slotCount);
+        records.putLong(HEADER_HEAP_END, heapEnd);
+    }
+
+    // ------------------------------------------------------------------
+    // String heap
+    // ------------------------------------------------------------------
+
+    /** @return the heap offset of the new entry, or NO_STRING for null */
+    private long writeString(String value) {
+        if (value == null) return NO_STRING;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] length = ByteBuffer.allocate(Integer.BYTES).putInt(0, bytes.length).array();
+
+        long offset = heapEnd;
+        heap.write(offset, length, 0, length.length);
+        heap.write(offset + Integer.BYTES, bytes, 0, bytes.length);
+        heapEnd = offset + Integer.BYTES + bytes.length;
+        return offset;
+    }
+
+    /**
+     * Copies the string the field of the slot points to onto the end of the target heap
+     * and points the field there. @return the new end of the target heap
+     */
+    private long moveString(int slot, int field, MappedPageCache target, long targetEnd) {
+        long offset = records.getLong(at(slot, field));
+        if (offset == NO_STRING) return targetEnd;
+        byte[] length = new byte[Integer.BYTES];
+        heap.read(offset, length, 0, length.length);
+        byte[] bytes = new byte[ByteBuffer.wrap(length).getInt()];
+        heap.read(offset + Integer.BYTES, bytes, 0, bytes.length);
+
+        target.write(targetEnd, length, 0, length.length);
+        target.write(targetEnd + Integer.BYTES, bytes, 0, bytes.length);
+        records.putLong(at(slot, field), targetEnd);
+        return targetEnd + Integer.BYTES + bytes.length;
+    }
+
+    private String readString(long offset) {
+        if (offset == NO_STRING) return null;
+        byte[] length = new byte[Integer.BYTES]; // the length prefix may straddle two pages
+        heap.read(offset, length, 0, length.length);
+
+        byte[] bytes = new byte[ByteBuffer.wrap(length).getInt()];
+        heap.read(offset + Integer.BYTES, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,63 @@
+package com.zhou.movies.service.index;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+
+/**
+ * Storage of movie rows addressed by slot.
+ *
+ * Responsibility:
+ * Holds the movie data behind a MovieIndex, together with the ID -> slot lookup.
+ * Column accessors let indexes and sort orders read single fields without
+ * materializing a Movie; {@link #get(int)} builds the full object only when a row
+ * is actually returned. Slots of deleted rows stay allocated until {@link #compact()}.
+ */
+public interface RowStore {
+
+    /** Stores a movie in a new slot after all existing ones. @return the new slot */
+    int append(Movie movie);
+
+    /** Overwrites the live row in the slot with a movie of the same ID. */
+    void set(int slot, Movie movie);
+
+    /** Deletes the row in the slot; its ID no longer resolves. */
+    void delete(int slot);
+
+    /** Drops every row and slot. */
+    void reset();
+
+    /**
+     * Moves the live rows down into slots 0..n-1, keeping their order, and drops the
+     * deleted slots. Rows are moved one at a time, never loaded all at once; every slot
+     * number taken before the call is invalid afterwards.
+     */
+    void compact();
+
+    /** Number of allocated slots, live or deleted. */
+    int slotCount();
+
+    /** Slot of the live row with the given ID, or -1. */
+    int slotOf(String id);
+
+    /** Movie in the slot, or null if the row was deleted. */
+    Movie get(int slot);
+
+    String id(int slot);
+    String title(int slot);
+    String director(int slot);
+    int year(int slot);
+    int rating(int slot);
+    Category category(int slot);
+    Status status(int slot);
+
+    /** Case-insensitive title order of two live rows (null titles first). */
+    int compareTitlesIgnoreCase(int slotA, int slotB);
+
+    /**
+     * Whether the title or director of the row contains the query, ignoring case.
+     * Runs for every candidate of a search, so it does not lowercase the row's strings.
+     * @param queryLower query already lowercased
+     */
+    boolean containsIgnoreCase(int slot, String queryLower);
+}
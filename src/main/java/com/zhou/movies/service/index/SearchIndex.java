@@ -0,0 +1,136 @@
+package com.zhou.movies.service.index;
+
+import java.util.*;
+
+/**
+ * Trigram inverted index over movie titles and directors.
+ *
+ * Responsibility:
+ * Maps each trigram of the lowercased title and director of every row slot to a
+ * posting list of slots. A substring query is answered by intersecting the posting
+ * lists of its trigrams and verifying the few remaining candidates against the
+ * row store's title and director columns; queries shorter than a trigram fall back
+ * to a scan over those columns, as do candidate sets smaller than the shortest
+ * posting list. No per-row strings are kept: the delta-encoded posting lists are the
+ * only per-row heap structure of the index.
+ */
+public class SearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final RowStore rows;
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+
+    /** @param rows store whose title and director columns are indexed and verified against */
+    public SearchIndex(RowStore rows) {
+        this.rows = rows;
+    }
+
+    /** Indexes the row stored in the given slot; call after the row is stored. */
+    public void put(int slot) {
+        for (long gram : gramsOf(normalize(rows.title(slot)), normalize(rows.director(slot)))) {
+            postings.computeIfAbsent(gram, g -> new IntPostingList()).add(slot);
+        }
+    }
+
+    /** Unindexes the row in the given slot; call while the store still holds it. */
+    public void remove(int slot) {
+        for (long gram : gramsOf(normalize(rows.title(slot)), normalize(rows.director(slot)))) {
+            removePosting(gram, slot);
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Slots among {@code candidates} whose title or director contains the query.
+     * @param queryLower query already lowercased
+     */
+    public BitSet search(String queryLower, BitSet candidates) {
+        return search(queryLower, candidates, 0, candidates.length());
+    }
+
+    /**
+     * Same as {@link #search(String, BitSet)}, restricted to slots in [fromSlot, toSlot).
+     * Disjoint ranges only read shared state, so they can be searched in parallel.
+     */
+    public BitSet search(String queryLower, BitSet candidates, int fromSlot, int toSlot) {
+        if (queryLower.length() < GRAM) return scan(queryLower, candidates, fromSlot, toSlot);
+
+        BitSet result = new BitSet();
+
+        // Posting lists of every query trigram, smallest first
+        List<IntPostingList> lists = new ArrayList<>();
+        for (long gram : gramsOf(queryLower)) {
+            IntPostingList list = postings.get(gram);
+            if (list == null) return result; // some trigram occurs nowhere
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+
+        IntPostingList smallest = lists.get(0);
+        if (cardinality(candidates, fromSlot, toSlot) <= smallest.count(fromSlot, toSlot)) {
+            return scan(queryLower, candidates, fromSlot, toSlot); // e.g. narrowing the previous, shorter query's matches
+        }
+
+        // Walk the smallest list and seek the others to each of its slots
+        IntPostingList.Cursor driver = smallest.cursor();
+        List<IntPostingList.Cursor> others = new ArrayList<>();
+        for (int i = 1; i < lists.size(); i++) others.add(lists.get(i).cursor());
+
+        for (int slot = driver.seek(fromSlot); slot >= 0 && slot < toSlot; slot = driver.seek(slot + 1)) {
+            if (!candidates.get(slot) || !inAll(others, slot)) continue;
+            if (matches(slot, queryLower)) result.set(slot); // trigrams may match across positions
+        }
+        return result;
+    }
+
+    /** Verifies every candidate in [fromSlot, toSlot) against the title and director columns. */
+    private BitSet scan(String queryLower, BitSet candidates, int fromSlot, int toSlot) {
+        BitSet result = new BitSet();
+        for (int slot = candidates.nextSetBit(fromSlot); slot >= 0 && slot < toSlot; slot = candidates.nextSetBit(slot + 1)) {
+            if (matches(slot, queryLower)) result.set(slot);
+        }
+        return result;
+    }
+
+    private static int cardinality(BitSet bits, int fromSlot, int toSlot) {
+        if (fromSlot == 0 && toSlot >= bits.length()) return bits.cardinality();
+        return bits.get(fromSlot, toSlot).cardinality();
+    }
+
+    /** Compares in the store, which neither keeps nor builds lowercased copies of the row's strings. */
+    private boolean matches(int slot, String queryLower) {
+        return rows.containsIgnoreCase(slot, queryLower);
+    }
+
+    private static boolean inAll(List<IntPostingList.Cursor> cursors, int slot) {
+        for (IntPostingList.Cursor cursor : cursors) {
+            if (cursor.seek(slot) != slot) return false;
+        }
+        return true;
+    }
+
+    private void removePosting(long gram, int slot) {
+        IntPostingList list = postings.get(gram);
+        if (list == null) return;
+        list.remove(slot);
+        if (list.isEmpty()) postings.remove(gram);
+    }
+
+    private static Set<Long> gramsOf(String... texts) {
+        Set<Long> grams = new HashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+}
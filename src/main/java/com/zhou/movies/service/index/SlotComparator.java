@@ -0,0 +1,18 @@
+package com.zhou.movies.service.index;
+
+/**
+ * Order of two row slots, compared as primitive ints.
+ *
+ * Responsibility:
+ * The int counterpart of a Comparator over slots, so sorted views and slot sorts
+ * compare rows without boxing every slot into an Integer.
+ */
+@FunctionalInterface
+public interface SlotComparator {
+
+    int compare(int slotA, int slotB);
+
+    default SlotComparator reversed() {
+        return (a, b) -> compare(b, a);
+    }
+}
@@ -0,0 +1,120 @@
+package com.zhou.movies.service.index;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable sorts of row slots held in int arrays.
+ *
+ * Responsibility:
+ * Orders slots by a SlotComparator without boxing them: short runs are sorted by
+ * binary insertion, then merged pairwise. The checkpoint runs every few thousand slots placed,
+ * so a caller can yield a lock or abandon a cancelled sort by throwing from it. The
+ * parallel sort splits the array into halves as ForkJoin tasks down to a minimum chunk,
+ * sorts the chunks sequentially and merges them back up.
+ */
+public final class SlotSort {
+
+    // Length of the runs sorted by insertion before merging them
+    private static final int RUN_LENGTH = 32;
+    // Slots placed between two checkpoints
+    private static final int CHECKPOINT_INTERVAL = 4096;
+
+    private SlotSort() {
+    }
+
+    public static void sort(int[] slots, SlotComparator order) {
+        sort(slots, order, () -> {});
+    }
+
+    public static void sort(int[] slots, SlotComparator order, Runnable checkpoint) {
+        sortRange(slots, new int[slots.length], 0, slots.length, order, checkpoint);
+    }
+
+    /**
+     * Sorts on the given pool; an exception thrown by the comparator in any task
+     * abandons the sort and is rethrown to the caller.
+     * @param minChunk largest range sorted as one task
+     */
+    public static void parallelSort(int[] slots, SlotComparator order, ForkJoinPool pool, int minChunk) {
+        int[] buffer = new int[slots.length];
+        pool.invoke(new SortTask(slots, buffer, 0, slots.length, order, Math.max(minChunk, RUN_LENGTH)));
+    }
+
+    /** Sorts slots[from, to), using the same range of the buffer as merge target. */
+    private static void sortRange(int[] slots, int[] buffer, int from, int to, SlotComparator order,
+                                  Runnable checkpoint) {
+        for (int runFrom = from; runFrom < to; runFrom += RUN_LENGTH) {
+            int runTo = Math.min(runFrom + RUN_LENGTH, to);
+            for (int i = runFrom + 1; i < runTo; i++) {
+                // Binary insertion: comparisons may read rows, shifting ints is cheap
+                int slot = slots[i];
+                int low = runFrom;
+                int high = i;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (order.compare(slots[middle], slot) > 0) high = middle;
+                    else low = middle + 1; // equal slots stay in front: stable
+                }
+                System.arraycopy(slots, low, slots, low + 1, i - low);
+                slots[low] = slot;
+            }
+            if (runTo % CHECKPOINT_INTERVAL == 0) checkpoint.run();
+        }
+
+        int[] source = slots;
+        int[] target = buffer;
+        for (int width = RUN_LENGTH; width < to - from; width *= 2) {
+            for (int left = from; left < to; left += 2 * width) {
+                merge(source, target, left, Math.min(left + width, to), Math.min(left + 2 * width, to), order, checkpoint);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != slots) System.arraycopy(source, from, slots, from, to - from);
+    }
+
+    /** Merges the sorted ranges [from, middle) and [middle, to) of source into the same range of target. */
+    private static void merge(int[] source, int[] target, int from, int middle, int to, SlotComparator order,
+                              Runnable checkpoint) {
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            boolean takeLeft = right >= to || (left < middle && order.compare(source[left], source[right]) <= 0);
+            target[i] = takeLeft ? source[left++] : source[right++];
+            if ((i + 1) % CHECKPOINT_INTERVAL == 0) checkpoint.run();
+        }
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private final int[] slots;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final SlotComparator order;
+        private final int minChunk;
+
+        SortTask(int[] slots, int[] buffer, int from, int to, SlotComparator order, int minChunk) {
+            this.slots = slots;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.order = order;
+            this.minChunk = minChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= minChunk) {
+                sortRange(slots, buffer, from, to, order, () -> {});
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SortTask(slots, buffer, from, middle, order, minChunk),
+                    new SortTask(slots, buffer, middle, to, order, minChunk));
+            merge(slots, buffer, from, middle, to, order, () -> {});
+            System.arraycopy(buffer, from, slots, from, to - from);
+        }
+    }
+}
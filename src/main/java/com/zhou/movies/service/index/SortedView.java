@@ -0,0 +1,227 @@
+package com.zhou.movies.service.index;
+
+import com.zhou.movies.service.strategy.SortDirection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Persistent sorted order of row slots for one sorting strategy.
+ *
+ * Responsibility:
+ * Keeps all live slots ordered by the strategy comparator (ties broken by slot, i.e.
+ * insertion order) in a list of bounded int blocks, so a view costs about four to
+ * eight bytes per row instead of a boxed tree node. A change is located by binary
+ * search over the blocks and then within one block, and patched by shifting at most
+ * one block. Descending order is served by reading the same blocks backwards.
+ */
+public class SortedView {
+
+    private static final int BLOCK_CAPACITY = 1024;
+    // Blocks filled by a bulk load keep room for later inserts
+    private static final int BULK_FILL = BLOCK_CAPACITY * 3 / 4;
+
+    private final SlotComparator slotOrder;
+    // Consecutive runs of the order; no block is empty
+    private final List<Block> blocks = new ArrayList<>();
+    private int size = 0;
+
+    /**
+     * @param rowOrder order of two row slots, reading the current row data; a slot must be
+     *                 removed from the view before its row changes, and added back after
+     */
+    public SortedView(SlotComparator rowOrder) {
+        this.slotOrder = (a, b) -> {
+            int result = rowOrder.compare(a, b);
+            return result != 0 ? result : Integer.compare(a, b);
+        };
+    }
+
+    public void add(int slot) {
+        if (blocks.isEmpty()) blocks.add(new Block());
+
+        int index = blockFor(slot);
+        Block block = blocks.get(index);
+        int position = block.positionOf(slot);
+        if (position >= 0) return; // already present
+        position = -position - 1;
+
+        if (block.size == BLOCK_CAPACITY) {
+            Block upper = block.splitUpperHalf();
+            blocks.add(index + 1, upper);
+            if (position > block.size) {
+                position -= block.size;
+                block = upper;
+            }
+        }
+        block.insert(position, slot);
+        size++;
+    }
+
+    /**
+     * Adds many distinct slots at once. Into an empty view they are sorted and packed
+     * into blocks directly instead of being inserted one by one.
+     */
+    public void addAll(int[] slots) {
+        if (size > 0) {
+            for (int slot : slots) add(slot);
+            return;
+        }
+
+        int[] sorted = slots.clone();
+        SlotSort.sort(sorted, slotOrder);
+        for (int from = 0; from < sorted.length; from += BULK_FILL) {
+            Block block = new Block();
+            int to = Math.min(from + BULK_FILL, sorted.length);
+            for (int i = from; i < to; i++) block.slots[block.size++] = sorted[i];
+            blocks.add(block);
+        }
+        size = sorted.length;
+    }
+
+    public void remove(int slot) {
+        if (blocks.isEmpty()) return;
+
+        int index = blockFor(slot);
+        Block block = blocks.get(index);
+        int position = block.positionOf(slot);
+        if (position < 0) return;
+
+        block.delete(position);
+        if (block.size == 0) blocks.remove(index);
+        size--;
+    }
+
+    public void clear() {
+        blocks.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Slots in the requested direction. */
+    public PrimitiveIterator.OfInt iterator(SortDirection direction) {
+        return direction == SortDirection.DESCENDING ? new DescendingIterator() : new AscendingIterator();
+    }
+
+    /** Slots in the requested direction as an ordered stream, which may be run in parallel (block by block). */
+    public IntStream stream(SortDirection direction) {
+        int count = blocks.size();
+        if (direction == SortDirection.DESCENDING) {
+            return IntStream.range(0, count).flatMap(i -> {
+                Block block = blocks.get(count - 1 - i);
+                int last = block.size - 1;
+                return IntStream.rangeClosed(0, last).map(j -> block.slots[last - j]);
+            });
+        }
+        return IntStream.range(0, count).flatMap(i -> {
+            Block block = blocks.get(i);
+            return Arrays.stream(block.slots, 0, block.size);
+        });
+    }
+
+    /** Same total order as {@link #iterator(SortDirection)}, for sorting small subsets directly. */
+    public SlotComparator slotOrder(SortDirection direction) {
+        return direction == SortDirection.DESCENDING ? slotOrder.reversed() : slotOrder;
+    }
+
+    /** Index of the first block whose last slot does not come before the given one, else the last block. */
+    private int blockFor(int slot) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Block block = blocks.get(middle);
+            if (slotOrder.compare(block.slots[block.size - 1], slot) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /** One run of the order in a fixed-size array. */
+    private final class Block {
+        private final int[] slots = new int[BLOCK_CAPACITY];
+        private int size = 0;
+
+        /** Binary search by the view's order: the position, or -(insertion point) - 1. */
+        int positionOf(int slot) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int result = slotOrder.compare(slots[middle], slot);
+                if (result < 0) low = middle + 1;
+                else if (result > 0) high = middle - 1;
+                else return middle;
+            }
+            return -(low + 1);
+        }
+
+        void insert(int position, int slot) {
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            slots[position] = slot;
+            size++;
+        }
+
+        void delete(int position) {
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            size--;
+        }
+
+        /** Moves the upper half of this full block into a new block. */
+        Block splitUpperHalf() {
+            Block upper = new Block();
+            int half = size / 2;
+            upper.size = size - half;
+            System.arraycopy(slots, half, upper.slots, 0, upper.size);
+            size = half;
+            return upper;
+        }
+    }
+
+    private final class AscendingIterator implements PrimitiveIterator.OfInt {
+        private int block = 0;
+        private int position = 0;
+
+        @Override
+        public boolean hasNext() {
+            return block < blocks.size();
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Block current = blocks.get(block);
+            int slot = current.slots[position++];
+            if (position == current.size) {
+                block++;
+                position = 0;
+            }
+            return slot;
+        }
+    }
+
+    private final class DescendingIterator implements PrimitiveIterator.OfInt {
+        private int block = blocks.size() - 1;
+        private int position = block >= 0 ? blocks.get(block).size - 1 : -1;
+
+        @Override
+        public boolean hasNext() {
+            return block >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int slot = blocks.get(block).slots[position--];
+            if (position < 0 && --block >= 0) position = blocks.get(block).size - 1;
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.zhou.movies.service.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Append-only dictionary of strings stored as UTF-8 in one shared byte heap.
+ *
+ * Responsibility:
+ * Maps each distinct string to a dense int code (equal strings share one code and
+ * one copy of their bytes) without keeping a String object per entry. Strings are
+ * decoded only on {@link #get(int)}; case-insensitive comparison and substring search
+ * of ASCII entries run directly on the bytes. Entries are never removed; the owner rebuilds the pool
+ * when it compacts.
+ */
+public class StringPool {
+
+    private byte[] heap = new byte[1024];
+    private int heapSize = 0;
+
+    // code -> start offset in the heap; starts[code + 1] is the end
+    private int[] starts = new int[17];
+    private int[] hashes = new int[16];
+    private final BitSet nonAscii = new BitSet();
+    private int count = 0;
+
+    // Open-addressing hash table of code + 1 (0 = empty)
+    private int[] table = new int[32];
+
+    /** @return the code of the string, adding it if it is not pooled yet */
+    public int intern(String value) {
+        int hash = value.hashCode();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        int mask = table.length - 1;
+        for (int index = mix(hash) & mask; ; index = (index + 1) & mask) {
+            int entry = table[index];
+            if (entry == 0) break;
+            int code = entry - 1;
+            if (hashes[code] == hash && Arrays.equals(heap, starts[code], starts[code + 1], bytes, 0, bytes.length)) {
+                return code;
+            }
+        }
+
+        int code = add(bytes, hash);
+        if (count * 2 > table.length) rehash(table.length * 2);
+        else insert(code);
+        return code;
+    }
+
+    public String get(int code) {
+        return new String(heap, starts[code], starts[code + 1] - starts[code], StandardCharsets.UTF_8);
+    }
+
+    /** Same result sign as {@link String#CASE_INSENSITIVE_ORDER} on the decoded strings. */
+    public int compareIgnoreCase(int codeA, int codeB) {
+        if (codeA == codeB) return 0;
+        if (nonAscii.get(codeA) || nonAscii.get(codeB)) {
+            return String.CASE_INSENSITIVE_ORDER.compare(get(codeA), get(codeB));
+        }
+
+        int a = starts[codeA], endA = starts[codeA + 1];
+        int b = starts[codeB], endB = starts[codeB + 1];
+        for (; a < endA && b < endB; a++, b++) {
+            int ca = toLowerAscii(heap[a]);
+            int cb = toLowerAscii(heap[b]);
+            if (ca != cb) return ca - cb;
+        }
+        return (endA - starts[codeA]) - (endB - starts[codeB]);
+    }
+
+    /**
+     * Whether the entry contains the lowercased query, ignoring case. ASCII entries are
+     * searched on their bytes; a query character outside ASCII never matches one of them.
+     */
+    public boolean containsIgnoreCase(int code, String queryLower) {
+        if (nonAscii.get(code)) return TextMatch.contains(get(code), queryLower);
+
+        int length = queryLower.length();
+        int last = starts[code + 1] - length;
+        outer:
+        for (int i = starts[code]; i <= last; i++) {
+            for (int j = 0; j < length; j++) {
+                if (toLowerAscii(heap[i + j]) != queryLower.charAt(j)) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /** Number of distinct strings. */
+    public int size() {
+        return count;
+    }
+
+    /** Bytes held by the heap for all pooled strings. */
+    public int heapBytes() {
+        return heapSize;
+    }
+
+    private int add(byte[] bytes, int hash) {
+        if (heapSize + bytes.length > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(heap.length * 2, heapSize + bytes.length));
+        }
+        if (count + 2 > starts.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            starts = Arrays.copyOf(starts, hashes.length + 1);
+        }
+
+        int code = count++;
+        System.arraycopy(bytes, 0, heap, heapSize, bytes.length);
+        starts[code] = heapSize;
+        heapSize += bytes.length;
+        starts[code + 1] = heapSize;
+        hashes[code] = hash;
+        for (byte b : bytes) {
+            if (b < 0) { nonAscii.set(code); break; } // multi-byte UTF-8 sequence
+        }
+        return code;
+    }
+
+    private void insert(int code) {
+        int mask = table.length - 1;
+        int index = mix(hashes[code]) & mask;
+        while (table[index] != 0) index = (index + 1) & mask;
+        table[index] = code + 1;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int code = 0; code < count; code++) insert(code);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int toLowerAscii(byte b) {
+        return (b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b;
+    }
+}
@@ -0,0 +1,42 @@
+package com.zhou.movies.service.index;
+
+/**
+ * Case-insensitive substring test shared by the row stores.
+ *
+ * Responsibility:
+ * Tells whether a text contains an already lowercased query, lowering one character
+ * at a time in place instead of lowercasing the text into a new String for every row
+ * a search looks at. ASCII characters are lowered with a range check; only other
+ * characters go through {@link Character#toLowerCase(char)}.
+ */
+final class TextMatch {
+
+    private TextMatch() {
+    }
+
+    /** @param text may be null, which only contains the empty query */
+    static boolean contains(String text, String queryLower) {
+        if (text == null) return queryLower.isEmpty();
+        int length = queryLower.length();
+        if (length == 0) return true;
+
+        char first = queryLower.charAt(0);
+        outer:
+        for (int i = 0, last = text.length() - length; i <= last; i++) {
+            char c = text.charAt(i);
+            if (c != first && lower(c) != first) continue;
+            for (int j = 1; j < length; j++) {
+                c = text.charAt(i + j);
+                char expected = queryLower.charAt(j);
+                if (c != expected && lower(c) != expected) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static char lower(char c) {
+        if (c < 128) return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        return Character.toLowerCase(c);
+    }
+}
@@ -0,0 +1,121 @@
+package com.zhou.movies.service.index;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Open-addressing hash index from UUID IDs to row slots.
+ *
+ * Responsibility:
+ * Keeps only an int per entry (slot + 1); the ID bits of a slot are read back from the
+ * owning store when probing, so the index holds no String or UUID objects. Deleted
+ * entries become tombstones that are dropped on the next rehash.
+ */
+final class UuidSlotIndex {
+
+    private static final int TOMBSTONE = -1;
+
+    // Reads the ID bits of a live slot from the owning store
+    private final IntToLongFunction high;
+    private final IntToLongFunction low;
+
+    // slot + 1, 0 = empty, TOMBSTONE = deleted
+    private int[] table = new int[32];
+    private int used = 0;   // live entries plus tombstones
+
+    UuidSlotIndex(IntToLongFunction high, IntToLongFunction low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /** @return the slot holding the ID, or -1 */
+    int find(long idHigh, long idLow) {
+        int index = indexOf(idHigh, idLow);
+        return index < 0 ? -1 : table[index] - 1;
+    }
+
+    /** Adds a slot whose ID bits are already stored. */
+    void insert(int slot) {
+        if ((used + 1) * 2 > table.length) rehash();
+
+        int mask = table.length - 1;
+        int index = hash(high.applyAsLong(slot), low.applyAsLong(slot)) & mask;
+        while (table[index] != 0) index = (index + 1) & mask;
+        table[index] = slot + 1;
+        used++;
+    }
+
+    /** Removes a slot; its ID bits must still be readable. */
+    void remove(int slot) {
+        table[indexOf(high.applyAsLong(slot), low.applyAsLong(slot))] = TOMBSTONE;
+    }
+
+    void clear() {
+        table = new int[32];
+        used = 0;
+    }
+
+    private int indexOf(long idHigh, long idLow) {
+        int mask = table.length - 1;
+        for (int index = hash(idHigh, idLow) & mask; ; index = (index + 1) & mask) {
+            int entry = table[index];
+            if (entry == 0) return -1;
+            if (entry != TOMBSTONE && high.applyAsLong(entry - 1) == idHigh
+                    && low.applyAsLong(entry - 1) == idLow) return index;
+        }
+    }
+
+    /**
+     * Rebuilds the table without tombstones, doubling it if live entries need the room.
+     * Entries are re-inserted in slot order, so a store on disk is read sequentially.
+     */
+    private void rehash() {
+        int[] old = table;
+        int[] entries = new int[old.length];
+        int liveEntries = 0;
+        for (int entry : old) if (entry > 0) entries[liveEntries++] = entry;
+        Arrays.sort(entries, 0, liveEntries);
+
+        table = new int[(liveEntries + 1) * 4 > old.length ? old.length * 2 : old.length];
+        used = 0;
+        int mask = table.length - 1;
+        for (int i = 0; i < liveEntries; i++) {
+            int entry = entries[i];
+            int index = hash(high.applyAsLong(entry - 1), low.applyAsLong(entry - 1)) & mask;
+            while (table[index] != 0) index = (index + 1) & mask;
+            table[index] = entry;
+            used++;
+        }
+    }
+
+    private static int hash(long idHigh, long idLow) {
+        long h = idHigh * 0x9E3779B97F4A7C15L ^ idLow;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    /**
+     * Parses the canonical lowercase UUID form (as produced by UUID.toString) without allocating.
+     * @return false if the ID is in any other form
+     */
+    static boolean parseCanonical(String id, long[] bits) {
+        if (id == null || id.length() != 36) return false;
+
+        long idHigh = 0, idLow = 0;
+        int digits = 0;
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+                continue;
+            }
+            int value = (c >= '0' && c <= '9') ? c - '0' : (c >= 'a' && c <= 'f') ? c - 'a' + 10 : -1;
+            if (value < 0) return false;
+            if (digits++ < 16) idHigh = (idHigh << 4) | value;
+            else idLow = (idLow << 4) | value;
+        }
+        bits[0] = idHigh;
+        bits[1] = idLow;
+        return true;
+    }
+}
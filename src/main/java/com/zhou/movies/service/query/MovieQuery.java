@@ -0,0 +1,144 @@
+package com.zhou.movies.service.query;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+
+import java.util.Objects;
+
+/**
+ * Immutable specification of one view of the movie collection.
+ *
+ * Responsibility:
+ * Bundles search text, category/status/rating filters and sort order, so any number
+ * of consumers (windows, exporters, ...) can evaluate their own view concurrently.
+ * A null filter matches everything. Instances are value objects and serve as cache keys.
+ */
+public final class MovieQuery {
+
+    /** Everything, sorted by title ascending. */
+    public static final MovieQuery ALL = new Builder().build();
+
+    private final String searchQuery;
+    private final Category category;
+    private final Status status;
+    private final Integer rating;
+    private final SortStrategyType sortType;
+    private final SortDirection sortDirection;
+
+    private MovieQuery(Builder builder) {
+        this.searchQuery = builder.searchQuery;
+        this.category = builder.category;
+        this.status = builder.status;
+        this.rating = builder.rating;
+        this.sortType = builder.sortType;
+        this.sortDirection = builder.sortDirection;
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public static class Builder {
+        private String searchQuery;
+        private Category category;
+        private Status status;
+        private Integer rating;
+        private SortStrategyType sortType = SortStrategyType.TITLE;
+        private SortDirection sortDirection = SortDirection.ASCENDING;
+
+        public Builder() {
+        }
+
+        private Builder(MovieQuery query) {
+            this.searchQuery = query.searchQuery;
+            this.category = query.category;
+            this.status = query.status;
+            this.rating = query.rating;
+            this.sortType = query.sortType;
+            this.sortDirection = query.sortDirection;
+        }
+
+        /** Blank text means no search; surrounding whitespace is ignored. */
+        public Builder search(String query) {
+            this.searchQuery = (query == null || query.trim().isEmpty()) ? null : query.trim();
+            return this;
+        }
+
+        public Builder category(Category c) { this.category = c; return this; }
+        public Builder status(Status s) { this.status = s; return this; }
+        public Builder rating(Integer r) { this.rating = r; return this; }
+
+        /** Null falls back to sorting by title. */
+        public Builder sortType(SortStrategyType type) {
+            this.sortType = type == null ? SortStrategyType.TITLE : type;
+            return this;
+        }
+
+        /** Null falls back to ascending. */
+        public Builder sortDirection(SortDirection direction) {
+            this.sortDirection = direction == null ? SortDirection.ASCENDING : direction;
+            return this;
+        }
+
+        public MovieQuery build() {
+            return new MovieQuery(this);
+        }
+    }
+
+    /** Single-movie version of the search and filters (sort order is irrelevant here). */
+    public boolean matches(Movie movie) {
+        if (category != null && movie.getCategory() != category) return false;
+        if (status != null && movie.getStatus() != status) return false;
+        if (rating != null && movie.getRating() != rating) return false;
+        if (searchQuery == null) return true;
+
+        String queryLower = searchQuery.toLowerCase();
+        return (movie.getTitle() != null && movie.getTitle().toLowerCase().contains(queryLower))
+                || (movie.getDirector() != null && movie.getDirector().toLowerCase().contains(queryLower));
+    }
+
+    /** True if both queries apply the same category, status and rating filters. */
+    public boolean sameFilters(MovieQuery other) {
+        return category == other.category && status == other.status && Objects.equals(rating, other.rating);
+    }
+
+    public String getSearchQuery() { return searchQuery; }
+    public Category getCategory() { return category; }
+    public Status getStatus() { return status; }
+    public Integer getRating() { return rating; }
+    public SortStrategyType getSortType() { return sortType; }
+    public SortDirection getSortDirection() { return sortDirection; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MovieQuery)) return false;
+        MovieQuery that = (MovieQuery) o;
+        return Objects.equals(searchQuery, that.searchQuery)
+                && category == that.category
+                && status == that.status
+                && Objects.equals(rating, that.rating)
+                && sortType == that.sortType
+                && sortDirection == that.sortDirection;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(searchQuery, category, status, rating, sortType, sortDirection);
+    }
+
+    @Override
+    public String toString() {
+        return "MovieQuery{" +
+                "search='" + searchQuery + '\'' +
+                ", category=" + category +
+                ", status=" + status +
+                ", rating=" + rating +
+                ", sort=" + sortType +
+                " " + sortDirection +
+                '}';
+    }
+}
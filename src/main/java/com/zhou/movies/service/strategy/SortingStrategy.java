@@ -1,9 +1,31 @@
 package com.zhou.movies.service.strategy;
 
 import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.index.RowStore;
+import com.zhou.movies.service.index.SlotComparator;
 
+import java.util.Comparator;
 import java.util.List;
 
 public interface SortingStrategy {
-    void sort(List<Movie> movies, SortDirection direction);
+    /** Ascending order defined by this strategy. */
+    Comparator<Movie> comparator();
+
+    /**
+     * The same order over row slots of a store. Strategies override this to compare
+     * the store's columns directly instead of materializing both movies.
+     */
+    default SlotComparator slotComparator(RowStore rows) {
+        Comparator<Movie> comparator = comparator();
+        return (a, b) -> comparator.compare(rows.get(a), rows.get(b));
+    }
+
+    default void sort(List<Movie> movies, SortDirection direction) {
+        Comparator<Movie> comparator = comparator();
+
+        if (direction == SortDirection.DESCENDING)
+            comparator = comparator.reversed();
+
+        movies.sort(comparator);
+    }
 }
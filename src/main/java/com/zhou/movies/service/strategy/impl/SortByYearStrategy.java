@@ -1,20 +1,22 @@
 package com.zhou.movies.service.strategy.impl;
 
 import com.zhou.movies.pojo.Movie;
-import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.index.RowStore;
+import com.zhou.movies.service.index.SlotComparator;
 import com.zhou.movies.service.strategy.SortingStrategy;
 
 import java.util.Comparator;
-import java.util.List;
 
 public class SortByYearStrategy implements SortingStrategy {
-    @Override
-    public void sort(List<Movie> movies, SortDirection direction) {
-        Comparator<Movie> comparator = Comparator.comparingInt(Movie::getYear);
+    private static final Comparator<Movie> COMPARATOR = Comparator.comparingInt(Movie::getYear);
 
-        if (direction == SortDirection.DESCENDING)
-            comparator = comparator.reversed();
+    @Override
+    public Comparator<Movie> comparator() {
+        return COMPARATOR;
+    }
 
-        movies.sort(comparator);
+    @Override
+    public SlotComparator slotComparator(RowStore rows) {
+        return (a, b) -> Integer.compare(rows.year(a), rows.year(b));
     }
 }
@@ -2,15 +2,17 @@ package com.zhou.movies.view;
 
 import com.zhou.movies.controller.MovieController;
 import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.MovieChangeEvent;
 import com.zhou.movies.service.Observer;
 import com.zhou.movies.view.components.ActionPanel;
 import com.zhou.movies.view.components.MovieInputPanel;
+import com.zhou.movies.view.components.MovieTableModel;
 import com.zhou.movies.view.components.ToolbarPanel;
 import com.zhou.movies.view.state.FormState;
+import com.zhou.movies.view.worker.MovieQueryScheduler;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
 
@@ -20,17 +22,19 @@ import java.util.List;
  * Responsibility:
  * Holds and arranges all UI components, observes movie data changes,
  * and provides access to components and state for controllers or visitors.
+ * Full query refreshes run in the background; only the latest result is shown.
  */
 public class MovieView extends JFrame implements Observer {
 
     private MovieController controller;
     private JTable movieTable;
-    private DefaultTableModel tableModel;
+    private MovieTableModel tableModel;
     private MovieInputPanel inputPanel;
     private ToolbarPanel toolbarPanel;
     private ActionPanel actionPanel;
     private List<Movie> currentMoviesList;
     private FormState currentState;
+    private final MovieQueryScheduler queryScheduler = new MovieQueryScheduler();
 
     public MovieView() {
         setTitle("My movies collection");
@@ -44,11 +48,7 @@ public class MovieView extends JFrame implements Observer {
     /** Initialize and layout UI components. */
     private void initComponents() {
         // Table
-        String[] columnNames = {"Title", "Director", "Year", "Category", "Status", "Rating"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        tableModel = new MovieTableModel();
         movieTable = new JTable(tableModel);
         movieTable.getTableHeader().setReorderingAllowed(false);
 
@@ -77,29 +77,38 @@ public class MovieView extends JFrame implements Observer {
         movieTable.getColumnModel().getColumn(5).setPreferredWidth(50);  // Rating
     }
 
-    /** Observer update: refresh table with current movie list. */
+    /**
+     * Observer update: apply a row-level delta, or refresh the whole table when the query changed.
+     * A delta is applied only if the table still shows the result its positions refer to;
+     * every other refresh, and every event raised off the EDT, is re-queried in the background.
+     */
     @Override
-    public void update() {
-        if (controller != null) {
-            this.currentMoviesList = controller.getAllMovies();
-            refreshTable(currentMoviesList);
+    public void update(MovieChangeEvent event) {
+        if (controller == null) return;
+        if (!SwingUtilities.isEventDispatchThread()) {
+            // e.g. an import's batch on its worker thread; by the time this runs the data may
+            // have moved on, so the table is re-queried rather than patched
+            SwingUtilities.invokeLater(this::requery);
+            return;
+        }
+
+        // A delta only fits the table if no newer query result is still on its way
+        if (!queryScheduler.isPending() && event.appliesTo(currentMoviesList)) {
+            this.currentMoviesList = event.getResult(); // patched by the service, nothing to evaluate
+            tableModel.applyChange(currentMoviesList, event);
+        } else {
+            requery();
         }
     }
 
-    /** Refresh table rows with given movie data. */
+    private void requery() {
+        queryScheduler.submit(controller::getAllMovies, this::refreshTable);
+    }
+
+    /** Refresh table rows with given movie data (the list is wrapped, not copied). */
     public void refreshTable(List<Movie> movies) {
-        tableModel.setRowCount(0);
-        for (Movie movie : movies) {
-            Object[] row = {
-                    movie.getTitle(),
-                    movie.getDirector(),
-                    movie.getYear(),
-                    movie.getCategory(),
-                    movie.getStatus(),
-                    movie.getRating()
-            };
-            tableModel.addRow(row);
-        }
+        this.currentMoviesList = movies;
+        tableModel.setMovies(movies);
     }
 
     /** Select a table row by movie ID (used by State/Visitor/UndoRedo). */
@@ -123,7 +132,7 @@ public class MovieView extends JFrame implements Observer {
     // Getters / Setters for external access
     public void setController(MovieController controller) {
         this.controller = controller;
-        this.update(); // load initial data
+        this.update(MovieChangeEvent.queryChanged()); // load initial data
     }
 
     public MovieController getController() { return controller; }
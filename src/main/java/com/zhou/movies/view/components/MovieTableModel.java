@@ -0,0 +1,96 @@
+package com.zhou.movies.view.components;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.MovieChangeEvent;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only table model backed directly by a list of movies.
+ *
+ * Responsibility:
+ * Exposes the current query result to the JTable without copying it into rows;
+ * cells are read lazily from the Movie getters, only for rows actually painted.
+ * Replacing the list fires a single table event; a single-movie change fires
+ * only the row events that describe it.
+ */
+public class MovieTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMN_NAMES = {"Title", "Director", "Year", "Category", "Status", "Rating"};
+    private static final Class<?>[] COLUMN_CLASSES = {String.class, String.class, Integer.class,
+            Category.class, Status.class, Integer.class};
+
+    private List<Movie> movies = Collections.emptyList();
+
+    /** Swaps in a new result list and repaints the table once. */
+    public void setMovies(List<Movie> movies) {
+        this.movies = movies;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Swaps in the result that already contains the change, then fires row-level events
+     * instead of a full data-changed event.
+     */
+    public void applyChange(List<Movie> movies, MovieChangeEvent event) {
+        this.movies = movies;
+        int from = event.getFromPosition();
+        int to = event.getToPosition();
+
+        if (from >= 0 && to >= 0) {
+            // Row count unchanged; every row between old and new position shifted
+            fireTableRowsUpdated(Math.min(from, to), Math.max(from, to));
+        } else if (from >= 0) {
+            fireTableRowsDeleted(from, from);
+        } else if (to >= 0) {
+            fireTableRowsInserted(to, to);
+        }
+    }
+
+    public Movie getMovieAt(int row) {
+        return movies.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return movies.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Movie movie = movies.get(row);
+        switch (column) {
+            case 0: return movie.getTitle();
+            case 1: return movie.getDirector();
+            case 2: return movie.getYear();
+            case 3: return movie.getCategory();
+            case 4: return movie.getStatus();
+            case 5: return movie.getRating();
+            default: throw new IndexOutOfBoundsException("Unknown column: " + column);
+        }
+    }
+}
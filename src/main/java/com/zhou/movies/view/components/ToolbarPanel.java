@@ -13,6 +13,7 @@ import java.awt.*;
  * - Manage sort criteria and direction
  * - Provide filters (category, status, rating)
  * - Enable search, reset, undo, and redo actions
+ * - Start imports and exports and show the progress of the running background task
  */
 public class ToolbarPanel extends JToolBar {
 
@@ -30,6 +31,11 @@ public class ToolbarPanel extends JToolBar {
     private final JButton undoButton;
     private final JButton redoButton;
 
+    private final JButton importButton;
+    private final JButton exportButton;
+    private final JProgressBar taskProgressBar;
+    private final JButton cancelTaskButton;
+
     public ToolbarPanel() {
 
         // --- Undo / Redo ---
@@ -70,6 +76,21 @@ public class ToolbarPanel extends JToolBar {
         resetButton = new JButton("Reset All 🔄");
         resetButton.setPreferredSize(new Dimension(120, 28));
         add(resetButton);
+        addSeparator();
+
+        // --- Import / export and background task progress ---
+        importButton = new JButton("Import 📥");
+        exportButton = new JButton("Export 📤");
+        add(importButton);
+        add(exportButton);
+
+        taskProgressBar = new JProgressBar(0, 100);
+        taskProgressBar.setStringPainted(true);
+        taskProgressBar.setMaximumSize(new Dimension(180, 24));
+        cancelTaskButton = new JButton("Cancel ✖️");
+        add(taskProgressBar);
+        add(cancelTaskButton);
+        hideTaskProgress();
     }
 
     /** Creates a combo box with an "All" (null) option. */
@@ -102,6 +123,33 @@ public class ToolbarPanel extends JToolBar {
     public String getSearchQuery() { return searchField.getText(); }
     public JButton getUndoButton() { return undoButton; }
     public JButton getRedoButton() { return redoButton; }
+    public JButton getImportButton() { return importButton; }
+    public JButton getExportButton() { return exportButton; }
+    public JButton getCancelTaskButton() { return cancelTaskButton; }
+
+    /** Shows the progress bar for a starting background task; import and export stay disabled meanwhile. */
+    public void showTaskProgress(String label) {
+        taskProgressBar.setValue(0);
+        taskProgressBar.setString(label);
+        taskProgressBar.setVisible(true);
+        cancelTaskButton.setEnabled(true);
+        cancelTaskButton.setVisible(true);
+        importButton.setEnabled(false);
+        exportButton.setEnabled(false);
+        revalidate();
+    }
+
+    public void setTaskProgress(int percent) {
+        taskProgressBar.setValue(percent);
+    }
+
+    public void hideTaskProgress() {
+        taskProgressBar.setVisible(false);
+        cancelTaskButton.setVisible(false);
+        importButton.setEnabled(true);
+        exportButton.setEnabled(true);
+        revalidate();
+    }
 
     /** Resets all filter controls to "All" and clears the search field. */
     public void resetFilterControls() {
@@ -3,6 +3,8 @@ package com.zhou.movies.view.event;
 import com.zhou.movies.command.Command;
 import com.zhou.movies.command.CommandVisitor;
 import com.zhou.movies.controller.MovieController;
+import com.zhou.movies.controller.io.MovieExporter;
+import com.zhou.movies.controller.io.MovieImporter;
 import com.zhou.movies.dto.MovieDTO;
 import com.zhou.movies.pojo.Category;
 import com.zhou.movies.pojo.Movie;
@@ -15,9 +17,18 @@ import com.zhou.movies.view.state.impl.AddModeState;
 import com.zhou.movies.view.state.impl.EditModeState;
 import com.zhou.movies.view.visitor.RedoViewVisitor;
 import com.zhou.movies.view.visitor.UndoViewVisitor;
+import com.zhou.movies.view.worker.ProgressWorker;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.Point;
+import java.awt.event.ActionListener;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Manages all UI listeners and decouples UI logic from MovieView.
@@ -25,16 +36,28 @@ import java.awt.Point;
  */
 public class ViewListenerManager {
 
+    private static final int DEFAULT_SEARCH_DEBOUNCE_MILLIS = 250;
+
     private final MovieView view;
     private final MovieController controller;
     private final CommandVisitor undoVisitor;
     private final CommandVisitor redoVisitor;
+    private final int searchDebounceMillis;
+    private ProgressWorker<?> runningTask; // at most one import/export at a time
 
     public ViewListenerManager(MovieView view, MovieController controller) {
+        this(view, controller, DEFAULT_SEARCH_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * @param searchDebounceMillis quiet period after the last keystroke before a live search runs
+     */
+    public ViewListenerManager(MovieView view, MovieController controller, int searchDebounceMillis) {
         this.view = view;
         this.controller = controller;
         this.undoVisitor = new UndoViewVisitor(view);
         this.redoVisitor = new RedoViewVisitor(view);
+        this.searchDebounceMillis = searchDebounceMillis;
     }
 
     /** Public entry to activate all UI listeners. */
@@ -44,6 +67,8 @@ public class ViewListenerManager {
         initSortAndFilterListeners();
         initSearchListeners();
         initUndoRedoListeners();
+        initImportListeners();
+        initExportListeners();
     }
 
     /** Form (State) logic for Submit/Cancel buttons. */
@@ -93,12 +118,12 @@ public class ViewListenerManager {
         });
 
         view.getActionPanel().getDeleteButton().addActionListener(e -> {
-            Movie movieToDelete = getMovieFromSelectedRow();
-            if (movieToDelete == null) return;
+            List<Movie> moviesToDelete = getMoviesFromSelectedRows();
+            if (moviesToDelete.isEmpty()) return;
 
-            if (confirmDelete()) {
+            if (confirmDelete(moviesToDelete.size())) {
                 try {
-                    controller.deleteMovieRequest(movieToDelete);
+                    controller.deleteMoviesRequest(moviesToDelete);
                 } catch (Exception ex) {
                     showError("Delete Error", "Delete operation failed: \n" + ex.getMessage());
                 }
@@ -131,6 +156,57 @@ public class ViewListenerManager {
         });
     }
 
+    /** Bulk import of a CSV/JSON-lines catalog, run in the background with a cancellable progress bar. */
+    private void initImportListeners() {
+        view.getToolbarPanel().getImportButton().addActionListener(e -> {
+            if (controller == null || runningTask != null) return;
+
+            JFileChooser chooser = new JFileChooser();
+            chooser.setFileFilter(new FileNameExtensionFilter("Movie catalogs (*.csv, *.jsonl)", "csv", "jsonl", "ndjson"));
+            if (chooser.showOpenDialog(view) != JFileChooser.APPROVE_OPTION) return;
+
+            Path file = chooser.getSelectedFile().toPath();
+            runTask("Importing " + file.getFileName(),
+                    progress -> controller.importMoviesRequest(file, progress),
+                    this::showImportResult,
+                    "Import");
+        });
+
+        view.getToolbarPanel().getCancelTaskButton().addActionListener(e -> {
+            if (runningTask != null) {
+                runningTask.requestCancel();
+                view.getToolbarPanel().getCancelTaskButton().setEnabled(false);
+            }
+        });
+    }
+
+    /** Export of the current result, streamed in the background with the same progress bar. */
+    private void initExportListeners() {
+        view.getToolbarPanel().getExportButton().addActionListener(e -> {
+            if (controller == null || runningTask != null) return;
+
+            JFileChooser chooser = new JFileChooser();
+            chooser.setAcceptAllFileFilterUsed(false);
+            chooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV (*.csv)", "csv"));
+            chooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON lines (*.jsonl)", "jsonl"));
+            chooser.addChoosableFileFilter(new FileNameExtensionFilter("Binary (*.bin)", "bin"));
+            if (chooser.showSaveDialog(view) != JFileChooser.APPROVE_OPTION) return;
+
+            // A name typed without extension gets the one of the chosen format
+            FileNameExtensionFilter filter = (FileNameExtensionFilter) chooser.getFileFilter();
+            Path file = chooser.getSelectedFile().toPath();
+            if (!filter.accept(file.toFile())) {
+                file = file.resolveSibling(file.getFileName() + "." + filter.getExtensions()[0]);
+            }
+
+            Path target = file;
+            runTask("Exporting " + target.getFileName(),
+                    progress -> controller.exportMoviesRequest(target, progress),
+                    result -> showExportResult(result, target),
+                    "Export");
+        });
+    }
+
     /** Sorting, filtering, and reset logic (Strategy pattern). */
     private void initSortAndFilterListeners() {
         view.getToolbarPanel().getSortComboBox().addActionListener(e -> {
@@ -181,13 +257,33 @@ public class ViewListenerManager {
         });
     }
 
-    /** Search logic. */
+    /** Search logic: live search while typing (debounced), immediate on button or Enter. */
     private void initSearchListeners() {
         Runnable searchAction = () -> {
             if (controller != null) controller.searchMovies(view.getToolbarPanel().getSearchQuery());
         };
-        view.getToolbarPanel().getSearchButton().addActionListener(e -> searchAction.run());
-        view.getToolbarPanel().getSearchField().addActionListener(e -> searchAction.run());
+
+        // Restarted on every keystroke, so only the last one of a burst triggers a search
+        Timer debounceTimer = new Timer(searchDebounceMillis, e -> searchAction.run());
+        debounceTimer.setRepeats(false);
+
+        view.getToolbarPanel().getSearchField().getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { debounceTimer.restart(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { debounceTimer.restart(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { } // attribute changes only
+        });
+
+        ActionListener searchNow = e -> {
+            debounceTimer.stop();
+            searchAction.run();
+        };
+        view.getToolbarPanel().getSearchButton().addActionListener(searchNow);
+        view.getToolbarPanel().getSearchField().addActionListener(searchNow);
     }
 
     // ------------------------------------------------------------------
@@ -207,6 +303,17 @@ public class ViewListenerManager {
         return view.getCurrentMoviesList().get(modelRow);
     }
 
+    private List<Movie> getMoviesFromSelectedRows() {
+        int[] viewRows = view.getMovieTable().getSelectedRows();
+        if (viewRows.length == 0) showError("No Selection", "Please select a movie");
+
+        List<Movie> movies = new ArrayList<>(viewRows.length);
+        for (int viewRow : viewRows) {
+            movies.add(view.getCurrentMoviesList().get(view.getMovieTable().convertRowIndexToModel(viewRow)));
+        }
+        return movies;
+    }
+
     private Movie getMovieFromClickedRow(Point point) {
         int viewRow = view.getMovieTable().rowAtPoint(point);
         if (viewRow >= 0) return view.getCurrentMoviesList()
@@ -214,9 +321,55 @@ public class ViewListenerManager {
         return null;
     }
 
-    private boolean confirmDelete() {
+    /** Runs one background task at a time behind the toolbar's progress bar. */
+    private <T> void runTask(String label, ProgressWorker.Task<T> task, Consumer<T> onSuccess, String action) {
+        ProgressWorker<T> worker = new ProgressWorker<>(task,
+                result -> {
+                    finishTask();
+                    onSuccess.accept(result);
+                },
+                ex -> {
+                    finishTask();
+                    showError(action + " Error", action + " failed: \n" + ex.getMessage());
+                });
+        worker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                view.getToolbarPanel().setTaskProgress((Integer) event.getNewValue());
+            }
+        });
+
+        runningTask = worker;
+        view.getToolbarPanel().showTaskProgress(label);
+        worker.execute();
+    }
+
+    private void finishTask() {
+        runningTask = null;
+        view.getToolbarPanel().hideTaskProgress();
+    }
+
+    private void showImportResult(MovieImporter.Result result) {
+        StringBuilder message = new StringBuilder()
+                .append(result.cancelled() ? "Import cancelled.\n" : "Import finished.\n")
+                .append("Imported: ").append(result.imported())
+                .append("\nSkipped duplicates: ").append(result.duplicates())
+                .append("\nRejected rows: ").append(result.rejected());
+        for (int i = 0; i < Math.min(10, result.errors().size()); i++) {
+            message.append(i == 0 ? "\n\n" : "\n").append(result.errors().get(i));
+        }
+        JOptionPane.showMessageDialog(view, message.toString(), "Import", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void showExportResult(MovieExporter.Result result, Path file) {
+        String message = result.cancelled() ? "Export cancelled, no file was written."
+                : "Exported " + result.exported() + " movies to " + file;
+        JOptionPane.showMessageDialog(view, message, "Export", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private boolean confirmDelete(int count) {
         int choice = JOptionPane.showConfirmDialog(view,
-                "Are you sure you want to delete the selected movie?",
+                count == 1 ? "Are you sure you want to delete the selected movie?"
+                        : "Are you sure you want to delete the " + count + " selected movies?",
                 "Confirm Delete",
                 JOptionPane.YES_NO_OPTION);
         return choice == JOptionPane.YES_OPTION;
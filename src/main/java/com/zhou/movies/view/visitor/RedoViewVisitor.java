@@ -1,7 +1,9 @@
 package com.zhou.movies.view.visitor;
 
+import com.zhou.movies.command.Command;
 import com.zhou.movies.command.CommandVisitor;
 import com.zhou.movies.command.impl.AddMovieCommand;
+import com.zhou.movies.command.impl.BatchCommand;
 import com.zhou.movies.command.impl.DeleteMovieCommand;
 import com.zhou.movies.command.impl.EditMovieCommand;
 import com.zhou.movies.view.MovieView;
@@ -24,11 +26,17 @@ public class RedoViewVisitor implements CommandVisitor {
     @Override
     public void visit(EditMovieCommand cmd) {
         // Redo Edit: apply updated movie and select it
-        view.selectRowById(cmd.getUpdatedMovie().getId());
+        view.selectRowById(cmd.getMovieId());
     }
 
     @Override
     public void visit(DeleteMovieCommand cmd) {
         // Redo Delete: no selection needed
     }
+
+    @Override
+    public void visit(BatchCommand cmd) {
+        // Redo Batch: visit the commands in the order they were executed
+        for (Command command : cmd.getCommands()) command.accept(this);
+    }
 }
@@ -1,11 +1,15 @@
 package com.zhou.movies.view.visitor;
 
+import com.zhou.movies.command.Command;
 import com.zhou.movies.command.CommandVisitor;
 import com.zhou.movies.command.impl.AddMovieCommand;
+import com.zhou.movies.command.impl.BatchCommand;
 import com.zhou.movies.command.impl.DeleteMovieCommand;
 import com.zhou.movies.command.impl.EditMovieCommand;
 import com.zhou.movies.view.MovieView;
 
+import java.util.List;
+
 // Concrete visitor for Undo
 public class UndoViewVisitor implements CommandVisitor {
 
@@ -23,7 +27,7 @@ public class UndoViewVisitor implements CommandVisitor {
     @Override
     public void visit(EditMovieCommand cmd) {
         // Undo Edit: restore original movie and select it
-        view.selectRowById(cmd.getOriginalMovie().getId());
+        view.selectRowById(cmd.getMovieId());
     }
 
     @Override
@@ -31,5 +35,11 @@ public class UndoViewVisitor implements CommandVisitor {
         // Undo Delete: restore deleted movie and select it
         view.selectRowById(cmd.getMovieToDelete().getId());
     }
-}
 
+    @Override
+    public void visit(BatchCommand cmd) {
+        // Undo Batch: visit the commands in the order they were undone
+        List<Command> commands = cmd.getCommands();
+        for (int i = commands.size() - 1; i >= 0; i--) commands.get(i).accept(this);
+    }
+}
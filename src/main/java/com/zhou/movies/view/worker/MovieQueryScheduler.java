@@ -0,0 +1,81 @@
+package com.zhou.movies.view.worker;
+
+import com.zhou.movies.pojo.Movie;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs movie queries off the Event Dispatch Thread.
+ *
+ * Responsibility:
+ * Evaluates each submitted query in a SwingWorker on a single background thread.
+ * A newer submission cancels (interrupts) the query still in flight, and only the
+ * result of the latest submission is handed back, on the EDT.
+ * All public methods must be called on the EDT.
+ */
+public class MovieQueryScheduler {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "movie-query");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long latestGeneration = 0;
+    private QueryWorker inFlight;
+
+    /**
+     * Schedules a query, superseding any query still in flight.
+     * @param onResult receives the result on the EDT, unless a newer query was submitted meanwhile
+     */
+    public void submit(Supplier<List<Movie>> query, Consumer<List<Movie>> onResult) {
+        if (inFlight != null) inFlight.cancel(true);
+
+        inFlight = new QueryWorker(++latestGeneration, query, onResult);
+        executor.execute(inFlight);
+    }
+
+    /** True while the latest submitted query has not been published yet. */
+    public boolean isPending() {
+        return inFlight != null;
+    }
+
+    private class QueryWorker extends SwingWorker<List<Movie>, Void> {
+        private final long generation;
+        private final Supplier<List<Movie>> query;
+        private final Consumer<List<Movie>> onResult;
+
+        QueryWorker(long generation, Supplier<List<Movie>> query, Consumer<List<Movie>> onResult) {
+            this.generation = generation;
+            this.query = query;
+            this.onResult = onResult;
+        }
+
+        @Override
+        protected List<Movie> doInBackground() {
+            return query.get();
+        }
+
+        @Override
+        protected void done() {
+            // Stale results are dropped, whether or not the cancellation arrived in time
+            if (isCancelled() || generation != latestGeneration) return;
+            inFlight = null;
+
+            try {
+                onResult.accept(get());
+            } catch (CancellationException | InterruptedException e) {
+                // superseded while finishing
+            } catch (ExecutionException e) {
+                System.out.println("Query failed: " + e.getCause().getMessage());
+            }
+        }
+    }
+}
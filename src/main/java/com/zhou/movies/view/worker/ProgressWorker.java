@@ -0,0 +1,72 @@
+package com.zhou.movies.view.worker;
+
+import com.zhou.movies.controller.io.ProgressListener;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs a long task (import, export) off the Event Dispatch Thread.
+ *
+ * Responsibility:
+ * Hands the task a ProgressListener that turns its progress into this worker's
+ * "progress" property (0-100), for a progress bar to follow. Cancelling is cooperative:
+ * {@link #requestCancel()} makes the listener report cancellation, the task stops at its
+ * next check, and its (partial) result is still delivered, on the EDT.
+ */
+public class ProgressWorker<T> extends SwingWorker<T, Void> {
+
+    /** Work that reports its progress to, and checks for cancellation through, the listener. */
+    @FunctionalInterface
+    public interface Task<T> {
+        T run(ProgressListener progress) throws Exception;
+    }
+
+    private final Task<T> task;
+    private final Consumer<T> onSuccess;
+    private final Consumer<Exception> onFailure;
+    private volatile boolean cancelRequested = false;
+
+    public ProgressWorker(Task<T> task, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        this.task = task;
+        this.onSuccess = onSuccess;
+        this.onFailure = onFailure;
+    }
+
+    /** Asks the task to stop at its next progress check. */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    @Override
+    protected T doInBackground() throws Exception {
+        return task.run(new ProgressListener() {
+            @Override
+            public void onProgress(long done, long total) {
+                setProgress(total <= 0 ? 0 : (int) Math.min(100, done * 100 / total));
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelRequested;
+            }
+        });
+    }
+
+    @Override
+    protected void done() {
+        try {
+            onSuccess.accept(get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            onFailure.accept(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+        }
+    }
+}
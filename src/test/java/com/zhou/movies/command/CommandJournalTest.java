@@ -0,0 +1,162 @@
+package com.zhou.movies.command;
+
+import com.zhou.movies.command.impl.AddMovieCommand;
+import com.zhou.movies.command.impl.BatchCommand;
+import com.zhou.movies.command.impl.DeleteMovieCommand;
+import com.zhou.movies.command.impl.EditMovieCommand;
+import com.zhou.movies.dto.MovieDTO;
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.MovieRepository;
+import com.zhou.movies.service.MovieNotFoundException;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for CommandJournal
+ * Goal: verify the undo/redo history survives a restart, stays under its size cap
+ * and tolerates a torn last entry
+ */
+class CommandJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String journalPath;
+    private MovieServiceImpl movieService;
+    private Movie movieA;
+    private Movie movieB;
+
+    @BeforeEach
+    void setUp() {
+        journalPath = tempDir.resolve("movies.journal").toString();
+        movieA = new Movie.Builder("A-Title", "DirectorA").year(2000).rating(5).category(Category.ACTION).build();
+        movieB = new Movie.Builder("B-Title", "DirectorB").year(2020).rating(1).build();
+
+        MovieRepository repository = mock(MovieRepository.class);
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(movieA, movieB)));
+        movieService = new MovieServiceImpl(repository);
+    }
+
+    @Test
+    @DisplayName("History written in one session should undo and redo in the next")
+    void undoRedo_AfterRestart_ReplaysJournaledHistory() throws Exception {
+        CommandJournal journal = new CommandJournal(journalPath, movieService);
+        CommandManager manager = new CommandManager(10, journal);
+        AddMovieCommand add = new AddMovieCommand(movieService, new MovieDTO("C-Title", "DirectorC", "2010", null, null, 3));
+        manager.execute(add);
+        manager.execute(new EditMovieCommand(movieService, movieA,
+                new MovieDTO("A-Edited", "DirectorA", "2001", Category.ACTION, null, 5)));
+        manager.execute(new BatchCommand(movieService, List.of(new DeleteMovieCommand(movieService, movieB))));
+        manager.undo(); // movieB back
+        String addedId = add.getCreatedMovie().getId();
+        journal.close(); // writes the queued entries
+
+        // restart: same data, new manager over the same journal
+        CommandManager restarted = new CommandManager(10, new CommandJournal(journalPath, movieService));
+        assertEquals(2, restarted.undoSize());
+        assertEquals(1, restarted.redoSize());
+
+        restarted.redo();
+        assertNull(movieService.findMovieById(movieB.getId())); // actual: batch delete redone
+        restarted.undo();
+        restarted.undo();
+        assertEquals("A-Title", movieService.findMovieById(movieA.getId()).getTitle());
+        assertEquals(2000, movieService.findMovieById(movieA.getId()).getYear()); // actual: only edited fields restored
+        restarted.undo();
+        assertNull(movieService.findMovieById(addedId));
+        restarted.redo();
+        assertEquals("C-Title", movieService.findMovieById(addedId).getTitle()); // actual: same ID re-added
+    }
+
+    @Test
+    @DisplayName("Journal should be compacted to the live history once it outgrows its cap")
+    void append_WhenOverCap_RewritesFromLiveHistory() throws Exception {
+        CommandJournal journal = new CommandJournal(journalPath, movieService, 4096);
+        CommandManager manager = new CommandManager(3, journal);
+        for (int i = 0; i < 200; i++) {
+            manager.execute(new EditMovieCommand(movieService, movieService.findMovieById(movieA.getId()),
+                    new MovieDTO("A-Title " + i, "DirectorA", "2000", Category.ACTION, null, 5)));
+        }
+        journal.close();
+        assertTrue(Files.size(Path.of(journalPath)) <= 4096);
+
+        CommandManager restarted = new CommandManager(3, new CommandJournal(journalPath, movieService, 4096));
+        assertEquals(3, restarted.undoSize()); // actual: evicted commands dropped from the file
+        restarted.undo();
+        assertEquals("A-Title 198", movieService.findMovieById(movieA.getId()).getTitle());
+    }
+
+    @Test
+    @DisplayName("A torn last entry should be ignored and cut off on the next load")
+    void read_WhenLastEntryTorn_KeepsCompleteEntries() throws Exception {
+        CommandJournal journal = new CommandJournal(journalPath, movieService);
+        new CommandManager(10, journal).execute(new DeleteMovieCommand(movieService, movieB));
+        journal.close();
+        Files.writeString(Path.of(journalPath), "DO {\"type\":\"DEL", StandardOpenOption.APPEND); // crash mid-append
+
+        CommandManager restarted = new CommandManager(10, new CommandJournal(journalPath, movieService));
+        assertEquals(1, restarted.undoSize());
+        assertTrue(Files.readString(Path.of(journalPath)).endsWith("\n")); // actual: rewritten without the torn line
+        restarted.undo();
+        assertNotNull(movieService.findMovieById(movieB.getId()));
+    }
+
+    @Test
+    @DisplayName("A command too large for the compacted journal should cut the history there, dropping older ones")
+    void rewrite_WhenOversizedCommandMidStack_DropsItAndOlderOnes() throws Exception {
+        CommandJournal journal = new CommandJournal(journalPath, movieService, 4096);
+        CommandManager manager = new CommandManager(10, journal);
+        manager.execute(new EditMovieCommand(movieService, movieA,
+                new MovieDTO("A-Edited", "DirectorA", "2000", Category.ACTION, null, 5)));
+        List<AddMovieCommand> adds = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            adds.add(new AddMovieCommand(movieService, new MovieDTO("Imported " + i, "DirectorI", "2000", null, null, 1)));
+        }
+        manager.execute(new BatchCommand(movieService, adds)); // one line over half the cap
+        manager.execute(new DeleteMovieCommand(movieService, movieB)); // triggers the rewrite
+        journal.close();
+
+        CommandManager restarted = new CommandManager(10, new CommandJournal(journalPath, movieService, 4096));
+        assertEquals(1, restarted.undoSize()); // actual: only the delete; the batch and the older edit are gone
+        restarted.undo();
+        assertNotNull(movieService.findMovieById(movieB.getId()));
+        assertNull(restarted.undo()); // actual: no undo past the missing batch
+        assertEquals("A-Edited", movieService.findMovieById(movieA.getId()).getTitle());
+    }
+
+    @Test
+    @DisplayName("An undo whose movie is gone should drop that step instead of blocking older ones")
+    void undo_WhenMovieNoLongerExists_DropsStep() throws Exception {
+        CommandJournal journal = new CommandJournal(journalPath, movieService);
+        CommandManager manager = new CommandManager(10, journal);
+        manager.execute(new EditMovieCommand(movieService, movieB,
+                new MovieDTO("B-Edited", "DirectorB", "2020", null, null, 1)));
+        manager.execute(new EditMovieCommand(movieService, movieA,
+                new MovieDTO("A-Edited", "DirectorA", "2000", Category.ACTION, null, 5)));
+        journal.close();
+        movieService.deleteMovie(movieA.getId()); // e.g. the edit's data was lost in a crash
+
+        CommandJournal reopened = new CommandJournal(journalPath, movieService);
+        CommandManager restarted = new CommandManager(10, reopened);
+        assertThrows(MovieNotFoundException.class, restarted::undo);
+        assertEquals(1, restarted.undoSize()); // actual: the stuck step is gone
+        restarted.undo();
+        assertEquals("B-Title", movieService.findMovieById(movieB.getId()).getTitle());
+        reopened.close();
+
+        assertEquals(0, new CommandManager(10, new CommandJournal(journalPath, movieService)).undoSize()); // actual: journal agrees
+    }
+}
@@ -0,0 +1,54 @@
+package com.zhou.movies.command;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for CommandManager
+ * Goal: verify undo/redo ordering and that the history cap evicts the oldest commands
+ */
+class CommandManagerTest {
+
+    @Test
+    @DisplayName("Undo and redo should walk the history in stack order")
+    void undoRedo_WhenSeveralCommands_FollowStackOrder() throws Exception {
+        CommandManager manager = new CommandManager();
+        Command first = mock(Command.class);
+        Command second = mock(Command.class);
+        manager.execute(first);
+        manager.execute(second);
+
+        assertSame(second, manager.undo());
+        assertSame(first, manager.undo());
+        assertNull(manager.undo()); // actual: history exhausted
+        assertSame(first, manager.redo());
+
+        manager.execute(mock(Command.class));
+        assertEquals(0, manager.redoSize()); // actual: a new command clears redo
+        verify(first, times(2)).execute();
+    }
+
+    @Test
+    @DisplayName("Executing past the history limit should evict the oldest commands")
+    void execute_WhenHistoryFull_EvictsOldest() throws Exception {
+        CommandManager manager = new CommandManager(3);
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Command command = mock(Command.class);
+            commands.add(command);
+            manager.execute(command);
+        }
+
+        assertEquals(3, manager.undoSize());
+        assertSame(commands.get(9), manager.undo());
+        assertSame(commands.get(8), manager.undo());
+        assertSame(commands.get(7), manager.undo());
+        assertNull(manager.undo()); // actual: commands 0..6 evicted
+        verify(commands.get(6), never()).undo();
+    }
+}
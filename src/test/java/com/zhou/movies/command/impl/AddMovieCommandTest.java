@@ -66,6 +66,19 @@ class AddMovieCommandTest {
         verify(mockService, times(1)).deleteMovie(randomId); // correct deletion
     }
 
+    @Test
+    @DisplayName("Redo after undo should re-add the same movie instead of creating a new one")
+    void execute_AfterUndo_ShouldReAddMemento() throws Exception {
+        when(mockService.addMovie(testDTO)).thenReturn(fakeMovieMemento);
+        addMovieCommand.execute();
+        addMovieCommand.undo();
+
+        addMovieCommand.execute(); // redo
+
+        verify(mockService, times(1)).addMovie(testDTO); // DTO used once
+        verify(mockService, times(1)).addMovieObject(fakeMovieMemento); // same ID restored
+    }
+
     @Test
     @DisplayName("Undo before execute should throw exception")
     void undo_BeforeExecute_ShouldThrowException() {
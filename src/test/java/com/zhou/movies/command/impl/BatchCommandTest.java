@@ -0,0 +1,83 @@
+package com.zhou.movies.command.impl;
+
+import com.zhou.movies.command.Command;
+import com.zhou.movies.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+/**
+ * Unit tests for BatchCommand
+ * Goal: verify children run inside one service batch, in order, all-or-nothing
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchCommandTest {
+
+    @Mock
+    private MovieService mockService;
+    @Mock
+    private Command first;
+    @Mock
+    private Command second;
+    @Mock
+    private Command third;
+
+    private BatchCommand batchCommand;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // The mocked service runs the batch operation like the real one
+        doAnswer(invocation -> {
+            invocation.getArgument(0, MovieService.BatchOperation.class).run();
+            return null;
+        }).when(mockService).runBatch(any());
+
+        batchCommand = new BatchCommand(mockService, List.of(first, second, third));
+    }
+
+    @Test
+    @DisplayName("Execute should run every command in order inside one batch")
+    void execute_WhenCalled_RunsCommandsInOrderInOneBatch() throws Exception {
+        batchCommand.execute();
+
+        verify(mockService, times(1)).runBatch(any()); // actual: one flush, one notification
+        InOrder order = inOrder(first, second, third);
+        order.verify(first).execute();
+        order.verify(second).execute();
+        order.verify(third).execute();
+    }
+
+    @Test
+    @DisplayName("Undo should undo every command in reverse order inside one batch")
+    void undo_WhenCalled_UndoesCommandsInReverseOrder() throws Exception {
+        batchCommand.undo();
+
+        verify(mockService, times(1)).runBatch(any());
+        InOrder order = inOrder(third, second, first);
+        order.verify(third).undo();
+        order.verify(second).undo();
+        order.verify(first).undo();
+    }
+
+    @Test
+    @DisplayName("A failing command should roll back the ones already executed")
+    void execute_WhenCommandFails_RollsBackAppliedCommands() throws Exception {
+        doThrow(new Exception("boom")).when(third).execute();
+
+        Exception thrown = assertThrows(Exception.class, () -> batchCommand.execute());
+
+        assertEquals("boom", thrown.getMessage());
+        InOrder order = inOrder(second, first);
+        order.verify(second).undo(); // actual: reverse order
+        order.verify(first).undo();
+        verify(third, never()).undo(); // actual: the failed command applied nothing
+    }
+}
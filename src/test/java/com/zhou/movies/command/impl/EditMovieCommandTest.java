@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -15,7 +16,7 @@ import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for EditMovieCommand
- * Goal: verify command manages Original and Updated Mementos correctly
+ * Goal: verify command records only the changed fields and re-applies them on undo/redo
  */
 @ExtendWith(MockitoExtension.class)
 class EditMovieCommandTest {
@@ -23,8 +24,8 @@ class EditMovieCommandTest {
     @Mock
     private MovieService mockService;
 
-    private Movie fakeOriginalMovie; // Original Memento
-    private Movie fakeUpdatedMovie;  // Updated Memento
+    private Movie fakeOriginalMovie; // state before the edit
+    private Movie fakeUpdatedMovie;  // state after the edit
     private MovieDTO testDTO;        // DTO data
     private String randomId;         // store autogenerated ID
 
@@ -32,18 +33,17 @@ class EditMovieCommandTest {
 
     @BeforeEach
     void setUp() {
-        testDTO = new MovieDTO("Updated Title", "Updated Director", "2025", null, null, 5);
+        testDTO = new MovieDTO("Updated Title", "Original Director", "2025", null, null, 5);
 
-        // Original Memento with random ID
+        // Original movie with random ID
         fakeOriginalMovie = new Movie.Builder("Original Title", "Original Director")
                 .year(2000)
                 .build();
         randomId = fakeOriginalMovie.getId();
 
-        // Updated Memento inherits the same ID
+        // Updated movie inherits the same ID
         fakeUpdatedMovie = fakeOriginalMovie.toBuilder()
                 .title("Updated Title")
-                .director("Updated Director")
                 .year(2025)
                 .rating(5)
                 .build();
@@ -52,38 +52,61 @@ class EditMovieCommandTest {
     }
 
     @Test
-    @DisplayName("Execute should call service.editMovie and store Updated Memento")
-    void execute_WhenCalled_ShouldCallServiceAndStoreUpdatedMemento() throws Exception {
+    @DisplayName("Execute should call service.editMovie and record only the changed fields")
+    void execute_WhenCalled_ShouldCallServiceAndRecordDelta() throws Exception {
         when(mockService.editMovie(randomId, testDTO)).thenReturn(fakeUpdatedMovie);
 
         editMovieCommand.execute();
 
         verify(mockService, times(1)).editMovie(randomId, testDTO); // verify service call
-        assertEquals(fakeUpdatedMovie, editMovieCommand.getUpdatedMovie()); // updated stored
-        assertEquals(fakeOriginalMovie, editMovieCommand.getOriginalMovie()); // original still stored
-        assertEquals(randomId, editMovieCommand.getUpdatedMovie().getId()); // ID unchanged
+        assertEquals(randomId, editMovieCommand.getMovieId()); // ID unchanged
+        assertTrue(editMovieCommand.changed(EditMovieCommand.Field.TITLE));
+        assertTrue(editMovieCommand.changed(EditMovieCommand.Field.YEAR));
+        assertTrue(editMovieCommand.changed(EditMovieCommand.Field.RATING));
+        assertFalse(editMovieCommand.changed(EditMovieCommand.Field.DIRECTOR)); // actual: same director
+        assertFalse(editMovieCommand.changed(EditMovieCommand.Field.CATEGORY));
     }
 
     @Test
-    @DisplayName("Undo after execute should call service.replaceMovie with Original Memento")
-    void undo_AfterExecute_ShouldCallServiceReplaceWithOriginalMemento() throws Exception {
+    @DisplayName("Undo should restore the changed fields and keep later edits to other fields")
+    void undo_AfterExecute_ShouldRestoreChangedFieldsOnCurrentMovie() throws Exception {
         when(mockService.editMovie(randomId, testDTO)).thenReturn(fakeUpdatedMovie);
         editMovieCommand.execute();
+        Movie current = fakeUpdatedMovie.toBuilder().director("Someone Else").build(); // edited since
+        when(mockService.findMovieById(randomId)).thenReturn(current);
 
         editMovieCommand.undo();
 
-        verify(mockService, times(1)).updateMovie(fakeOriginalMovie); // verify original restored
+        ArgumentCaptor<Movie> restored = ArgumentCaptor.forClass(Movie.class);
+        verify(mockService).updateMovie(restored.capture());
+        assertEquals(fakeOriginalMovie.toBuilder().director("Someone Else").build().toString(),
+                restored.getValue().toString()); // actual: title, year and rating restored
     }
 
     @Test
-    @DisplayName("Execute should propagate service exception and not store Updated Memento")
-    void execute_WhenServiceFails_ShouldPropagateExceptionAndNotStoreMemento() throws Exception {
+    @DisplayName("Redo should re-apply the new field values without the DTO")
+    void execute_AfterUndo_ShouldReapplyDelta() throws Exception {
+        when(mockService.editMovie(randomId, testDTO)).thenReturn(fakeUpdatedMovie);
+        editMovieCommand.execute();
+        when(mockService.findMovieById(randomId)).thenReturn(fakeOriginalMovie);
+
+        editMovieCommand.execute(); // redo
+
+        verify(mockService, times(1)).editMovie(anyString(), any(MovieDTO.class)); // actual: DTO used once
+        ArgumentCaptor<Movie> reapplied = ArgumentCaptor.forClass(Movie.class);
+        verify(mockService).updateMovie(reapplied.capture());
+        assertEquals(fakeUpdatedMovie.toString(), reapplied.getValue().toString());
+    }
+
+    @Test
+    @DisplayName("Execute should propagate service exception and not record a delta")
+    void execute_WhenServiceFails_ShouldPropagateExceptionAndNotRecordDelta() throws Exception {
         when(mockService.editMovie(anyString(), any(MovieDTO.class)))
                 .thenThrow(new Exception("Movie not found"));
 
         Exception exception = assertThrows(Exception.class, () -> editMovieCommand.execute());
 
         assertEquals("Movie not found", exception.getMessage()); // exception propagated
-        assertNull(editMovieCommand.getUpdatedMovie()); // updated not stored
+        assertFalse(editMovieCommand.changed(EditMovieCommand.Field.TITLE)); // delta not recorded
     }
 }
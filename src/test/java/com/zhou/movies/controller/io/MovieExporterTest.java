@@ -0,0 +1,133 @@
+package com.zhou.movies.controller.io;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.repository.MovieRepository;
+import com.zhou.movies.repository.impl.MovieRepositoryBinaryImpl;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import com.zhou.movies.service.query.MovieQuery;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for MovieExporter
+ * Goal: verify the query result is written in order in every format, and that
+ * a cancelled export leaves no file behind
+ */
+class MovieExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MovieServiceImpl movieService;
+    private MovieQuery actionByYear;
+
+    @BeforeEach
+    void setUp() {
+        List<Movie> library = new ArrayList<>();
+        library.add(new Movie.Builder("Heat", "Michael Mann").year(1995).rating(5)
+                .category(Category.ACTION).status(Status.WATCHED).build());
+        library.add(new Movie.Builder("Alien, Director's Cut", "Ridley \"Sir\" Scott").year(1979).rating(4)
+                .category(Category.ACTION).build());
+        library.add(new Movie.Builder("Amélie", "Jean-Pierre Jeunet").year(2001).rating(5)
+                .category(Category.ROMANCE).build());
+
+        MovieRepository repository = mock(MovieRepository.class);
+        when(repository.findAll()).thenReturn(library);
+        movieService = new MovieServiceImpl(repository);
+        actionByYear = new MovieQuery.Builder().category(Category.ACTION)
+                .sortType(SortStrategyType.YEAR).sortDirection(SortDirection.ASCENDING).build();
+    }
+
+    @Test
+    @DisplayName("CSV and JSON-lines exports should read back through the importer in result order")
+    void exportQuery_WhenCsvOrJsonLines_RoundTripsThroughImporter() throws Exception {
+        for (String name : List.of("action.csv", "action.jsonl")) {
+            Path file = tempDir.resolve(name);
+            MovieExporter.Result result = new MovieExporter(movieService).exportQuery(actionByYear, file, ProgressListener.NONE);
+            assertEquals(2, result.exported());
+
+            MovieRepository empty = mock(MovieRepository.class);
+            when(empty.findAll()).thenReturn(new ArrayList<>());
+            MovieServiceImpl target = new MovieServiceImpl(empty);
+            new MovieImporter(target).importFile(file, ProgressListener.NONE);
+
+            List<Movie> expected = movieService.query(actionByYear);
+            List<Movie> imported = target.query(MovieQuery.ALL.toBuilder().sortType(SortStrategyType.YEAR).build());
+            assertEquals(expected.size(), imported.size(), name);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toString(), imported.get(i).toString(), name); // actual: quotes and commas kept
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A title with line breaks should export as one CSV record the importer reads back")
+    void exportQuery_WhenCsvValueHasLineBreaks_KeepsOneRecordPerLine() throws Exception {
+        movieService.addMovieObject(new Movie.Builder("Kill Bill:\nVol. 1", "Quentin\r\nTarantino").year(2003).rating(4)
+                .category(Category.ACTION).build());
+        Path file = tempDir.resolve("action.csv");
+
+        MovieExporter.Result result = new MovieExporter(movieService).exportQuery(actionByYear, file, ProgressListener.NONE);
+        assertEquals(3, result.exported());
+        assertEquals(4, Files.readAllLines(file).size()); // actual: header plus one line per movie
+
+        MovieRepository empty = mock(MovieRepository.class);
+        when(empty.findAll()).thenReturn(new ArrayList<>());
+        MovieServiceImpl target = new MovieServiceImpl(empty);
+        new MovieImporter(target).importFile(file, ProgressListener.NONE);
+
+        List<Movie> imported = target.query(MovieQuery.ALL.toBuilder().sortType(SortStrategyType.YEAR).build());
+        assertEquals(3, imported.size());
+        assertEquals("Kill Bill: Vol. 1", imported.get(2).getTitle()); // actual: line break written as a space
+        assertEquals("Quentin Tarantino", imported.get(2).getDirector());
+    }
+
+    @Test
+    @DisplayName("A binary export should be readable by the binary repository, IDs included")
+    void exportQuery_WhenBinary_WritesRepositoryFormat() throws Exception {
+        Path file = tempDir.resolve("action.bin");
+
+        new MovieExporter(movieService).exportQuery(actionByYear, file, ProgressListener.NONE);
+
+        List<Movie> reloaded = new MovieRepositoryBinaryImpl(file.toString()).findAll();
+        assertEquals(movieService.query(actionByYear), reloaded); // actual: same IDs, same order
+        assertEquals("Alien, Director's Cut", reloaded.get(0).getTitle());
+        assertFalse(Files.exists(tempDir.resolve("action.bin.tmp")));
+    }
+
+    @Test
+    @DisplayName("A cancelled export should stop early and leave no file behind")
+    void exportQuery_WhenCancelled_LeavesNoFile() throws Exception {
+        for (int i = 0; i < 10_000; i++) {
+            movieService.addMovieObject(new Movie.Builder("Movie " + i, "Director").year(2000).build());
+        }
+        Path file = tempDir.resolve("all.csv");
+        ProgressListener cancelAtOnce = new ProgressListener() {
+            @Override
+            public void onProgress(long done, long total) { }
+
+            @Override
+            public boolean isCancelled() { return true; }
+        };
+
+        MovieExporter.Result result = new MovieExporter(movieService).exportQuery(MovieQuery.ALL, file, cancelAtOnce);
+
+        assertTrue(result.cancelled());
+        assertTrue(result.exported() < 10_000); // actual: stopped at the first progress check
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(tempDir.resolve("all.csv.tmp")));
+    }
+}
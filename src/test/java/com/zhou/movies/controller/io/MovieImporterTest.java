@@ -0,0 +1,117 @@
+package com.zhou.movies.controller.io;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.repository.MovieRepository;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import com.zhou.movies.service.query.MovieQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for MovieImporter
+ * Goal: verify rows are parsed, validated, deduplicated and committed in batches
+ */
+class MovieImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MovieRepository repository;
+    private MovieServiceImpl movieService;
+
+    @BeforeEach
+    void setUp() {
+        Movie existing = new Movie.Builder("Alien", "Ridley Scott").year(1979).build();
+        repository = mock(MovieRepository.class);
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(existing)));
+        movieService = new MovieServiceImpl(repository);
+    }
+
+    @Test
+    @DisplayName("CSV rows should be mapped by header, with invalid and duplicate rows skipped")
+    void importFile_WhenCsvWithHeader_ImportsValidUniqueRows() throws Exception {
+        Path file = tempDir.resolve("catalog.csv");
+        Files.writeString(file, String.join("\n",
+                "director,title,year,rating,category,status",
+                "Lana Wachowski,The Matrix,1999,5,sci-fi,watched",
+                "\"Coen, Joel\",\"Fargo \"\"96\"\"\",1996,4,Comedy,",
+                "ridley scott,  ALIEN ,1979,5,,",          // duplicate of the library
+                "Lana Wachowski,the matrix,2003,3,,",      // duplicate within the file
+                "Nobody,No Year,,3,,",
+                "Somebody,Bad Category,2000,3,Western,",
+                "") + "\n");
+
+        MovieImporter.Result result = new MovieImporter(movieService, 2, 100).importFile(file, ProgressListener.NONE);
+
+        assertEquals(2, result.imported());
+        assertEquals(2, result.duplicates());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of("Line 6: Title, Director or Year cannot be empty!", "Line 7: Unknown category: Western"),
+                result.errors()); // actual: line numbers count the header
+
+        List<Movie> all = movieService.query(MovieQuery.ALL);
+        Movie fargo = all.stream().filter(m -> m.getDirector().equals("Coen, Joel")).findFirst().orElseThrow();
+        assertEquals("Fargo \"96\"", fargo.getTitle());
+        Movie matrix = all.stream().filter(m -> m.getTitle().equals("The Matrix")).findFirst().orElseThrow();
+        assertEquals(Category.SCI_FI, matrix.getCategory());
+        assertEquals(Status.WATCHED, matrix.getStatus());
+    }
+
+    @Test
+    @DisplayName("A large JSON-lines file should be committed in batches with progress up to the file size")
+    void importFile_WhenJsonLines_CommitsInBatches() throws Exception {
+        Path file = tempDir.resolve("catalog.jsonl");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            content.append("{\"title\":\"Movie ").append(i).append("\",\"director\":\"Director ").append(i % 7)
+                    .append("\",\"year\":").append(1950 + i % 70).append(",\"rating\":\"").append(i % 6).append("\"}\n");
+        }
+        content.append("{not json}\n");
+        Files.writeString(file, content);
+
+        List<Long> reported = new ArrayList<>();
+        MovieImporter.Result result = new MovieImporter(movieService, 300, 1000)
+                .importFile(file, (done, total) -> reported.add(done * 100 / total));
+
+        assertEquals(2500, result.imported());
+        assertEquals(1, result.rejected());
+        assertEquals(2501, movieService.query(MovieQuery.ALL).size());
+        verify(repository, times(3)).saveBatch(anyCollection()); // actual: 1000 + 1000 + 500
+        assertEquals(100L, reported.get(reported.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Cancelling should stop reading and commit, and count, the rows already read")
+    void importFile_WhenCancelled_StopsEarly() throws Exception {
+        Path file = tempDir.resolve("catalog.csv");
+        StringBuilder content = new StringBuilder("title,director,year\n");
+        for (int i = 0; i < 5000; i++) content.append("Movie ").append(i).append(",Director,2000\n");
+        Files.writeString(file, content);
+
+        ProgressListener cancelAtOnce = new ProgressListener() {
+            @Override
+            public void onProgress(long done, long total) { }
+
+            @Override
+            public boolean isCancelled() { return true; }
+        };
+        MovieImporter.Result result = new MovieImporter(movieService, 100, 100).importFile(file, cancelAtOnce);
+
+        assertTrue(result.cancelled());
+        assertEquals(100, result.imported()); // actual: the chunk in flight is committed, not dropped
+        assertEquals(0, result.rejected());
+        assertEquals(101, movieService.query(MovieQuery.ALL).size()); // actual: counts match the library
+    }
+}
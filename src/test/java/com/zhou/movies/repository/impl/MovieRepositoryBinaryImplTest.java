@@ -0,0 +1,158 @@
+package com.zhou.movies.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for MovieRepositoryBinaryImpl
+ * Goal: verify records round-trip through the binary layout and the JSON import path
+ */
+class MovieRepositoryBinaryImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String filePath;
+    private Movie movieA;
+    private Movie movieB;
+
+    @BeforeEach
+    void setUp() {
+        filePath = tempDir.resolve("movies.bin").toString();
+        movieA = new Movie.Builder("A-Title", "DirectorA").year(2000).rating(5)
+                .category(Category.ACTION).status(Status.WATCHED).build();
+        movieB = new Movie.Builder("B-Title", "DirectorA").year(2020).rating(1).build();
+    }
+
+    @Test
+    @DisplayName("Saved movies should be read back with every field intact")
+    void findAll_AfterSaveAll_RoundTripsAllFields() {
+        Movie legacy = new Movie.Builder("legacy-7", "Ärger im Paradies", null).build(); // not a UUID, no director
+        Movie sparse = new Movie.Builder(null, null).build();
+        new MovieRepositoryBinaryImpl(filePath).saveAll(List.of(movieA, legacy, sparse, movieB));
+
+        List<Movie> reloaded = new MovieRepositoryBinaryImpl(filePath).findAll();
+        assertEquals(List.of(movieA, legacy, sparse, movieB), reloaded); // actual: same order
+        for (int i = 0; i < reloaded.size(); i++) {
+            assertEquals(List.of(movieA, legacy, sparse, movieB).get(i).toString(), reloaded.get(i).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("StreamWriter output should read back, with repeated strings sharing their table entry")
+    void streamWriter_WhenStringsRepeat_WritesLoadableFile() throws IOException {
+        Movie legacy = new Movie.Builder("legacy-7", "DirectorA", null).build(); // ID is a string too
+        try (MovieRepositoryBinaryImpl.StreamWriter writer =
+                     new MovieRepositoryBinaryImpl.StreamWriter(Files.newOutputStream(Path.of(filePath)))) {
+            writer.write(movieA);
+            writer.write(legacy);
+            writer.write(movieB);
+        }
+
+        MovieRepositoryBinaryImpl repository = new MovieRepositoryBinaryImpl(filePath);
+        assertEquals(List.of(movieA.toString(), legacy.toString(), movieB.toString()),
+                repository.findAll().stream().map(Movie::toString).toList());
+
+        Movie movieC = new Movie.Builder("C-Title", "DirectorA").build();
+        repository.save(movieC); // appended after the streamed string table
+        assertEquals(movieC.toString(), new MovieRepositoryBinaryImpl(filePath).findAll().get(3).toString());
+    }
+
+    @Test
+    @DisplayName("Appends, updates and deletes should all survive a reload")
+    void save_WhenInsertUpdateDelete_PersistsEachChange() {
+        MovieRepositoryBinaryImpl repository = new MovieRepositoryBinaryImpl(filePath);
+        repository.save(movieA); // header + record appended to a new file
+        repository.save(movieB); // appended, reuses the "DirectorA" string
+        repository.save(movieA.toBuilder().title("A-Edited").build()); // rewrite
+
+        List<Movie> reloaded = new MovieRepositoryBinaryImpl(filePath).findAll();
+        assertEquals(List.of(movieA, movieB), reloaded);
+        assertEquals("A-Edited", reloaded.get(0).getTitle()); // actual: position kept
+
+        repository.deleteById(movieA.getId());
+        repository.saveBatch(List.of(new Movie.Builder("C-Title", "DirectorC").build()));
+        assertEquals(2, new MovieRepositoryBinaryImpl(filePath).findAll().size()); // actual: [B, C]
+    }
+
+    @Test
+    @DisplayName("A torn last record should be ignored and overwritten by the next append")
+    void findAll_WhenLastRecordTorn_KeepsCompleteRecords() throws IOException {
+        MovieRepositoryBinaryImpl repository = new MovieRepositoryBinaryImpl(filePath);
+        repository.save(movieA);
+        repository.save(movieB);
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+            file.setLength(file.length() - 3); // crash mid-append
+        }
+
+        MovieRepositoryBinaryImpl reopened = new MovieRepositoryBinaryImpl(filePath);
+        assertEquals(List.of(movieA), reopened.findAll());
+
+        reopened.save(movieB);
+        assertEquals(List.of(movieA, movieB), new MovieRepositoryBinaryImpl(filePath).findAll());
+    }
+
+    @Test
+    @DisplayName("A damaged record length mid-file should fail the load and leave the file alone")
+    void findAll_WhenRecordLengthCorruptMidFile_ThrowsAndKeepsFile() throws IOException {
+        MovieRepositoryBinaryImpl repository = new MovieRepositoryBinaryImpl(filePath);
+        repository.save(movieA);
+        repository.save(movieB);
+        long length = Files.size(Path.of(filePath));
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+            file.seek(8 + 1); // length of the first record, the "A-Title" string
+            file.writeInt(0x7FFF0000);
+        }
+
+        MovieRepositoryBinaryImpl reopened = new MovieRepositoryBinaryImpl(filePath);
+        assertThrows(RuntimeException.class, reopened::findAll); // actual: not taken for a torn tail
+        assertThrows(RuntimeException.class, () -> reopened.save(new Movie.Builder("C-Title", "DirectorC").build()));
+        assertEquals(length, Files.size(Path.of(filePath))); // actual: nothing truncated
+    }
+
+    @Test
+    @DisplayName("A file from a newer format version should be rejected")
+    void findAll_WhenNewerVersion_Throws() throws IOException {
+        new MovieRepositoryBinaryImpl(filePath).saveAll(List.of(movieA));
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+            file.seek(4);
+            file.writeShort(MovieRepositoryBinaryImpl.FORMAT_VERSION + 1);
+        }
+
+        assertThrows(RuntimeException.class, () -> new MovieRepositoryBinaryImpl(filePath).findAll());
+    }
+
+    @Test
+    @DisplayName("openOrImport should migrate the JSON file once and leave it untouched")
+    void openOrImport_WhenOnlyJsonExists_ImportsIt() throws IOException {
+        String jsonPath = tempDir.resolve("movies.json").toString();
+        List<Movie> library = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            library.add(new Movie.Builder("Movie " + i, "Director" + (i % 5)).year(1950 + i).rating(i % 6)
+                    .category(Category.values()[i % Category.values().length]).build());
+        }
+        new MovieRepositoryJsonImpl(jsonPath).saveAll(library);
+
+        List<Movie> imported = MovieRepositoryBinaryImpl.openOrImport(filePath, jsonPath).findAll();
+        assertEquals(library, imported);
+        assertEquals(library.get(42).toString(), imported.get(42).toString());
+        assertTrue(Files.size(Path.of(filePath)) * 3 < Files.size(Path.of(jsonPath))); // actual: about 4x smaller
+
+        new MovieRepositoryJsonImpl(jsonPath).saveAll(List.of(movieA)); // JSON no longer the source of truth
+        assertEquals(library, MovieRepositoryBinaryImpl.openOrImport(filePath, jsonPath).findAll());
+    }
+}
@@ -0,0 +1,100 @@
+package com.zhou.movies.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.zhou.movies.pojo.Movie;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Unit tests for MovieRepositoryJsonImpl
+ * Goal: verify per-record operations keep the JSON file readable
+ */
+class MovieRepositoryJsonImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String filePath;
+    private Movie movieA;
+    private Movie movieB;
+
+    @BeforeEach
+    void setUp() {
+        filePath = tempDir.resolve("movies.json").toString();
+        movieA = new Movie.Builder("A-Title", "DirectorA").year(2000).rating(5).build();
+        movieB = new Movie.Builder("B-Title", "DirectorB").year(2020).rating(1).build();
+    }
+
+    @Test
+    @DisplayName("Save of new movies should append them to the JSON array")
+    void save_WhenNewMovies_AppendsToArray() {
+        MovieRepositoryJsonImpl repository = new MovieRepositoryJsonImpl(filePath);
+
+        repository.save(movieA); // appended to empty array
+        repository.save(movieB); // appended after existing record
+
+        List<Movie> reloaded = new MovieRepositoryJsonImpl(filePath).findAll();
+        assertEquals(List.of(movieA, movieB), reloaded); // actual: [A, B] in insertion order
+    }
+
+    @Test
+    @DisplayName("Append over a bracket followed by more blanks than the new records should cut the leftovers")
+    void save_WhenTrailingBlanksOutlastNewTail_TruncatesAfterBracket() throws Exception {
+        MovieRepositoryJsonImpl repository = new MovieRepositoryJsonImpl(filePath, false);
+        repository.saveAll(List.of(movieA));
+        Files.writeString(Path.of(filePath), " ".repeat(4096) + "\n", StandardOpenOption.APPEND); // e.g. hand-edited
+
+        repository.save(movieB);
+
+        String content = Files.readString(Path.of(filePath));
+        assertTrue(content.endsWith("]")); // actual: old blanks past the new tail are gone
+        assertEquals(List.of(movieA, movieB), new MovieRepositoryJsonImpl(filePath).findAll());
+    }
+
+    @Test
+    @DisplayName("Save of existing movie should replace it in place")
+    void save_WhenExistingMovie_ReplacesRecord() {
+        MovieRepositoryJsonImpl repository = new MovieRepositoryJsonImpl(filePath);
+        repository.saveBatch(List.of(movieA, movieB));
+
+        repository.save(movieA.toBuilder().title("A-Edited").build());
+
+        List<Movie> reloaded = new MovieRepositoryJsonImpl(filePath).findAll();
+        assertEquals(2, reloaded.size()); // actual: [A-Edited, B]
+        assertEquals("A-Edited", reloaded.get(0).getTitle()); // actual: position kept
+    }
+
+    @Test
+    @DisplayName("DeleteById should remove only that movie")
+    void deleteById_WhenCalled_RemovesRecord() {
+        MovieRepositoryJsonImpl repository = new MovieRepositoryJsonImpl(filePath);
+        repository.saveBatch(List.of(movieA, movieB));
+
+        repository.deleteById(movieA.getId());
+
+        List<Movie> reloaded = new MovieRepositoryJsonImpl(filePath).findAll();
+        assertEquals(List.of(movieB), reloaded); // actual: [B]
+    }
+
+    @Test
+    @DisplayName("Compact mode should write single-line JSON that reads back")
+    void saveAll_WhenCompact_WritesSingleLineAndReadsBack() throws Exception {
+        MovieRepositoryJsonImpl repository = new MovieRepositoryJsonImpl(filePath, false);
+
+        repository.saveAll(List.of(movieA));
+        repository.save(movieB); // appended in compact layout
+
+        assertFalse(Files.readString(Path.of(filePath)).contains("\n")); // actual: no line breaks
+        List<Movie> reloaded = new MovieRepositoryJsonImpl(filePath).findAll();
+        assertEquals(List.of(movieA, movieB), reloaded); // actual: [A, B]
+        assertEquals("B-Title", reloaded.get(1).getTitle()); // actual: fields intact
+    }
+}
@@ -0,0 +1,128 @@
+package com.zhou.movies.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for MovieRepositoryLogImpl
+ * Goal: verify log append, replay on startup and compaction into the snapshot
+ */
+class MovieRepositoryLogImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotPath;
+    private Path logPath;
+
+    private Movie movieA;
+    private Movie movieB;
+    private Movie movieC;
+
+    @BeforeEach
+    void setUp() {
+        snapshotPath = tempDir.resolve("movies.json");
+        logPath = tempDir.resolve("movies.log");
+
+        movieA = new Movie.Builder("A-Title", "DirectorA").year(2000).rating(5).category(Category.ACTION).build();
+        movieB = new Movie.Builder("B-Title", "DirectorB").year(2020).rating(1).category(Category.COMEDY).build();
+        movieC = new Movie.Builder("C-Title", "DirectorC").year(2010).rating(3).category(Category.ACTION).build();
+    }
+
+    private MovieRepositoryLogImpl newRepository(int compactionThreshold) {
+        return new MovieRepositoryLogImpl(
+                new MovieRepositoryJsonImpl(snapshotPath.toString()), logPath.toString(), compactionThreshold);
+    }
+
+    @Test
+    @DisplayName("Single edit should append one log record and survive a restart")
+    void saveAll_WhenOneMovieEdited_AppendsOneRecordAndReplays() throws Exception {
+        MovieRepositoryLogImpl repository = newRepository(100);
+        repository.findAll();
+        repository.saveAll(List.of(movieA, movieB, movieC)); // initial bulk write goes to snapshot
+
+        Movie editedB = movieB.toBuilder().title("B-Edited").build();
+        repository.saveAll(List.of(movieA, editedB, movieC));
+
+        assertEquals(1, Files.readAllLines(logPath).size()); // actual: one PUT record
+
+        List<Movie> reloaded = newRepository(100).findAll();
+        assertEquals(3, reloaded.size()); // actual: [A, B-Edited, C]
+        assertEquals("B-Edited", reloaded.get(1).getTitle()); // actual: edit replayed in place
+    }
+
+    @Test
+    @DisplayName("Delete should be replayed from the log")
+    void saveAll_WhenMovieDeleted_ReplaysDeletion() throws Exception {
+        MovieRepositoryLogImpl repository = newRepository(100);
+        repository.findAll();
+        repository.saveAll(List.of(movieA, movieB, movieC));
+
+        repository.saveAll(List.of(movieA, movieC));
+
+        List<Movie> reloaded = newRepository(100).findAll();
+        assertEquals(2, reloaded.size()); // actual: [A, C]
+        assertFalse(reloaded.contains(movieB)); // actual: B deleted
+    }
+
+    @Test
+    @DisplayName("Log should be compacted into the snapshot once threshold is reached")
+    void saveAll_WhenThresholdReached_CompactsLog() throws Exception {
+        MovieRepositoryLogImpl repository = newRepository(2);
+        repository.findAll();
+        List<Movie> movies = new ArrayList<>(List.of(movieA, movieB, movieC));
+        repository.saveAll(movies);
+
+        movies.set(0, movieA.toBuilder().rating(4).build());
+        repository.saveAll(new ArrayList<>(movies));
+        movies.set(2, movieC.toBuilder().rating(2).build());
+        repository.saveAll(new ArrayList<>(movies));
+
+        assertEquals(0, Files.size(logPath)); // actual: log truncated after compaction
+
+        List<Movie> snapshot = new MovieRepositoryJsonImpl(snapshotPath.toString()).findAll();
+        assertEquals(4, snapshot.get(0).getRating()); // actual: edit folded into snapshot
+        assertEquals(2, snapshot.get(2).getRating()); // actual: edit folded into snapshot
+    }
+
+    @Test
+    @DisplayName("Partially written last record should be ignored on replay")
+    void findAll_WhenLogHasTornTail_IgnoresTornRecord() throws Exception {
+        MovieRepositoryLogImpl repository = newRepository(100);
+        repository.findAll();
+        repository.saveAll(List.of(movieA, movieB));
+        repository.saveAll(List.of(movieA, movieB, movieC));
+
+        Files.writeString(logPath, Files.readString(logPath) + "{\"op\":\"PUT\",\"movie\":{\"id\"");
+
+        List<Movie> reloaded = newRepository(100).findAll();
+        assertEquals(3, reloaded.size()); // actual: [A, B, C], torn record dropped
+        assertEquals(0, Files.size(logPath)); // actual: recovered state compacted
+    }
+
+    @Test
+    @DisplayName("Unreadable record in the middle of the log should fail the load and keep the log")
+    void findAll_WhenLogCorruptMidway_ThrowsAndKeepsLog() throws Exception {
+        MovieRepositoryLogImpl repository = newRepository(100);
+        repository.findAll();
+        repository.saveAll(List.of(movieA, movieB));
+        repository.saveAll(List.of(movieA, movieB, movieC));
+
+        String corrupt = "{\"op\":\"PUT\",\"movie\":{\"id\"\n" + Files.readString(logPath);
+        Files.writeString(logPath, corrupt);
+
+        assertThrows(RuntimeException.class, () -> newRepository(100).findAll());
+        assertEquals(corrupt, Files.readString(logPath)); // actual: records after the bad line kept
+    }
+}
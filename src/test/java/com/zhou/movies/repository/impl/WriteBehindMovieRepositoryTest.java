@@ -0,0 +1,155 @@
+package com.zhou.movies.repository.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.mockito.Mockito.*;
+
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.MovieRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Unit tests for WriteBehindMovieRepository
+ * Goal: verify mutations are coalesced and flushed in the background or on close
+ */
+@ExtendWith(MockitoExtension.class)
+class WriteBehindMovieRepositoryTest {
+
+    @Mock
+    private MovieRepository mockDelegate;
+
+    private WriteBehindMovieRepository repository;
+    private Movie movieA;
+    private Movie movieB;
+
+    @BeforeEach
+    void setUp() {
+        movieA = new Movie.Builder("A-Title", "DirectorA").build();
+        movieB = new Movie.Builder("B-Title", "DirectorB").build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (repository != null) repository.close();
+    }
+
+    @Test
+    @DisplayName("Mutations should not touch the delegate before the debounce window")
+    void save_WhenCalled_DoesNotWriteSynchronously() {
+        repository = new WriteBehindMovieRepository(mockDelegate, 60_000, 60_000);
+
+        repository.save(movieA);
+        repository.deleteById(movieB.getId());
+
+        verifyNoInteractions(mockDelegate);
+        assertEquals(2, repository.pendingCount()); // actual: A saved, B deleted
+    }
+
+    @Test
+    @DisplayName("Burst of changes to the same movie should be merged into one write")
+    @SuppressWarnings("unchecked")
+    void flush_WhenSameMovieChangedRepeatedly_WritesLatestStateOnce() {
+        repository = new WriteBehindMovieRepository(mockDelegate, 60_000, 60_000);
+        Movie editedA = movieA.toBuilder().title("A-Edited").build();
+
+        repository.save(movieA);       // add
+        repository.deleteById(movieA.getId()); // undo
+        repository.save(editedA);      // redo + edit
+        repository.deleteById(movieB.getId());
+        repository.flush();
+
+        ArgumentCaptor<Collection<Movie>> saved = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<String>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(mockDelegate, times(1)).saveBatch(saved.capture());
+        verify(mockDelegate, times(1)).deleteBatch(deleted.capture());
+
+        assertEquals(1, saved.getValue().size()); // actual: only the latest A
+        assertEquals("A-Edited", saved.getValue().iterator().next().getTitle()); // actual: A-Edited
+        assertEquals(List.of(movieB.getId()), List.copyOf(deleted.getValue())); // actual: [B]
+        assertEquals(0, repository.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Background writer should flush after the debounce window")
+    void save_WhenDebounceElapses_FlushesInBackground() {
+        repository = new WriteBehindMovieRepository(mockDelegate, 20, 1_000);
+
+        repository.save(movieA);
+
+        verify(mockDelegate, timeout(2_000).times(1)).saveBatch(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Close should durably flush pending changes")
+    void close_WhenChangesPending_FlushesThem() {
+        repository = new WriteBehindMovieRepository(mockDelegate, 60_000, 60_000);
+        repository.save(movieA);
+
+        repository.close();
+        repository = null;
+
+        verify(mockDelegate, times(1)).saveBatch(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Close should retry a failed flush after a pause and throw if it keeps failing")
+    void close_WhenFlushKeepsFailing_Throws() {
+        repository = new WriteBehindMovieRepository(mockDelegate, 60_000, 60_000);
+        doThrow(new RuntimeException("disk full")).doNothing().when(mockDelegate).saveBatch(anyCollection());
+        repository.save(movieA);
+
+        long start = System.nanoTime();
+        repository.close(); // actual: second attempt succeeds
+        verify(mockDelegate, times(2)).saveBatch(anyCollection());
+        assertTrue(System.nanoTime() - start >= 100_000_000L); // actual: waited before retrying
+
+        repository = new WriteBehindMovieRepository(mockDelegate, 60_000, 60_000);
+        doThrow(new RuntimeException("disk full")).when(mockDelegate).saveBatch(anyCollection());
+        repository.save(movieB);
+
+        assertThrows(RuntimeException.class, repository::close);
+        assertEquals(1, repository.pendingCount()); // actual: B still pending, not dropped
+        repository = null;
+    }
+
+    @Test
+    @DisplayName("findAll should surface a failed flush instead of reading stale data")
+    void findAll_WhenFlushFails_ThrowsAndKeepsChanges() {
+        repository = new WriteBehindMovieRepository(mockDelegate, 60_000, 60_000);
+        doThrow(new RuntimeException("disk full")).when(mockDelegate).saveBatch(anyCollection());
+        repository.save(movieA);
+
+        assertThrows(RuntimeException.class, repository::findAll);
+        verify(mockDelegate, never()).findAll(); // actual: the delegate's stale list is not returned
+        assertEquals(1, repository.pendingCount()); // actual: A kept for the next flush
+
+        doNothing().when(mockDelegate).saveBatch(anyCollection());
+        repository.findAll();
+        verify(mockDelegate).findAll();
+        assertEquals(0, repository.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Changes after close should be written through immediately")
+    void save_WhenClosed_WritesThrough() {
+        repository = new WriteBehindMovieRepository(mockDelegate, 60_000, 60_000);
+        repository.close();
+
+        repository.save(movieA);
+        repository.deleteById(movieB.getId());
+
+        verify(mockDelegate).save(movieA);
+        verify(mockDelegate).deleteById(movieB.getId());
+        assertEquals(0, repository.pendingCount());
+    }
+}
@@ -0,0 +1,266 @@
+package com.zhou.movies.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.zhou.movies.dto.MovieDTO;
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.repository.MovieRepository;
+import com.zhou.movies.service.index.ObjectRowStore;
+import com.zhou.movies.service.query.MovieQuery;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import com.zhou.movies.service.strategy.impl.SortByTitleStrategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stress tests for MovieServiceImpl
+ * Goal: concurrent readers always see consistent results while writers run,
+ * writers are not held off for a whole evaluation, and parallel query evaluation
+ * agrees with sequential evaluation
+ */
+class MovieServiceImplConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int MOVIES_PER_WRITER = 300;
+
+    private static final Comparator<Movie> TITLE_ORDER = new SortByTitleStrategy().comparator();
+
+    private MovieServiceImpl movieService;
+
+    @BeforeEach
+    void setUp() {
+        List<Movie> initial = List.of(
+                new Movie.Builder("A-Title", "DirectorA").year(2000).rating(5).build(),
+                new Movie.Builder("B-Title", "DirectorB").year(2020).rating(1).build(),
+                new Movie.Builder("C-Title", "DirectorC").year(2010).rating(3).build());
+        movieService = new MovieServiceImpl(new NoOpRepository(initial));
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Concurrent readers should see sorted, duplicate-free results while writers mutate")
+    void getAllMovies_UnderConcurrentWrites_ReturnsConsistentSnapshots() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> others = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < MOVIES_PER_WRITER; i++) {
+                    Movie added = movieService.addMovie(new MovieDTO(
+                            "W" + writer + "-" + i, "Director" + writer, "2001", null, null, i % 6));
+                    movieService.updateMovie(added.toBuilder().title("W" + writer + "-" + i + "-Edited").build());
+                    if (i % 3 == 0) movieService.deleteMovie(added.getId());
+                }
+                return null;
+            }));
+        }
+
+        for (int r = 0; r < READERS; r++) {
+            others.add(pool.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    assertConsistent(movieService.getAllMovies());
+                }
+                return null;
+            }));
+        }
+
+        // Query state changes concurrently too; every query still sorts by title
+        others.add(pool.submit(() -> {
+            start.await();
+            String[] queries = {null, "W1", "edited", "Title"};
+            for (int i = 0; writing.get(); i++) {
+                movieService.setSearchQuery(queries[i % queries.length]);
+            }
+            return null;
+        }));
+
+        start.countDown();
+        for (Future<?> writer : writers) writer.get(); // rethrows writer failures
+        writing.set(false);
+        for (Future<?> other : others) other.get();   // rethrows reader assertion failures
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        movieService.setSearchQuery(null);
+        List<Movie> result = movieService.getAllMovies();
+        assertConsistent(result);
+        assertEquals(3 + WRITERS * (MOVIES_PER_WRITER - MOVIES_PER_WRITER / 3), result.size()); // actual: 803
+        for (Movie movie : result) {
+            assertTrue(movie.getTitle().endsWith("-Edited") || movie.getTitle().endsWith("-Title"));
+            assertSame(movie, movieService.findMovieById(movie.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel evaluation should return exactly the sequential results")
+    void query_WhenParallelEnabled_MatchesSequentialResults() {
+        List<Movie> library = new ArrayList<>();
+        Category[] categories = Category.values();
+        for (int i = 0; i < 5_000; i++) {
+            library.add(new Movie.Builder("Movie " + (i * 7919 % 5_000), "Director" + (i % 37))
+                    .year(1950 + i % 70).rating(i % 6).category(categories[i % categories.length]).build());
+        }
+        MovieServiceImpl sequential = new MovieServiceImpl(new NoOpRepository(library));
+        MovieServiceImpl parallel = new MovieServiceImpl(new NoOpRepository(library), 1);
+
+        for (String search : new String[]{null, "9", "movie 1", "director3"}) {
+            for (SortStrategyType sortType : SortStrategyType.values()) {
+                for (SortDirection direction : SortDirection.values()) {
+                    for (Category category : new Category[]{null, Category.ACTION}) {
+                        MovieQuery query = new MovieQuery.Builder().search(search).category(category)
+                                .sortType(sortType).sortDirection(direction).build();
+                        assertEquals(sequential.query(query), parallel.query(query), query.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("A writer should get in while a long query runs, and the query should restart on the new data")
+    void query_WhenWriterWaitsMidEvaluation_LetsItInAndRestarts() throws Exception {
+        List<Movie> library = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            library.add(new Movie.Builder("Movie " + i, "Director" + (i % 37)).build());
+        }
+        Thread queryThread = Thread.currentThread();
+        AtomicReference<Movie> added = new AtomicReference<>();
+        AtomicReference<Thread> writer = new AtomicReference<>();
+
+        // Halfway through materializing the result, a writer arrives and blocks on the lock
+        AtomicInteger rowsRead = new AtomicInteger();
+        ObjectRowStore rows = new ObjectRowStore() {
+            @Override
+            public Movie get(int slot) {
+                if (Thread.currentThread() == queryThread && rowsRead.incrementAndGet() == 5_000) {
+                    Thread thread = new Thread(() -> {
+                        try {
+                            added.set(movieService.addMovie(new MovieDTO("Added", "DirectorX", "2001", null, null, 3)));
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+                    writer.set(thread);
+                    thread.start();
+                    while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return super.get(slot);
+            }
+        };
+        movieService = new MovieServiceImpl(new NoOpRepository(library), rows, MovieServiceImpl.SEQUENTIAL_ONLY);
+        rowsRead.set(0);
+
+        List<Movie> result = movieService.query(MovieQuery.ALL);
+
+        writer.get().join();
+        assertEquals(10_001, result.size()); // actual: the query started over and sees the new movie
+        assertTrue(result.contains(added.get()));
+    }
+
+    @Test
+    @DisplayName("A superseded parallel query should stop early instead of running to completion on the pool")
+    void query_WhenParallelQueryInterrupted_StopsEarly() {
+        List<Movie> library = new ArrayList<>();
+        Category[] categories = Category.values();
+        for (int i = 0; i < 20_000; i++) {
+            library.add(new Movie.Builder("Movie " + (i * 7919 % 20_000), "Director" + (i % 37))
+                    .rating(i % 6).category(categories[i % categories.length]).build());
+        }
+        Thread queryThread = Thread.currentThread();
+
+        // The caller is interrupted (superseded) once the pool has done a little work
+        AtomicInteger rowsRead = new AtomicInteger();
+        AtomicInteger comparisons = new AtomicInteger();
+        ObjectRowStore rows = new ObjectRowStore() {
+            @Override
+            public Movie get(int slot) {
+                if (rowsRead.incrementAndGet() == 100) queryThread.interrupt();
+                return super.get(slot);
+            }
+
+            @Override
+            public int compareTitlesIgnoreCase(int slotA, int slotB) {
+                if (comparisons.incrementAndGet() == 100) queryThread.interrupt();
+                return super.compareTitlesIgnoreCase(slotA, slotB);
+            }
+        };
+        MovieServiceImpl parallel = new MovieServiceImpl(new NoOpRepository(library), rows, 1);
+        MovieQuery walked = MovieQuery.ALL;
+        MovieQuery sorted = new MovieQuery.Builder().rating(3).category(Category.COMEDY).build();
+
+        try {
+            rowsRead.set(0);
+            assertThrows(CancellationException.class, () -> parallel.query(walked));
+            assertTrue(rowsRead.get() < 1_000, "rows read: " + rowsRead.get()); // actual: stops soon after 100 of 20000
+            Thread.interrupted();
+
+            comparisons.set(0);
+            assertThrows(CancellationException.class, () -> parallel.query(sorted));
+            assertTrue(comparisons.get() < 1_000, "comparisons: " + comparisons.get());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static void assertConsistent(List<Movie> result) {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < result.size(); i++) {
+            assertTrue(ids.add(result.get(i).getId()), "duplicate movie in result");
+            if (i > 0) assertTrue(TITLE_ORDER.compare(result.get(i - 1), result.get(i)) <= 0, "result not sorted");
+        }
+    }
+
+    /** Repository stub: persistence is out of scope for this test. */
+    private static class NoOpRepository implements MovieRepository {
+        private final List<Movie> initial;
+
+        NoOpRepository(List<Movie> initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public List<Movie> findAll() { return new ArrayList<>(initial); }
+
+        @Override
+        public void saveAll(List<Movie> moviesListCache) { }
+
+        @Override
+        public void save(Movie movie) { }
+
+        @Override
+        public void deleteById(String id) { }
+
+        @Override
+        public void saveBatch(Collection<Movie> movies) { }
+    }
+}
@@ -17,11 +17,16 @@ import com.zhou.movies.pojo.Category;
 import com.zhou.movies.pojo.Movie;
 import com.zhou.movies.pojo.Status;
 import com.zhou.movies.repository.MovieRepository;
+import com.zhou.movies.service.MovieChangeEvent;
+import com.zhou.movies.service.MovieService;
+import com.zhou.movies.service.Observer;
+import com.zhou.movies.service.query.MovieQuery;
 import com.zhou.movies.service.strategy.SortDirection;
 import com.zhou.movies.service.strategy.SortStrategyType;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 /**
  * Unit tests for MovieServiceImpl
@@ -36,7 +41,7 @@ class MovieServiceImplTest {
     private MovieRepository mockRepository;
 
     @Captor
-    private ArgumentCaptor<List<Movie>> movieListCaptor;
+    private ArgumentCaptor<Movie> movieCaptor;
 
     @BeforeEach
     void setUp() {
@@ -132,8 +137,8 @@ class MovieServiceImplTest {
     }
 
     @Test
-    @DisplayName("Add movie should update cache and call saveAll")
-    void addMovie_WhenCalled_UpdatesCacheAndCallsSaveAll() throws Exception {
+    @DisplayName("Add movie should update cache and save only the new movie")
+    void addMovie_WhenCalled_UpdatesCacheAndCallsSave() throws Exception {
         MovieDTO dto = new MovieDTO("D-Title", "DirectorD", "2025",
                 Category.DRAMA, Status.WANT_TO_WATCH, 4);
 
@@ -144,10 +149,276 @@ class MovieServiceImplTest {
 
         assertEquals(4, movieService.getAllMovies().size()); // actual: [A,B,C,D]
 
-        verify(mockRepository, times(1)).saveAll(movieListCaptor.capture());
-        List<Movie> savedList = movieListCaptor.getValue();
+        verify(mockRepository, times(1)).save(movieCaptor.capture());
+        verify(mockRepository, never()).saveAll(anyList()); // actual: no full-collection write
+        assertEquals("D-Title", movieCaptor.getValue().getTitle()); // actual: only D-Title persisted
+    }
+
+    @Test
+    @DisplayName("Delete movie should update cache and delete only that movie")
+    void deleteMovie_WhenCalled_UpdatesCacheAndCallsDeleteById() {
+        Movie movieToDelete = movieService.getAllMovies().get(0);
+
+        movieService.deleteMovie(movieToDelete.getId());
+
+        assertEquals(2, movieService.getAllMovies().size()); // actual: [B,C]
+        verify(mockRepository, times(1)).deleteById(movieToDelete.getId()); // actual: single delete
+        verify(mockRepository, never()).saveAll(anyList()); // actual: no full-collection write
+    }
+
+    @Test
+    @DisplayName("Edit movie should replace it by ID and keep its position")
+    void editMovie_WhenCalled_ReplacesMovieById() throws Exception {
+        Movie original = movieService.getAllMovies().get(1); // B-Title
+        MovieDTO dto = new MovieDTO("B-Edited", "DirectorB", "2021",
+                Category.COMEDY, Status.WATCHED, 2);
+
+        Movie updated = movieService.editMovie(original.getId(), dto);
+
+        assertEquals(original.getId(), updated.getId()); // actual: same ID
+        assertSame(updated, movieService.findMovieById(original.getId())); // actual: cache replaced
+        assertEquals("B-Edited", movieService.getAllMovies().get(1).getTitle()); // actual: [A, B-Edited, C]
+        verify(mockRepository, times(1)).save(updated);
+    }
+
+    @Test
+    @DisplayName("Edit movie should fail for unknown ID")
+    void editMovie_WhenIdUnknown_ThrowsException() {
+        MovieDTO dto = new MovieDTO("X", "Y", "2000", null, null, 1);
+
+        Exception exception = assertThrows(Exception.class, () -> movieService.editMovie("missing-id", dto));
+
+        assertEquals("Movie not found with id: missing-id", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Repeated queries should be served from the result cache until data changes")
+    void getAllMovies_WhenQueryRepeated_ReturnsCachedResultUntilMutation() throws Exception {
+        List<Movie> first = movieService.getAllMovies();
+        movieService.setSortStrategy(SortStrategyType.YEAR);
+        movieService.setSortStrategy(SortStrategyType.TITLE); // toggle back to previous view
+
+        assertSame(first, movieService.getAllMovies()); // actual: memoized result reused
+
+        movieService.addMovie(new MovieDTO("D-Title", "DirectorD", "2025", null, null, 4));
+        List<Movie> afterAdd = movieService.getAllMovies();
+
+        assertNotSame(first, afterAdd); // actual: data version changed
+        assertEquals(4, afterAdd.size()); // actual: [A,B,C,D]
+        assertThrows(UnsupportedOperationException.class, () -> afterAdd.remove(0)); // shared list is read-only
+    }
+
+    @Test
+    @DisplayName("Sorted view should be patched on edit and reversed on direction flip")
+    void getAllMovies_WhenMovieEditedUnderSort_ReflectsNewPosition() throws Exception {
+        movieService.setSortStrategy(SortStrategyType.YEAR);
+        Movie movieA = movieService.getAllMovies().get(0); // A-Title(2000)
+
+        movieService.editMovie(movieA.getId(), new MovieDTO("A-Title", "DirectorA", "2030",
+                Category.ACTION, null, 5));
+        List<Movie> ascending = movieService.getAllMovies();
+
+        assertEquals("C-Title", ascending.get(0).getTitle()); // actual year=2010
+        assertEquals("B-Title", ascending.get(1).getTitle()); // actual year=2020
+        assertEquals("A-Title", ascending.get(2).getTitle()); // actual year=2030
+
+        movieService.setSortDirection(SortDirection.DESCENDING);
+        List<Movie> descending = movieService.getAllMovies();
+
+        assertEquals("A-Title", descending.get(0).getTitle()); // actual year=2030
+        assertEquals("C-Title", descending.get(2).getTitle()); // actual year=2010
+    }
+
+    @Test
+    @DisplayName("Mutations should notify observers with row positions in the current result")
+    void mutations_WhenResultIsCurrent_NotifyObserversWithPositions() throws Exception {
+        Observer mockObserver = mock(Observer.class);
+        ArgumentCaptor<MovieChangeEvent> eventCaptor = ArgumentCaptor.forClass(MovieChangeEvent.class);
+        movieService.addObserver(mockObserver);
+        List<Movie> initial = movieService.getAllMovies(); // [A, B, C] by title
+
+        Movie added = movieService.addMovie(new MovieDTO("AA-Title", "DirectorD", "2025", null, null, 4));
+        movieService.editMovie(initial.get(1).getId(), new MovieDTO("Z-Title", "DirectorB", "2020",
+                Category.COMEDY, null, 1));
+        movieService.deleteMovie(initial.get(0).getId());
+
+        verify(mockObserver, times(3)).update(eventCaptor.capture());
+        List<MovieChangeEvent> events = eventCaptor.getAllValues();
+
+        assertEquals(MovieChangeEvent.Type.INSERTED, events.get(0).getType());
+        assertEquals(added.getId(), events.get(0).getMovieId());
+        assertEquals(1, events.get(0).getToPosition()); // actual: [A, AA, B, C]
+
+        assertEquals(MovieChangeEvent.Type.UPDATED, events.get(1).getType());
+        assertEquals(2, events.get(1).getFromPosition()); // actual: B was third
+        assertEquals(3, events.get(1).getToPosition()); // actual: [A, AA, C, Z]
+
+        assertEquals(MovieChangeEvent.Type.DELETED, events.get(2).getType());
+        assertEquals(0, events.get(2).getFromPosition()); // actual: A was first
+
+        List<Movie> result = movieService.getAllMovies(); // served from the patched result
+        assertEquals(List.of("AA-Title", "C-Title", "Z-Title"),
+                result.stream().map(Movie::getTitle).toList());
+
+        // Each delta names the result it patched, so observers can tell whether it fits theirs
+        assertTrue(events.get(0).appliesTo(initial));
+        assertTrue(events.get(1).appliesTo(events.get(0).getResult()));
+        assertFalse(events.get(2).appliesTo(initial)); // actual: stale table must re-query
+        assertSame(result, events.get(2).getResult());
+    }
+
+    @Test
+    @DisplayName("Query setters should notify observers with QUERY_CHANGED")
+    void setFilterCategory_WhenCalled_NotifiesQueryChanged() {
+        Observer mockObserver = mock(Observer.class);
+        movieService.addObserver(mockObserver);
+
+        movieService.setFilterCategory(Category.ACTION);
+
+        verify(mockObserver, times(1)).update(MovieChangeEvent.queryChanged());
+    }
+
+    @Test
+    @DisplayName("Query on an interrupted thread should be abandoned without caching")
+    void getAllMovies_WhenThreadInterrupted_ThrowsCancellation() {
+        Thread.currentThread().interrupt(); // a newer query cancelled this one
+        try {
+            assertThrows(CancellationException.class, () -> movieService.getAllMovies());
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(3, movieService.getAllMovies().size()); // actual: next query runs normally
+    }
+
+    @Test
+    @DisplayName("Extended search should narrow the previous matches")
+    void setSearchQuery_WhenQueryExtendsPrevious_ReturnsNarrowedMatches() {
+        movieService.setSearchQuery("title");
+        assertEquals(3, movieService.getAllMovies().size()); // actual: A, B, C
+
+        movieService.setSearchQuery("B-Title");
+        List<Movie> result = movieService.getAllMovies();
+
+        assertEquals(1, result.size());
+        assertEquals("B-Title", result.get(0).getTitle());
+    }
+
+    @Test
+    @DisplayName("Extended search after a data change should not reuse stale matches")
+    void setSearchQuery_WhenDataChangedSincePreviousSearch_IncludesNewMovies() throws Exception {
+        movieService.setSearchQuery("Tit");
+        movieService.getAllMovies();
+        movieService.addMovie(new MovieDTO("New Title", "DirectorN", "2024", null, null, 3));
+
+        movieService.setSearchQuery("Title");
+        List<Movie> result = movieService.getAllMovies();
+
+        assertEquals(4, result.size()); // actual: A, B, C and the new movie
+    }
 
-        assertEquals(4, savedList.size()); // actual: list saved with 4 movies
-        assertTrue(savedList.stream().anyMatch(m -> m.getTitle().equals("D-Title"))); // actual: true
+    @Test
+    @DisplayName("Stateless query should evaluate its own spec without touching the session query")
+    void query_WhenCalledWithSpec_LeavesSessionQueryUnchanged() {
+        movieService.setSortStrategy(SortStrategyType.YEAR);
+        MovieQuery actionByRating = new MovieQuery.Builder()
+                .category(Category.ACTION)
+                .sortType(SortStrategyType.RATING)
+                .sortDirection(SortDirection.DESCENDING)
+                .build();
+
+        List<Movie> result = movieService.query(actionByRating);
+
+        assertEquals(List.of("A-Title", "C-Title"), result.stream().map(Movie::getTitle).toList()); // actual: 5, 3
+        assertEquals(SortStrategyType.YEAR, movieService.getCurrentQuery().getSortType());
+        assertEquals(List.of("A-Title", "C-Title", "B-Title"), // actual: session sorts by year
+                movieService.getAllMovies().stream().map(Movie::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("Mutations in a batch should be persisted in one write and announced once")
+    void runBatch_WhenSeveralMutations_PersistsAndNotifiesOnce() throws Exception {
+        Observer mockObserver = mock(Observer.class);
+        movieService.addObserver(mockObserver);
+        List<Movie> movies = movieService.getAllMovies(); // A, B, C
+
+        movieService.runBatch(() -> {
+            movieService.deleteMovie(movies.get(0).getId());
+            movieService.deleteMovie(movies.get(1).getId());
+            movieService.addMovie(new MovieDTO("D-Title", "DirectorD", "2024", null, null, 2));
+        });
+
+        verify(mockRepository, times(1)).deleteBatch(argThat(ids -> ids.size() == 2
+                && ids.contains(movies.get(0).getId()) && ids.contains(movies.get(1).getId())));
+        verify(mockRepository, times(1)).saveBatch(anyCollection());
+        verify(mockRepository, never()).deleteById(anyString()); // actual: no per-row writes
+        verify(mockRepository, never()).save(any());
+        verify(mockObserver, times(1)).update(MovieChangeEvent.queryChanged()); // actual: one table refresh
+        assertEquals(List.of("C-Title", "D-Title"), movieService.getAllMovies().stream().map(Movie::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("A batch whose changes were undone within it should not write anything")
+    void runBatch_WhenChangesRolledBack_SkipsUnchangedMovies() throws Exception {
+        Observer mockObserver = mock(Observer.class);
+        movieService.addObserver(mockObserver);
+        Movie movieA = movieService.getAllMovies().get(0);
+
+        movieService.runBatch(() -> {
+            movieService.updateMovie(movieA.toBuilder().title("A-Edited").build());
+            movieService.deleteMovie(movieA.getId());
+            movieService.addMovieObject(movieA); // rollback restores the original
+            Movie added = movieService.addMovie(new MovieDTO("D-Title", "DirectorD", "2024", null, null, 2));
+            movieService.deleteMovie(added.getId());
+        });
+
+        verify(mockRepository, never()).saveBatch(anyCollection()); // actual: no net change, no rewrite
+        verify(mockRepository, never()).deleteBatch(anyCollection());
+        verify(mockObserver, times(1)).update(MovieChangeEvent.queryChanged()); // actual: the index still changed order
+    }
+
+    @Test
+    @DisplayName("A persistence failure after a failed batch should not hide the batch's own failure")
+    void runBatch_WhenOperationAndPersistenceFail_KeepsOperationFailure() {
+        doThrow(new RuntimeException("disk full")).when(mockRepository).saveBatch(anyCollection());
+        Exception operationFailure = new Exception("Movie not found");
+
+        Exception thrown = assertThrows(Exception.class, () -> movieService.runBatch(() -> {
+            movieService.addMovie(new MovieDTO("D-Title", "DirectorD", "2024", null, null, 2));
+            throw operationFailure;
+        }));
+
+        assertSame(operationFailure, thrown);
+        assertEquals("disk full", thrown.getSuppressed()[0].getMessage()); // actual: attached, not replacing
+    }
+
+    @Test
+    @DisplayName("Streaming a query should hand out its result in order and stop when asked")
+    void streamQuery_WhenFilteredAndSorted_StreamsResultInOrder() throws Exception {
+        MovieQuery actionByRating = new MovieQuery.Builder().category(Category.ACTION)
+                .sortType(SortStrategyType.RATING).sortDirection(SortDirection.DESCENDING).build();
+        List<String> streamed = new ArrayList<>();
+        int[] announced = new int[1];
+
+        movieService.streamQuery(actionByRating, new MovieService.ResultConsumer() {
+            @Override
+            public void begin(int total) { announced[0] = total; }
+
+            @Override
+            public boolean accept(Movie movie) {
+                streamed.add(movie.getTitle());
+                return true;
+            }
+        });
+
+        assertEquals(2, announced[0]);
+        assertEquals(movieService.query(actionByRating).stream().map(Movie::getTitle).toList(), streamed); // actual: A, C
+
+        streamed.clear();
+        movieService.streamQuery(MovieQuery.ALL, movie -> {
+            streamed.add(movie.getTitle());
+            return false;
+        });
+        assertEquals(List.of("A-Title"), streamed); // actual: stopped after the first movie
     }
 }
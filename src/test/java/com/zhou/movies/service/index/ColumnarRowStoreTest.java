@@ -0,0 +1,163 @@
+package com.zhou.movies.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import com.zhou.movies.service.strategy.impl.SortByRatingStrategy;
+import com.zhou.movies.service.strategy.impl.SortByTitleStrategy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Unit tests for ColumnarRowStore
+ * Goal: verify rows round-trip through the primitive columns and behave like the object store
+ */
+class ColumnarRowStoreTest {
+
+    private ColumnarRowStore store;
+    private Movie movieA;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarRowStore();
+        movieA = new Movie.Builder("A-Title", "DirectorA").year(1999).rating(4)
+                .category(Category.ACTION).status(Status.WATCHED).build();
+    }
+
+    @Test
+    @DisplayName("Stored movie should be materialized with identical fields")
+    void get_WhenRowStored_MaterializesEqualMovie() {
+        Movie sparse = new Movie.Builder(null, null).build(); // nulls everywhere
+        int slotA = store.append(movieA);
+        int slotSparse = store.append(sparse);
+
+        Movie copy = store.get(slotA);
+        assertNotSame(movieA, copy); // actual: built on read
+        assertEquals(movieA.getId(), copy.getId());
+        assertEquals(movieA.toString(), copy.toString()); // actual: every field equal
+        assertEquals(sparse.toString(), store.get(slotSparse).toString());
+    }
+
+    @Test
+    @DisplayName("IDs should resolve through the UUID index and the fallback map")
+    void slotOf_WhenUuidOrOtherId_ResolvesUntilDeleted() {
+        Movie legacy = new Movie.Builder("legacy-42", "Old", "Timer").build(); // not a UUID
+        int slotA = store.append(movieA);
+        int slotLegacy = store.append(legacy);
+
+        assertEquals(slotA, store.slotOf(movieA.getId()));
+        assertEquals(slotLegacy, store.slotOf("legacy-42"));
+        assertEquals("legacy-42", store.get(slotLegacy).getId());
+        assertEquals(-1, store.slotOf(movieA.getId().toUpperCase())); // actual: not the same ID string
+
+        store.delete(slotA);
+        assertEquals(-1, store.slotOf(movieA.getId()));
+        assertNull(store.get(slotA));
+        assertEquals(slotLegacy, store.slotOf("legacy-42")); // actual: other rows unaffected
+    }
+
+    @Test
+    @DisplayName("ID index should survive many inserts and deletes")
+    void slotOf_AfterManyInsertsAndDeletes_FindsEveryLiveRow() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Movie movie = new Movie.Builder("T" + i, "D" + (i % 10)).build();
+            movies.add(movie);
+            store.append(movie);
+            if (i % 2 == 1) store.delete(store.slotOf(movies.get(i - 1).getId()));
+        }
+
+        for (int i = 0; i < movies.size(); i++) {
+            assertEquals(i % 2 == 0 ? -1 : i, store.slotOf(movies.get(i).getId()));
+        }
+        assertEquals(2_010, store.distinctStrings()); // actual: 2000 titles + 10 shared directors
+    }
+
+    @Test
+    @DisplayName("Title comparison should agree with the case-insensitive string order")
+    void compareTitlesIgnoreCase_WhenAsciiOrNot_MatchesStringOrder() {
+        String[] titles = {"alpha", "Alpha", "ALPHABET", "beta", "Ärger", "zebra", "Ähre", "a"};
+        for (String title : titles) store.append(new Movie.Builder(title, "D").build());
+
+        for (int a = 0; a < titles.length; a++) {
+            for (int b = 0; b < titles.length; b++) {
+                int expected = Integer.signum(String.CASE_INSENSITIVE_ORDER.compare(titles[a], titles[b]));
+                assertEquals(expected, Integer.signum(store.compareTitlesIgnoreCase(a, b)), titles[a] + " vs " + titles[b]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Index over columnar rows should filter and sort like the object store")
+    void movieIndex_WhenBackedByColumns_MatchesObjectStore() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            movies.add(new Movie.Builder("Movie " + (i * 37 % 500), "Director" + (i % 7))
+                    .rating(i % 6).category(Category.values()[i % Category.values().length]).build());
+        }
+        MovieIndex objects = new MovieIndex(new ObjectRowStore(), movies);
+        MovieIndex columns = new MovieIndex(new ColumnarRowStore(), movies);
+        for (int i = 0; i < 500; i += 3) {
+            objects.remove(movies.get(i).getId());
+            columns.remove(movies.get(i).getId());
+        }
+
+        assertEquals(objects.select(Category.ACTION, null, 3), columns.select(Category.ACTION, null, 3));
+        assertEquals(objects.search("ovie 1", objects.select(null, null, null)),
+                columns.search("ovie 1", columns.select(null, null, null)));
+        assertEquals(slotsInOrder(objects.sortedView(SortStrategyType.TITLE, new SortByTitleStrategy())),
+                slotsInOrder(columns.sortedView(SortStrategyType.TITLE, new SortByTitleStrategy())));
+        assertEquals(slotsInOrder(objects.sortedView(SortStrategyType.RATING, new SortByRatingStrategy())),
+                slotsInOrder(columns.sortedView(SortStrategyType.RATING, new SortByRatingStrategy())));
+    }
+
+    private static List<Integer> slotsInOrder(SortedView view) {
+        List<Integer> slots = new ArrayList<>();
+        Iterator<Integer> iterator = view.iterator(SortDirection.DESCENDING);
+        while (iterator.hasNext()) slots.add(iterator.next());
+        return slots;
+    }
+
+    @Test
+    @DisplayName("Compaction should move live rows down in order and keep only their strings pooled")
+    void compact_WhenRowsDeleted_KeepsLiveRowsAndTheirStrings() {
+        Movie legacy = new Movie.Builder("legacy-42", "Old", "Timer").build();
+        int slotA = store.append(movieA);
+        store.append(new Movie.Builder("Gone", "Nobody").build());
+        store.append(legacy);
+        store.delete(slotA + 1);
+
+        store.compact();
+
+        assertEquals(2, store.slotCount());
+        assertEquals(movieA.toString(), store.get(0).toString());
+        assertEquals(legacy.toString(), store.get(1).toString());
+        assertEquals(1, store.slotOf("legacy-42"));
+        assertEquals(0, store.slotOf(movieA.getId()));
+        assertEquals(4, store.distinctStrings()); // actual: "Gone" and "Nobody" dropped
+    }
+
+    @Test
+    @DisplayName("Substring search should ignore case on ASCII and non-ASCII strings alike")
+    void containsIgnoreCase_WhenMixedCase_MatchesLikeLowercasedText() {
+        int slotA = store.append(movieA); // "A-Title", "DirectorA"
+        int slotUmlaut = store.append(new Movie.Builder("ÄRGER im Paradies", null).build());
+
+        assertTrue(store.containsIgnoreCase(slotA, "a-ti"));
+        assertTrue(store.containsIgnoreCase(slotA, "ctora")); // actual: matched in the director
+        assertFalse(store.containsIgnoreCase(slotA, "title-"));
+        assertTrue(store.containsIgnoreCase(slotUmlaut, "ärger"));
+        assertTrue(store.containsIgnoreCase(slotUmlaut, "paradies"));
+        assertFalse(store.containsIgnoreCase(slotUmlaut, "director")); // actual: null director never matches
+        assertTrue(store.containsIgnoreCase(slotUmlaut, "")); // actual: empty query matches everything
+    }
+}
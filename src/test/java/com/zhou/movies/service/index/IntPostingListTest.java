@@ -0,0 +1,65 @@
+package com.zhou.movies.service.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Unit tests for IntPostingList
+ * Goal: verify the delta-encoded blocks behave like a sorted set of slots under appends, inserts and removals
+ */
+class IntPostingListTest {
+
+    @Test
+    @DisplayName("Random adds and removals should match a sorted set")
+    void cursor_WhenManyRandomChanges_MatchesSortedSet() {
+        IntPostingList list = new IntPostingList();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+
+        for (int slot = 0; slot < 20_000; slot += 1 + random.nextInt(300)) { // appends, some gaps need several bytes
+            list.add(slot);
+            expected.add(slot);
+        }
+        for (int i = 0; i < 5000; i++) { // inserts and removals inside existing blocks
+            int slot = random.nextInt(25_000);
+            if (random.nextBoolean()) {
+                list.add(slot);
+                expected.add(slot);
+            } else {
+                list.remove(slot);
+                expected.remove(slot);
+            }
+        }
+
+        assertEquals(expected.size(), list.size());
+        IntPostingList.Cursor cursor = list.cursor();
+        for (int target = 0; target <= 25_001; target += 1 + random.nextInt(50)) {
+            Integer ceiling = expected.ceiling(target);
+            assertEquals(ceiling == null ? -1 : ceiling, cursor.seek(target)); // actual: forward seeks skip blocks
+        }
+        for (int slot = 0; slot < 25_000; slot += 97) {
+            assertEquals(expected.contains(slot), list.contains(slot));
+        }
+        assertEquals(expected.subSet(3000, 17_000).size(), list.count(3000, 17_000));
+    }
+
+    @Test
+    @DisplayName("Removing every slot should leave an empty list")
+    void remove_WhenAllSlotsRemoved_IsEmpty() {
+        IntPostingList list = new IntPostingList();
+        for (int slot = 0; slot < 1000; slot++) list.add(slot);
+        list.add(500); // actual: already present, ignored
+        assertEquals(1000, list.size());
+
+        for (int slot = 999; slot >= 0; slot--) list.remove(slot);
+
+        assertTrue(list.isEmpty());
+        assertEquals(-1, list.cursor().seek(0));
+        assertFalse(list.contains(0));
+        assertEquals(0, list.count(0, 1000));
+    }
+}
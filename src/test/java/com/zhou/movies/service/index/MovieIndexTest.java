@@ -0,0 +1,180 @@
+package com.zhou.movies.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import com.zhou.movies.service.strategy.impl.SortByYearStrategy;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for MovieIndex
+ * Goal: verify secondary indexes stay consistent across add/replace/remove
+ */
+class MovieIndexTest {
+
+    private MovieIndex index;
+    private Movie movieA;
+    private Movie movieB;
+    private Movie movieC;
+
+    @BeforeEach
+    void setUp() {
+        movieA = new Movie.Builder("A-Title", "DirectorA").rating(5)
+                .category(Category.ACTION).status(Status.WATCHED).build();
+        movieB = new Movie.Builder("B-Title", "DirectorB").rating(1)
+                .category(Category.COMEDY).status(Status.WATCHED).build();
+        movieC = new Movie.Builder("C-Title", "DirectorC").rating(5)
+                .category(Category.ACTION).status(Status.WATCHING).build();
+
+        index = new MovieIndex(List.of(movieA, movieB, movieC));
+    }
+
+    private List<Movie> rowsOf(BitSet slots) {
+        List<Movie> movies = new ArrayList<>();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            movies.add(index.row(slot));
+        }
+        return movies;
+    }
+
+    @Test
+    @DisplayName("Combined filters should intersect category, status and rating")
+    void select_WhenCombinedFilters_ReturnsIntersection() {
+        assertEquals(List.of(movieA, movieC), rowsOf(index.select(Category.ACTION, null, null)));
+        assertEquals(List.of(movieA), rowsOf(index.select(Category.ACTION, Status.WATCHED, 5)));
+        assertEquals(List.of(), rowsOf(index.select(Category.COMEDY, null, 5)));
+    }
+
+    @Test
+    @DisplayName("Replace should move the movie between index buckets")
+    void replace_WhenFieldsChange_UpdatesIndexes() {
+        Movie editedB = movieB.toBuilder().category(Category.ACTION).rating(5).build();
+
+        assertTrue(index.replace(editedB));
+
+        assertEquals(List.of(movieA, editedB, movieC), rowsOf(index.select(Category.ACTION, null, 5)));
+        assertEquals(List.of(), rowsOf(index.select(Category.COMEDY, null, null)));
+    }
+
+    @Test
+    @DisplayName("Remove should drop the movie from every index")
+    void remove_WhenCalled_ClearsSlotEverywhere() {
+        assertEquals(movieA, index.remove(movieA.getId()));
+
+        assertNull(index.get(movieA.getId()));
+        assertEquals(2, index.size());
+        assertEquals(List.of(movieC), rowsOf(index.select(Category.ACTION, null, null)));
+    }
+
+    @Test
+    @DisplayName("Compaction after many deletes should keep order and indexes")
+    void remove_WhenManyDeleted_CompactsAndKeepsOrder() {
+        SortedView view = index.sortedView(SortStrategyType.YEAR, new SortByYearStrategy()); // built before compacting
+        List<String> extraIds = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Movie extra = new Movie.Builder("X" + i, "D").category(Category.DRAMA).build();
+            index.add(extra);
+            extraIds.add(extra.getId());
+        }
+        for (String id : extraIds) index.remove(id);
+
+        assertEquals(List.of(movieA, movieB, movieC), index.movies());
+        assertEquals(List.of(movieA, movieC), rowsOf(index.select(Category.ACTION, null, null)));
+        assertEquals(List.of(), rowsOf(index.select(Category.DRAMA, null, null)));
+        assertTrue(index.compactionCount() > 0);
+        assertTrue(index.slotCount() < 3003); // actual: deleted slots dropped
+        assertEquals(List.of(movieB), rowsOf(index.search("b-title", index.select(null, null, null))));
+        assertEquals(3, view.size()); // actual: view refilled with the new slots
+    }
+
+    @Test
+    @DisplayName("Search should match title or director through trigram postings")
+    void search_WhenQueryHasTrigrams_ReturnsVerifiedMatches() {
+        BitSet all = index.select(null, null, null);
+
+        assertEquals(List.of(movieB), rowsOf(index.search("b-title", all))); // title match
+        assertEquals(List.of(movieA, movieB, movieC), rowsOf(index.search("director", all))); // director match
+        assertEquals(List.of(), rowsOf(index.search("titled", all))); // trigrams present, no substring
+    }
+
+    @Test
+    @DisplayName("Short queries and filtered candidates should still be honoured")
+    void search_WhenShortQueryOrFiltered_ReturnsCandidatesOnly() {
+        assertEquals(List.of(movieC), rowsOf(index.search("c-", index.select(null, null, null))));
+        assertEquals(List.of(movieA, movieC), rowsOf(index.search("title", index.select(Category.ACTION, null, null))));
+    }
+
+    @Test
+    @DisplayName("Search postings should follow edits and deletes")
+    void search_AfterReplaceAndRemove_UsesCurrentTitles() {
+        index.replace(movieA.toBuilder().title("Inception").build());
+        index.remove(movieC.getId());
+        BitSet all = index.select(null, null, null);
+
+        assertEquals(1, rowsOf(index.search("incep", all)).size()); // actual: edited A
+        assertEquals(List.of(movieB), rowsOf(index.search("title", all))); // actual: A renamed, C deleted
+    }
+
+    @Test
+    @DisplayName("Chunked parallel search should merge to the sequential result")
+    void search_WhenSplitIntoChunks_MatchesSequentialSearch() {
+        for (int i = 0; i < 20; i++) {
+            index.add(new Movie.Builder("Extra-" + i, "Director" + (i % 3)).build());
+        }
+        BitSet all = index.select(null, null, null);
+
+        for (String query : new String[]{"ti", "title", "director1", "extra-1"}) {
+            assertEquals(index.search(query, all), index.search(query, all, ForkJoinPool.commonPool(), 4), query);
+        }
+    }
+
+    @Test
+    @DisplayName("Sorted views should stay in order through block splits, edits and removals")
+    void sortedView_WhenManyRowsChange_KeepsStrategyOrder() {
+        SortByYearStrategy strategy = new SortByYearStrategy();
+        SortedView view = index.sortedView(SortStrategyType.YEAR, strategy); // built before the changes
+        List<Movie> movies = new ArrayList<>(List.of(movieA, movieB, movieC));
+        for (int i = 0; i < 5_000; i++) {
+            Movie movie = new Movie.Builder("Movie " + i, "Director" + (i % 7)).year(1900 + i * 37 % 120).build();
+            movies.add(movie);
+            index.add(movie);
+        }
+        for (int i = 3; i < movies.size(); i += 3) {
+            index.remove(movies.get(i).getId());
+        }
+        for (int i = 4; i < movies.size(); i += 3) {
+            Movie edited = movies.get(i).toBuilder().year(2030 - i % 50).build();
+            movies.set(i, edited);
+            index.replace(edited);
+        }
+
+        List<Movie> expected = new ArrayList<>();
+        for (int i = 0; i < movies.size(); i++) {
+            if (i < 3 || i % 3 != 0) expected.add(movies.get(i));
+        }
+        expected.sort(strategy.comparator()); // stable: ties keep insertion order, like the view
+
+        List<Movie> ascending = new ArrayList<>();
+        PrimitiveIterator.OfInt slots = view.iterator(SortDirection.ASCENDING);
+        while (slots.hasNext()) ascending.add(index.row(slots.nextInt()));
+        assertEquals(expected, ascending);
+        assertEquals(expected.size(), view.size());
+
+        List<Movie> descending = new ArrayList<>(view.stream(SortDirection.DESCENDING).mapToObj(index::row).toList());
+        Collections.reverse(descending);
+        assertEquals(expected, descending); // actual: same blocks read backwards
+    }
+}
@@ -0,0 +1,199 @@
+package com.zhou.movies.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.pojo.Status;
+import com.zhou.movies.repository.MovieRepository;
+import com.zhou.movies.service.impl.MovieServiceImpl;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+import com.zhou.movies.service.strategy.impl.SortByTitleStrategy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unit tests for PagedRowStore
+ * Goal: verify rows round-trip through the mapped files, survive a clean reopen
+ * and stay readable with only a few pages resident
+ */
+class PagedRowStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Movie movieA;
+
+    @BeforeEach
+    void setUp() {
+        movieA = new Movie.Builder("A-Title", "DirectorA").year(1999).rating(4)
+                .category(Category.ACTION).status(Status.WATCHED).build();
+    }
+
+    @Test
+    @DisplayName("Stored, replaced and deleted rows should read back like the object store")
+    void get_WhenRowsChanged_ReturnsCurrentRows() {
+        try (PagedRowStore store = new PagedRowStore(tempDir)) {
+            Movie legacy = new Movie.Builder("legacy-42", "Ärger", null).build(); // not a UUID, no director
+            int slotA = store.append(movieA);
+            int slotLegacy = store.append(legacy);
+
+            assertEquals(movieA.toString(), store.get(slotA).toString());
+            assertEquals(legacy.toString(), store.get(slotLegacy).toString());
+            assertEquals(slotLegacy, store.slotOf("legacy-42"));
+
+            Movie edited = movieA.toBuilder().title("A-Edited").rating(2).status(null).build();
+            store.set(slotA, edited);
+            assertEquals(edited.toString(), store.get(slotA).toString());
+
+            store.delete(slotLegacy);
+            assertNull(store.get(slotLegacy));
+            assertEquals(-1, store.slotOf("legacy-42"));
+            assertEquals(slotA, store.slotOf(movieA.getId())); // actual: other rows unaffected
+        }
+    }
+
+    @Test
+    @DisplayName("Reopening cleanly closed files should keep rows, and unclean files should be discarded")
+    void open_WhenCleanOrNot_KeepsOrDropsRows() {
+        PagedRowStore store = new PagedRowStore(tempDir);
+        store.append(movieA);
+        int deleted = store.append(new Movie.Builder("B-Title", "DirectorB").build());
+        store.delete(deleted);
+        store.close();
+
+        PagedRowStore reopened = new PagedRowStore(tempDir);
+        assertEquals(2, reopened.slotCount()); // actual: deleted slot kept until compaction
+        assertEquals(movieA.toString(), reopened.get(reopened.slotOf(movieA.getId())).toString());
+        assertNull(reopened.get(deleted));
+        reopened.append(new Movie.Builder("C-Title", "DirectorC").build()); // marks the files dirty
+        // simulated crash: no close()
+
+        try (PagedRowStore afterCrash = new PagedRowStore(tempDir)) {
+            assertEquals(0, afterCrash.slotCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Rows should stay readable with only two pages mapped per file")
+    void get_WhenLibraryExceedsResidentPages_EvictsAndRemaps() {
+        try (PagedRowStore store = new PagedRowStore(tempDir, 2)) {
+            List<Movie> movies = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                Movie movie = new Movie.Builder("Movie " + i + " with a fairly long title", "Director" + (i % 50))
+                        .year(1900 + i % 120).rating(i % 6).build();
+                movies.add(movie);
+                store.append(movie);
+            }
+
+            for (int i = movies.size() - 1; i >= 0; i -= 7) {
+                assertEquals(i, store.slotOf(movies.get(i).getId()));
+                assertEquals(movies.get(i).toString(), store.get(i).toString());
+            }
+            assertTrue(store.residentPages() <= 4); // actual: 2 record pages + 2 string pages
+        }
+    }
+
+    @Test
+    @DisplayName("Compaction should move live rows down in order and drop the heap space of the others")
+    void compact_WhenRowsDeletedAndReplaced_KeepsLiveRowsAndShrinksHeap() throws Exception {
+        List<Movie> kept = new ArrayList<>();
+        String padding = " " + "x".repeat(500); // spreads the heap over several pages
+        try (PagedRowStore store = new PagedRowStore(tempDir)) {
+            for (int i = 0; i < 200; i++) {
+                String id = i % 50 == 0 ? "legacy-" + i : UUID.randomUUID().toString(); // a few IDs that are not UUIDs
+                Movie movie = new Movie.Builder(id, "Movie " + i + padding, "Director" + i).rating(i % 6).build();
+                int slot = store.append(movie);
+                if (i % 3 == 0) {
+                    Movie edited = movie.toBuilder().title("Movie " + i + " (edited)" + padding).build();
+                    store.set(slot, edited); // leaves the old title behind in the heap
+                    kept.add(edited);
+                } else {
+                    store.delete(slot);
+                }
+            }
+            long heapBefore = Files.size(tempDir.resolve(PagedRowStore.STRINGS_FILE));
+
+            store.compact();
+
+            assertEquals(kept.size(), store.slotCount());
+            for (int slot = 0; slot < kept.size(); slot++) {
+                assertEquals(kept.get(slot).toString(), store.get(slot).toString()); // actual: order kept
+                assertEquals(slot, store.slotOf(kept.get(slot).getId()));
+            }
+            assertTrue(Files.size(tempDir.resolve(PagedRowStore.STRINGS_FILE)) < heapBefore);
+            assertFalse(Files.exists(tempDir.resolve(PagedRowStore.COMPACT_STRINGS_FILE)));
+
+            store.append(movieA); // the heap file in use is the compacted one
+            assertEquals(movieA.toString(), store.get(store.slotOf(movieA.getId())).toString());
+        }
+
+        try (PagedRowStore reopened = new PagedRowStore(tempDir)) {
+            assertEquals(kept.size() + 1, reopened.slotCount()); // actual: compacted files reopen clean
+            assertEquals(kept.get(0).toString(), reopened.get(0).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Index over a reopened store should match an index built from the movies")
+    void movieIndex_WhenStoreReopened_IndexesStoredRows() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            movies.add(new Movie.Builder("Movie " + (i * 37 % 300), "Director" + (i % 7))
+                    .rating(i % 6).category(Category.values()[i % Category.values().length]).build());
+        }
+        PagedRowStore store = new PagedRowStore(tempDir);
+        MovieIndex written = new MovieIndex(store, movies);
+        written.remove(movies.get(5).getId());
+        store.close();
+
+        MovieIndex expected = new MovieIndex(movies);
+        expected.remove(movies.get(5).getId());
+        try (PagedRowStore reopened = new PagedRowStore(tempDir)) {
+            MovieIndex index = new MovieIndex(reopened);
+
+            assertEquals(299, index.size());
+            assertEquals(expected.select(Category.ACTION, null, 3), index.select(Category.ACTION, null, 3));
+            assertEquals(expected.search("ovie 1", expected.select(null, null, null)),
+                    index.search("ovie 1", index.select(null, null, null)));
+            assertEquals(slotsInOrder(expected.sortedView(SortStrategyType.TITLE, new SortByTitleStrategy())),
+                    slotsInOrder(index.sortedView(SortStrategyType.TITLE, new SortByTitleStrategy())));
+        }
+    }
+
+    @Test
+    @DisplayName("Service over a reopened store should serve its rows without loading the repository")
+    void movieService_WhenStoreReopened_SkipsRepositoryLoad() {
+        MovieRepository repository = mock(MovieRepository.class);
+        when(repository.findAll()).thenReturn(List.of(movieA));
+        PagedRowStore store = new PagedRowStore(tempDir);
+        new MovieServiceImpl(repository, store, MovieServiceImpl.SEQUENTIAL_ONLY); // empty store: filled from the repository
+        store.close();
+
+        MovieRepository untouched = mock(MovieRepository.class);
+        try (PagedRowStore reopened = new PagedRowStore(tempDir)) {
+            MovieServiceImpl service = new MovieServiceImpl(untouched, reopened, MovieServiceImpl.SEQUENTIAL_ONLY);
+
+            assertEquals(List.of(movieA), service.getAllMovies());
+            verify(untouched, never()).findAll();
+        }
+    }
+
+    private static List<Integer> slotsInOrder(SortedView view) {
+        List<Integer> slots = new ArrayList<>();
+        Iterator<Integer> iterator = view.iterator(SortDirection.ASCENDING);
+        while (iterator.hasNext()) slots.add(iterator.next());
+        return slots;
+    }
+}
@@ -0,0 +1,50 @@
+package com.zhou.movies.service.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for SlotSort
+ * Goal: verify the primitive slot sorts are stable, agree with a boxed sort and honour their checkpoint
+ */
+class SlotSortTest {
+
+    private final int[] keys = new Random(11).ints(50_000, 0, 300).toArray(); // many ties
+    private final SlotComparator byKey = (a, b) -> Integer.compare(keys[a], keys[b]);
+
+    @Test
+    @DisplayName("Sequential and parallel sorts should match a stable boxed sort, ties in slot order")
+    void sort_WhenManyTies_MatchesStableBoxedSort() {
+        int[] slots = new Random(3).ints(0, keys.length).distinct().limit(40_000).toArray();
+        Integer[] boxed = Arrays.stream(slots).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, Comparator.comparingInt(slot -> keys[slot])); // stable: ties keep input order
+        int[] expected = Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+
+        int[] sequential = slots.clone();
+        SlotSort.sort(sequential, byKey);
+        int[] parallel = slots.clone();
+        SlotSort.parallelSort(parallel, byKey, ForkJoinPool.commonPool(), 1000); // forces many tasks
+
+        assertArrayEquals(expected, sequential);
+        assertArrayEquals(expected, parallel);
+    }
+
+    @Test
+    @DisplayName("A checkpoint that throws should abandon the sort")
+    void sort_WhenCheckpointThrows_StopsEarly() {
+        int[] slots = new Random(5).ints(0, keys.length).limit(40_000).toArray();
+        AtomicInteger checkpoints = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> SlotSort.sort(slots, byKey, () -> {
+            if (checkpoints.incrementAndGet() == 3) throw new IllegalStateException("cancelled");
+        }));
+        assertEquals(3, checkpoints.get()); // actual: no work after the throwing checkpoint
+    }
+}
@@ -0,0 +1,57 @@
+package com.zhou.movies.service.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.zhou.movies.pojo.Category;
+import com.zhou.movies.pojo.Movie;
+import com.zhou.movies.service.strategy.SortDirection;
+import com.zhou.movies.service.strategy.SortStrategyType;
+
+/**
+ * Unit tests for MovieQuery
+ * Goal: verify normalization, value semantics and single-movie matching
+ */
+class MovieQueryTest {
+
+    @Test
+    @DisplayName("Builder should normalize blank search and null sort settings")
+    void build_WhenBlankOrNullValues_NormalizesToDefaults() {
+        MovieQuery query = new MovieQuery.Builder()
+                .search("   ")
+                .sortType(null)
+                .sortDirection(null)
+                .build();
+
+        assertNull(query.getSearchQuery()); // actual: blank means no search
+        assertEquals(SortStrategyType.TITLE, query.getSortType());
+        assertEquals(SortDirection.ASCENDING, query.getSortDirection());
+        assertEquals(MovieQuery.ALL, query); // actual: equal by value
+    }
+
+    @Test
+    @DisplayName("toBuilder should derive a new query without changing the original")
+    void toBuilder_WhenChanged_LeavesOriginalIntact() {
+        MovieQuery original = new MovieQuery.Builder().search(" night ").category(Category.ACTION).build();
+
+        MovieQuery derived = original.toBuilder().rating(5).build();
+
+        assertEquals("night", original.getSearchQuery()); // actual: trimmed
+        assertNull(original.getRating());
+        assertEquals(5, derived.getRating());
+        assertTrue(original.sameFilters(original.toBuilder().search("other").build()));
+        assertFalse(original.sameFilters(derived));
+    }
+
+    @Test
+    @DisplayName("matches should apply filters and case-insensitive search on title or director")
+    void matches_WhenFiltersAndSearchSet_ChecksAll() {
+        Movie movie = new Movie.Builder("Night Train", "Jane Doe").rating(4).category(Category.ACTION).build();
+
+        assertTrue(new MovieQuery.Builder().search("TRAIN").build().matches(movie));
+        assertTrue(new MovieQuery.Builder().search("doe").category(Category.ACTION).build().matches(movie));
+        assertFalse(new MovieQuery.Builder().category(Category.COMEDY).build().matches(movie));
+        assertFalse(new MovieQuery.Builder().search("train").rating(3).build().matches(movie));
+    }
+}